@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.tool.imf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+import com.sferalabs.imf.exception.ImfXmlException;
+import com.sferalabs.imf.model.assetmap.AssetMap;
+import com.sferalabs.imf.model.packinglist.PackingList;
+import com.sferalabs.imf.util.ImfLogger;
+import com.sferalabs.imf.validation.CompositionPlaylistValidator;
+import com.sferalabs.imf.validation.MXFValidationCache;
+import com.sferalabs.imf.validation.ValidationCancellation;
+import com.sferalabs.imf.validation.ValidationResultList;
+import com.sferalabs.imf.validation.ValidationResultListener;
+
+/**
+ * CplValidationTask class validates one CPL of a package. AssetMap and PackingList
+ * are only read, so they can be shared by tasks running concurrently.
+ */
+class CplValidationTask implements Callable<ValidationResultList> {
+	
+	private final String cplFilePath;
+	private final AssetMap assetMap;
+	private final PackingList packingList;
+	private String xsdPath;
+	private MXFValidationCache mxfValidationCache;
+	private ValidationResultListener resultListener;
+	private ValidationCancellation cancellation;
+	private boolean isStreaming;
+	private PrefetchedParse<CompositionPlaylistValidator> prefetchedParse;
+	private boolean captureOutput;
+	private String output = "";
+	
+	CplValidationTask(String cplFilePath, AssetMap assetMap, PackingList packingList) {
+		this.cplFilePath = cplFilePath;
+		this.assetMap = assetMap;
+		this.packingList = packingList;
+	}
+	
+	@Override
+	public ValidationResultList call() throws IOException, ParserConfigurationException, SAXException, ImfXmlException {
+		if (captureOutput) {
+			ImfLogger.getLogger().startCapture();
+		}
+		try {
+			ValidationResultList validationResults = new ValidationResultList(resultListener);
+			if (cancellation != null && cancellation.isCancelled()) {
+				return validationResults;
+			}
+			String cplFilename = new File(cplFilePath).getName();
+			ImfLogger.getLogger().logNewLine();
+			ImfLogger.getLogger().logInfo("Validating CPL: " + cplFilename + " ...");
+			CompositionPlaylistValidator cplValidator;
+			if (prefetchedParse != null) {
+				cplValidator = prefetchedParse.getValidator();
+			} else {
+				cplValidator = new CompositionPlaylistValidator(cplFilePath);
+				if (xsdPath != null) {
+					cplValidator.setXsdPath(xsdPath);
+				}
+			}
+			cplValidator.setResultListener(resultListener);
+			cplValidator.setCancellation(cancellation);
+			cplValidator.setAssetMap(assetMap);
+			cplValidator.setPackingList(packingList);
+			if (mxfValidationCache != null) {
+				cplValidator.setMXFValidationCache(mxfValidationCache);
+			}
+			if (prefetchedParse != null) {
+				validationResults.add(prefetchedParse.get());
+			} else if (isStreaming) {
+				validationResults.add(cplValidator.validateXsd());
+			} else {
+				validationResults.add(cplValidator.parse());
+			}
+			if (isStreaming) {
+				validationResults.addAll(cplValidator.validateStreaming());
+			} else {
+				validationResults.addAll(cplValidator.validate());
+			}
+			return validationResults;
+		} finally {
+			if (captureOutput) {
+				output = ImfLogger.getLogger().stopCapture();
+			}
+		}
+	}
+	
+	/**
+	 * Set core constraints xsd, embedded xsd is used if unset
+	 * @param xsdPath
+	 */
+	void setXsdPath(String xsdPath) {
+		this.xsdPath = xsdPath;
+	}
+	
+	/**
+	 * Set MXF validation cache shared by all CPLs of the run
+	 * @param mxfValidationCache
+	 */
+	void setMXFValidationCache(MXFValidationCache mxfValidationCache) {
+		this.mxfValidationCache = mxfValidationCache;
+	}
+	
+	/**
+	 * Set listener receiving results as soon as they are found
+	 * @param resultListener
+	 */
+	void setResultListener(ValidationResultListener resultListener) {
+		this.resultListener = resultListener;
+	}
+	
+	/**
+	 * Set cancellation of the package validation, the task is skipped or stops early once it is cancelled
+	 * @param cancellation
+	 */
+	void setCancellation(ValidationCancellation cancellation) {
+		this.cancellation = cancellation;
+	}
+	
+	/**
+	 * Validate the CPL while it is read instead of building its model first, for CPLs too large to be held in memory
+	 * @param isStreaming
+	 */
+	void setStreaming(boolean isStreaming) {
+		this.isStreaming = isStreaming;
+	}
+	
+	/**
+	 * Use a parse of the CPL started ahead of the task, it should match the streaming mode of the task
+	 * @param prefetchedParse
+	 */
+	void setPrefetchedParse(PrefetchedParse<CompositionPlaylistValidator> prefetchedParse) {
+		this.prefetchedParse = prefetchedParse;
+	}
+	
+	/**
+	 * Buffer log output of the task instead of printing it, so that concurrent tasks do not interleave
+	 * @param captureOutput
+	 */
+	void setCaptureOutput(boolean captureOutput) {
+		this.captureOutput = captureOutput;
+	}
+	
+	/**
+	 * Get buffered log output
+	 * @return output, empty if output was not captured
+	 */
+	String getOutput() {
+		return output;
+	}
+}
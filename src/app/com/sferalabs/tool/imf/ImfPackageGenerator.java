@@ -0,0 +1,601 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.tool.imf;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import javax.xml.bind.DatatypeConverter;
+
+import com.sferalabs.imf.util.ImfLogger;
+
+/**
+ * ImfPackageGenerator class writes synthetic IMF packages for scale and performance testing:
+ * ASSETMAP, PackingList with SHA-1 hashes of the written files, CPLs and MXF files. The MXF files
+ * are minimal OP1A track files: header partition with primer pack and header metadata (see
+ * {@link MXFHeaderMetadata}), body partition with one essence element of the requested size, footer
+ * partition and random index pack. UUIDs derive from the seed.
+ * <p>
+ * Supplemental packages have their own CPLs referencing track files of the first package, which
+ * they list in their ASSETMAP and PackingList, and are validated with the first package as
+ * dependent package.
+ */
+public class ImfPackageGenerator {
+	
+	private static class Messages {
+		public static final String GENERATED_FMT = "Generated package %s: %d CPL, %d track files";
+		public static final String INVALID_ARGUMENTS_MSG = "Invalid arguments";
+		public static final String INVALID_VALUE_FMT = "Invalid value: %s";
+		public static final String GENERATION_FAILED_FMT = "Unable to generate package: %s";
+		public static final String FOLDER_CREATION_FAILED_FMT = "Unable to create folder %s";
+	}
+	
+	private static final byte[] HEADER_PARTITION_KEY = {
+		0x06, 0x0e, 0x2b, 0x34, 0x02, 0x05, 0x01, 0x01, 0x0d, 0x01, 0x02, 0x01, 0x01, 0x02, 0x04, 0x00 };
+	private static final byte[] BODY_PARTITION_KEY = {
+		0x06, 0x0e, 0x2b, 0x34, 0x02, 0x05, 0x01, 0x01, 0x0d, 0x01, 0x02, 0x01, 0x01, 0x03, 0x04, 0x00 };
+	private static final byte[] FOOTER_PARTITION_KEY = {
+		0x06, 0x0e, 0x2b, 0x34, 0x02, 0x05, 0x01, 0x01, 0x0d, 0x01, 0x02, 0x01, 0x01, 0x04, 0x04, 0x00 };
+	private static final byte[] RANDOM_INDEX_PACK_KEY = {
+		0x06, 0x0e, 0x2b, 0x34, 0x02, 0x05, 0x01, 0x01, 0x0d, 0x01, 0x02, 0x01, 0x01, 0x11, 0x01, 0x00 };
+	/** Frame wrapped JPEG 2000 picture element */
+	private static final byte[] PICTURE_ELEMENT_KEY = {
+		0x06, 0x0e, 0x2b, 0x34, 0x01, 0x02, 0x01, 0x01, 0x0d, 0x01, 0x03, 0x01, 0x15, 0x01, 0x08, 0x01 };
+	/** Clip wrapped wave sound element */
+	private static final byte[] SOUND_ELEMENT_KEY = {
+		0x06, 0x0e, 0x2b, 0x34, 0x01, 0x02, 0x01, 0x01, 0x0d, 0x01, 0x03, 0x01, 0x16, 0x01, 0x02, 0x01 };
+	static final byte[] OP1A_LABEL = {
+		0x06, 0x0e, 0x2b, 0x34, 0x04, 0x01, 0x01, 0x01, 0x0d, 0x01, 0x02, 0x01, 0x01, 0x01, 0x09, 0x00 };
+	/** MXF-GC frame wrapped JPEG 2000 */
+	private static final byte[] PICTURE_CONTAINER_LABEL = {
+		0x06, 0x0e, 0x2b, 0x34, 0x04, 0x01, 0x01, 0x07, 0x0d, 0x01, 0x03, 0x01, 0x02, 0x0c, 0x01, 0x00 };
+	/** MXF-GC clip wrapped wave */
+	private static final byte[] SOUND_CONTAINER_LABEL = {
+		0x06, 0x0e, 0x2b, 0x34, 0x04, 0x01, 0x01, 0x01, 0x0d, 0x01, 0x03, 0x01, 0x02, 0x06, 0x02, 0x00 };
+	
+	/** Key and 4 byte BER length */
+	static final int KL_SIZE = 20;
+	private static final int PARTITION_PACK_SIZE = KL_SIZE + 88 + PICTURE_CONTAINER_LABEL.length;
+	/** Key and 9 byte BER length */
+	private static final int ESSENCE_KL_SIZE = 25;
+	
+	private static final String ASSETMAP_NS = "http://www.smpte-ra.org/schemas/429-9/2007/AM";
+	private static final String PKL_NS = "http://www.smpte-ra.org/schemas/429-8/2007/PKL";
+	private static final String CPL_NS = "http://www.smpte-ra.org/schemas/2067-3/2013";
+	private static final String CORE_NS = "http://www.smpte-ra.org/schemas/2067-2/2013";
+	private static final String DESCRIPTOR_NS = "http://www.smpte-ra.org/reg/395/2014/13/1/aaf";
+	private static final String PROPERTY_NS = "http://www.smpte-ra.org/reg/335/2012";
+	private static final String ISSUE_DATE = "2015-01-01T00:00:00-00:00";
+	
+	private int cplCount = 1;
+	private int segmentCount = 1;
+	private int sequenceCount = 2;
+	private int resourceCount = 1;
+	private int trackFileCount = 1;
+	private long essenceSize = 1024;
+	private int supplementalPackageCount;
+	private int descriptorPropertyCount;
+	private long seed;
+	
+	/**
+	 * Asset written to a package
+	 */
+	private static class GeneratedAsset {
+		final String uuid;
+		final String fileName;
+		final String type;
+		final long size;
+		final String hash;
+		
+		GeneratedAsset(String uuid, String fileName, String type, long size, String hash) {
+			this.uuid = uuid;
+			this.fileName = fileName;
+			this.type = type;
+			this.size = size;
+			this.hash = hash;
+		}
+	}
+	
+	/**
+	 * Write packages into given folder, the first package is named OV and supplemental packages SUPPLEMENTAL_n
+	 * @param folder
+	 * @return paths of the generated packages, first package first
+	 * @throws IOException
+	 */
+	public List<String> generate(File folder) throws IOException {
+		Random random = new Random(seed);
+		List<String> packagePaths = new ArrayList<String>();
+		
+		File ovFolder = new File(folder, "OV");
+		mkdirs(ovFolder);
+		//track files of every sequence, sequences of a CPL reference the track files round robin
+		List<List<GeneratedAsset>> trackFiles = new ArrayList<List<GeneratedAsset>>();
+		List<GeneratedAsset> ovAssets = new ArrayList<GeneratedAsset>();
+		for (int sequence = 0; sequence < sequenceCount; sequence++) {
+			List<GeneratedAsset> sequenceTrackFiles = new ArrayList<GeneratedAsset>();
+			for (int i = 0; i < trackFileCount; i++) {
+				String fileName = String.format("%s_%02d_%04d.mxf", sequence == 0 ? "VIDEO" : "AUDIO", sequence, i + 1);
+				File file = new File(ovFolder, fileName);
+				String id = uuid(random);
+				String hash = writeMXF(file, essenceSize, UUID.fromString(id.substring("urn:uuid:".length())), sequence != 0);
+				sequenceTrackFiles.add(new GeneratedAsset(id, fileName, "application/mxf", file.length(), hash));
+			}
+			trackFiles.add(sequenceTrackFiles);
+			ovAssets.addAll(sequenceTrackFiles);
+		}
+		writePackage(ovFolder, ovAssets, new ArrayList<GeneratedAsset>(), trackFiles, random);
+		packagePaths.add(ovFolder.getPath());
+		
+		for (int i = 0; i < supplementalPackageCount; i++) {
+			File supplementalFolder = new File(folder, String.format("SUPPLEMENTAL_%d", i + 1));
+			mkdirs(supplementalFolder);
+			writePackage(supplementalFolder, new ArrayList<GeneratedAsset>(), ovAssets, trackFiles, random);
+			packagePaths.add(supplementalFolder.getPath());
+		}
+		return packagePaths;
+	}
+	
+	/**
+	 * Write CPLs, PackingList and ASSETMAP of a package
+	 * @param ownAssets track files stored in the package
+	 * @param dependentAssets track files stored in the first package
+	 */
+	private void writePackage(File folder, List<GeneratedAsset> ownAssets, List<GeneratedAsset> dependentAssets,
+			List<List<GeneratedAsset>> trackFiles, Random random) throws IOException {
+		List<GeneratedAsset> pklAssets = new ArrayList<GeneratedAsset>(ownAssets);
+		pklAssets.addAll(dependentAssets);
+		for (int i = 0; i < cplCount; i++) {
+			String cplUuid = uuid(random);
+			String fileName = "CPL_" + cplUuid.substring("urn:uuid:".length()) + ".xml";
+			File file = new File(folder, fileName);
+			String hash;
+			try (DigestOutputStream outputStream = newDigestStream(file)) {
+				Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+				writeCpl(writer, cplUuid, trackFiles, random);
+				writer.flush();
+				hash = DatatypeConverter.printBase64Binary(outputStream.getMessageDigest().digest());
+			}
+			pklAssets.add(new GeneratedAsset(cplUuid, fileName, "text/xml", file.length(), hash));
+		}
+		
+		String pklUuid = uuid(random);
+		String pklFileName = "PKL_" + pklUuid.substring("urn:uuid:".length()) + ".xml";
+		try (Writer writer = newWriter(new File(folder, pklFileName))) {
+			writePackingList(writer, pklUuid, pklAssets);
+		}
+		try (Writer writer = newWriter(new File(folder, "ASSETMAP.xml"))) {
+			writeAssetMap(writer, pklUuid, pklFileName, pklAssets, random);
+		}
+		ImfLogger.getLogger().logInfo(Messages.GENERATED_FMT, folder.getPath(), cplCount, ownAssets.size());
+	}
+	
+	private void writeCpl(Writer writer, String cplUuid, List<List<GeneratedAsset>> trackFiles, Random random) throws IOException {
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
+		writer.write("<CompositionPlaylist xmlns=\"" + CPL_NS + "\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">\n");
+		writer.write("<Id>" + cplUuid + "</Id>\n");
+		writer.write("<Annotation>Synthetic composition</Annotation>\n");
+		writer.write("<IssueDate>" + ISSUE_DATE + "</IssueDate>\n");
+		writer.write("<Issuer>ImfPackageGenerator</Issuer>\n");
+		writer.write("<Creator>ImfPackageGenerator</Creator>\n");
+		writer.write("<ContentOriginator>ImfPackageGenerator</ContentOriginator>\n");
+		writer.write("<ContentTitle>Synthetic composition</ContentTitle>\n");
+		writer.write("<ContentKind>test</ContentKind>\n");
+		writer.write("<ContentVersionList>\n<ContentVersion>\n");
+		writer.write("<Id>" + uuid(random) + "</Id>\n");
+		writer.write("<LabelText>Synthetic composition</LabelText>\n");
+		writer.write("</ContentVersion>\n</ContentVersionList>\n");
+		List<String> descriptorIds = new ArrayList<String>();
+		if (descriptorPropertyCount > 0) {
+			writer.write("<EssenceDescriptorList>\n");
+			for (int sequence = 0; sequence < sequenceCount; sequence++) {
+				String descriptorId = uuid(random);
+				descriptorIds.add(descriptorId);
+				writeEssenceDescriptor(writer, descriptorId, random);
+			}
+			writer.write("</EssenceDescriptorList>\n");
+		}
+		writer.write("<EditRate>24 1</EditRate>\n");
+		writer.write("<SegmentList>\n");
+		List<String> trackIds = new ArrayList<String>();
+		for (int sequence = 0; sequence < sequenceCount; sequence++) {
+			trackIds.add(uuid(random));
+		}
+		int resourceIndex = 0;
+		for (int segment = 0; segment < segmentCount; segment++) {
+			writer.write("<Segment>\n<Id>" + uuid(random) + "</Id>\n<SequenceList>\n");
+			for (int sequence = 0; sequence < sequenceCount; sequence++) {
+				String name = sequence == 0 ? "MainImageSequence" : "MainAudioSequence";
+				String editRate = sequence == 0 ? "24 1" : "48000 1";
+				long duration = sequence == 0 ? 240 : 480000;
+				writer.write("<cc:" + name + " xmlns:cc=\"" + CORE_NS + "\">\n");
+				writer.write("<Id>" + uuid(random) + "</Id>\n");
+				writer.write("<TrackId>" + trackIds.get(sequence) + "</TrackId>\n");
+				writer.write("<ResourceList>\n");
+				List<GeneratedAsset> sequenceTrackFiles = trackFiles.get(sequence);
+				for (int i = 0; i < resourceCount; i++) {
+					GeneratedAsset trackFile = sequenceTrackFiles.get((resourceIndex + i) % sequenceTrackFiles.size());
+					writer.write("<Resource xsi:type=\"TrackFileResourceType\">\n");
+					writer.write("<Id>" + uuid(random) + "</Id>\n");
+					writer.write("<EditRate>" + editRate + "</EditRate>\n");
+					writer.write("<IntrinsicDuration>" + duration + "</IntrinsicDuration>\n");
+					writer.write("<SourceDuration>" + duration + "</SourceDuration>\n");
+					String sourceEncoding = descriptorIds.isEmpty() ? uuid(random) : descriptorIds.get(sequence);
+					writer.write("<SourceEncoding>" + sourceEncoding + "</SourceEncoding>\n");
+					writer.write("<TrackFileId>" + trackFile.uuid + "</TrackFileId>\n");
+					writer.write("</Resource>\n");
+				}
+				writer.write("</ResourceList>\n");
+				writer.write("</cc:" + name + ">\n");
+			}
+			resourceIndex += resourceCount;
+			writer.write("</SequenceList>\n</Segment>\n");
+		}
+		writer.write("</SegmentList>\n");
+		writer.write("</CompositionPlaylist>\n");
+	}
+	
+	/**
+	 * Write an essence descriptor with a RegXML like descriptor set of descriptorPropertyCount properties
+	 */
+	private void writeEssenceDescriptor(Writer writer, String descriptorId, Random random) throws IOException {
+		writer.write("<EssenceDescriptor>\n");
+		writer.write("<Id>" + descriptorId + "</Id>\n");
+		writer.write("<r0:RGBADescriptor xmlns:r0=\"" + DESCRIPTOR_NS + "\" xmlns:r1=\"" + PROPERTY_NS + "\">\n");
+		writer.write("<r1:InstanceID>" + uuid(random) + "</r1:InstanceID>\n");
+		for (int i = 1; i < descriptorPropertyCount; i++) {
+			writer.write("<r1:Property" + i + ">" + random.nextInt() + "</r1:Property" + i + ">\n");
+		}
+		writer.write("</r0:RGBADescriptor>\n");
+		writer.write("</EssenceDescriptor>\n");
+	}
+	
+	private static void writePackingList(Writer writer, String pklUuid, List<GeneratedAsset> assets) throws IOException {
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\" ?>\n");
+		writer.write("<PackingList xmlns=\"" + PKL_NS + "\">\n");
+		writer.write("<Id>" + pklUuid + "</Id>\n");
+		writer.write("<AnnotationText>Synthetic package</AnnotationText>\n");
+		writer.write("<IssueDate>" + ISSUE_DATE + "</IssueDate>\n");
+		writer.write("<Issuer>ImfPackageGenerator</Issuer>\n");
+		writer.write("<Creator>ImfPackageGenerator</Creator>\n");
+		writer.write("<AssetList>\n");
+		for (GeneratedAsset asset : assets) {
+			writer.write("<Asset>\n");
+			writer.write("<Id>" + asset.uuid + "</Id>\n");
+			writer.write("<Hash>" + asset.hash + "</Hash>\n");
+			writer.write("<Size>" + asset.size + "</Size>\n");
+			writer.write("<Type>" + asset.type + "</Type>\n");
+			writer.write("<OriginalFileName>" + asset.fileName + "</OriginalFileName>\n");
+			writer.write("</Asset>\n");
+		}
+		writer.write("</AssetList>\n");
+		writer.write("</PackingList>\n");
+	}
+	
+	private static void writeAssetMap(Writer writer, String pklUuid, String pklFileName, List<GeneratedAsset> assets,
+			Random random) throws IOException {
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\" ?>\n");
+		writer.write("<AssetMap xmlns=\"" + ASSETMAP_NS + "\">\n");
+		writer.write("<Id>" + uuid(random) + "</Id>\n");
+		writer.write("<AnnotationText>Synthetic package</AnnotationText>\n");
+		writer.write("<Creator>ImfPackageGenerator</Creator>\n");
+		writer.write("<VolumeCount>1</VolumeCount>\n");
+		writer.write("<IssueDate>" + ISSUE_DATE + "</IssueDate>\n");
+		writer.write("<Issuer>ImfPackageGenerator</Issuer>\n");
+		writer.write("<AssetList>\n");
+		writer.write("<Asset>\n<Id>" + pklUuid + "</Id>\n<PackingList>true</PackingList>\n");
+		writeChunk(writer, pklFileName);
+		writer.write("</Asset>\n");
+		for (GeneratedAsset asset : assets) {
+			writer.write("<Asset>\n<Id>" + asset.uuid + "</Id>\n");
+			writeChunk(writer, asset.fileName);
+			writer.write("</Asset>\n");
+		}
+		writer.write("</AssetList>\n");
+		writer.write("</AssetMap>\n");
+	}
+	
+	private static void writeChunk(Writer writer, String path) throws IOException {
+		writer.write("<ChunkList>\n<Chunk>\n<Path>" + path + "</Path>\n<VolumeIndex>1</VolumeIndex>\n</Chunk>\n</ChunkList>\n");
+	}
+	
+	/**
+	 * Write an OP1A track file made of partitions, header metadata and random index pack, the essence
+	 * element holds zero bytes: one frame of picture, or as many stereo 24 bit samples as fit in sound
+	 * @param file
+	 * @param essenceSize size of the essence element value, no body partition is written for 0
+	 * @param trackFileUuid track file id, material number of the File package
+	 * @param isSound write a sound track file, picture otherwise
+	 * @return base64 SHA-1 hash of the file
+	 * @throws IOException
+	 */
+	public static String writeMXF(File file, long essenceSize, UUID trackFileUuid, boolean isSound) throws IOException {
+		byte[] elementKey = isSound ? SOUND_ELEMENT_KEY : PICTURE_ELEMENT_KEY;
+		byte[] containerLabel = isSound ? SOUND_CONTAINER_LABEL : PICTURE_CONTAINER_LABEL;
+		long duration;
+		if (isSound) {
+			//whole samples only
+			duration = essenceSize / MXFHeaderMetadata.SOUND_BLOCK_ALIGN;
+			essenceSize = duration * MXFHeaderMetadata.SOUND_BLOCK_ALIGN;
+		} else {
+			duration = essenceSize > 0 ? 1 : 0;
+		}
+		//track number is the last 4 bytes of the essence element key
+		int trackNumber = ByteBuffer.wrap(elementKey, 12, 4).getInt();
+		byte[] headerMetadata = MXFHeaderMetadata.encode(trackFileUuid, isSound, duration, containerLabel, trackNumber, 1);
+		long headerByteCount = headerMetadata.length;
+		long bodyOffset = PARTITION_PACK_SIZE + headerByteCount;
+		long footerOffset = essenceSize > 0 ? bodyOffset + PARTITION_PACK_SIZE + ESSENCE_KL_SIZE + essenceSize : bodyOffset;
+		try (DigestOutputStream outputStream = newDigestStream(file)) {
+			writePartitionPack(outputStream, HEADER_PARTITION_KEY, 0, 0, footerOffset, headerByteCount, 0, containerLabel);
+			outputStream.write(headerMetadata);
+			
+			if (essenceSize > 0) {
+				writePartitionPack(outputStream, BODY_PARTITION_KEY, bodyOffset, 0, footerOffset, 0, 1, containerLabel);
+				ByteBuffer essenceKL = ByteBuffer.allocate(ESSENCE_KL_SIZE);
+				essenceKL.put(elementKey).put((byte) 0x88).putLong(essenceSize);
+				outputStream.write(essenceKL.array());
+				byte[] zeros = new byte[(int) Math.min(essenceSize, 1024 * 1024)];
+				for (long remaining = essenceSize; remaining > 0; remaining -= zeros.length) {
+					outputStream.write(zeros, 0, (int) Math.min(remaining, zeros.length));
+				}
+			}
+			
+			writePartitionPack(outputStream, FOOTER_PARTITION_KEY, footerOffset, essenceSize > 0 ? bodyOffset : 0,
+					footerOffset, 0, 0, containerLabel);
+			
+			//random index pack: BodySID and offset of every partition, then the pack length
+			int partitionCount = essenceSize > 0 ? 3 : 2;
+			int ripValueSize = partitionCount * 12 + 4;
+			ByteBuffer randomIndexPack = ByteBuffer.allocate(KL_SIZE + ripValueSize);
+			putKL(randomIndexPack, RANDOM_INDEX_PACK_KEY, ripValueSize);
+			randomIndexPack.putInt(0).putLong(0);
+			if (essenceSize > 0) {
+				randomIndexPack.putInt(1).putLong(bodyOffset);
+			}
+			randomIndexPack.putInt(0).putLong(footerOffset);
+			randomIndexPack.putInt(KL_SIZE + ripValueSize);
+			outputStream.write(randomIndexPack.array());
+			outputStream.flush();
+			return DatatypeConverter.printBase64Binary(outputStream.getMessageDigest().digest());
+		}
+	}
+	
+	private static void writePartitionPack(OutputStream outputStream, byte[] key, long thisPartition, long previousPartition,
+			long footerPartition, long headerByteCount, int bodySID, byte[] containerLabel) throws IOException {
+		ByteBuffer pack = ByteBuffer.allocate(PARTITION_PACK_SIZE);
+		putKL(pack, key, PARTITION_PACK_SIZE - KL_SIZE);
+		pack.putShort((short) 1).putShort((short) 3);	//version
+		pack.putInt(1);									//KAGSize
+		pack.putLong(thisPartition);
+		pack.putLong(previousPartition);
+		pack.putLong(footerPartition);
+		pack.putLong(headerByteCount);
+		pack.putLong(0);								//IndexByteCount
+		pack.putInt(0);									//IndexSID
+		pack.putLong(0);								//BodyOffset
+		pack.putInt(bodySID);
+		pack.put(OP1A_LABEL);
+		pack.putInt(1).putInt(containerLabel.length);
+		pack.put(containerLabel);
+		outputStream.write(pack.array());
+	}
+	
+	static void putKL(ByteBuffer buffer, byte[] key, int length) {
+		buffer.put(key);
+		buffer.put((byte) 0x83).put((byte) (length >> 16)).put((byte) (length >> 8)).put((byte) length);
+	}
+	
+	private static DigestOutputStream newDigestStream(File file) throws IOException {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			return new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1024 * 1024), digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+	
+	private static Writer newWriter(File file) throws IOException {
+		return new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(file)), StandardCharsets.UTF_8);
+	}
+	
+	private static void mkdirs(File folder) throws IOException {
+		if (!folder.isDirectory() && !folder.mkdirs()) {
+			throw new IOException(String.format(Messages.FOLDER_CREATION_FAILED_FMT, folder.getPath()));
+		}
+	}
+	
+	private static String uuid(Random random) {
+		//random version 4 uuid
+		long mostSigBits = (random.nextLong() & ~0xf000L) | 0x4000L;
+		long leastSigBits = (random.nextLong() & ~(0xc000L << 48)) | (0x8000L << 48);
+		return "urn:uuid:" + new UUID(mostSigBits, leastSigBits);
+	}
+	
+	/**
+	 * Set number of CPLs of every package
+	 * @param cplCount
+	 */
+	public void setCplCount(int cplCount) {
+		this.cplCount = cplCount;
+	}
+	
+	/**
+	 * Set number of segments of every CPL
+	 * @param segmentCount
+	 */
+	public void setSegmentCount(int segmentCount) {
+		this.segmentCount = segmentCount;
+	}
+	
+	/**
+	 * Set number of sequences of every segment, a main image sequence followed by main audio sequences
+	 * @param sequenceCount
+	 */
+	public void setSequenceCount(int sequenceCount) {
+		this.sequenceCount = sequenceCount;
+	}
+	
+	/**
+	 * Set number of resources of every sequence
+	 * @param resourceCount
+	 */
+	public void setResourceCount(int resourceCount) {
+		this.resourceCount = resourceCount;
+	}
+	
+	/**
+	 * Set number of track files of every sequence
+	 * @param trackFileCount
+	 */
+	public void setTrackFileCount(int trackFileCount) {
+		this.trackFileCount = trackFileCount;
+	}
+	
+	/**
+	 * Set size of the essence element of every track file
+	 * @param essenceSize bytes
+	 */
+	public void setEssenceSize(long essenceSize) {
+		this.essenceSize = essenceSize;
+	}
+	
+	/**
+	 * Set number of supplemental packages depending on the first package
+	 * @param supplementalPackageCount
+	 */
+	public void setSupplementalPackageCount(int supplementalPackageCount) {
+		this.supplementalPackageCount = supplementalPackageCount;
+	}
+	
+	/**
+	 * Set number of properties of the essence descriptor of every sequence, no descriptor is written when 0
+	 * @param descriptorPropertyCount
+	 */
+	public void setDescriptorPropertyCount(int descriptorPropertyCount) {
+		this.descriptorPropertyCount = descriptorPropertyCount;
+	}
+	
+	/**
+	 * Set seed of the generated UUIDs
+	 * @param seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	
+	private static void usage() {
+		System.out.println("Usage: ImfPackageGenerator <folder> <OPTIONS>");
+		System.out.println("--cpls          <N>         number of CPLs of every package (1 by default)");
+		System.out.println("--segments      <N>         number of segments of every CPL (1 by default)");
+		System.out.println("--sequences     <N>         number of sequences of every segment, one image and N-1 audio (2 by default)");
+		System.out.println("--resources     <N>         number of resources of every sequence (1 by default)");
+		System.out.println("--track-files   <N>         number of track files of every sequence (1 by default)");
+		System.out.println("--essence-size  <bytes>     size of the essence of every track file (1024 by default)");
+		System.out.println("--supplemental  <N>         number of supplemental packages depending on the OV package (0 by default)");
+		System.out.println("--descriptor-properties <N> number of properties of the essence descriptor of every sequence (0 by default)");
+		System.out.println("--seed          <N>         seed of the generated UUIDs (0 by default)");
+	}
+	
+	public static void main(String[] args) {
+		if (args.length < 1 || args.length % 2 == 0 || args[0].startsWith("-")) {
+			usage();
+			return;
+		}
+		ImfPackageGenerator generator = new ImfPackageGenerator();
+		try {
+			for (int i = 1; i < args.length; i += 2) {
+				long value = Long.parseLong(args[i + 1]);
+				if (value < 0 || (value == 0 && !args[i].equals("--essence-size") && !args[i].equals("--supplemental")
+						&& !args[i].equals("--descriptor-properties") && !args[i].equals("--seed"))) {
+					throw new NumberFormatException(args[i + 1]);
+				}
+				switch (args[i]) {
+					case "--cpls":
+						generator.setCplCount((int) value);
+						break;
+					case "--segments":
+						generator.setSegmentCount((int) value);
+						break;
+					case "--sequences":
+						generator.setSequenceCount((int) value);
+						break;
+					case "--resources":
+						generator.setResourceCount((int) value);
+						break;
+					case "--track-files":
+						generator.setTrackFileCount((int) value);
+						break;
+					case "--essence-size":
+						generator.setEssenceSize(value);
+						break;
+					case "--supplemental":
+						generator.setSupplementalPackageCount((int) value);
+						break;
+					case "--descriptor-properties":
+						generator.setDescriptorPropertyCount((int) value);
+						break;
+					case "--seed":
+						generator.setSeed(value);
+						break;
+					default:
+						ImfLogger.getLogger().logError(Messages.INVALID_ARGUMENTS_MSG);
+						usage();
+						return;
+				}
+			}
+		} catch (NumberFormatException e) {
+			ImfLogger.getLogger().logError(Messages.INVALID_VALUE_FMT, e.getMessage());
+			return;
+		}
+		
+		try {
+			generator.generate(new File(args[0]));
+		} catch (IOException e) {
+			ImfLogger.getLogger().logError(Messages.GENERATION_FAILED_FMT, e.getMessage());
+		}
+	}
+}
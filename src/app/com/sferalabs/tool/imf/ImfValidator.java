@@ -34,28 +34,44 @@
 package com.sferalabs.tool.imf;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
-
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.xml.sax.SAXException;
-import org.xml.sax.SAXParseException;
 
-import com.sferalabs.imf.exception.ImfXmlException;
-import com.sferalabs.imf.model.assetmap.Asset;
-import com.sferalabs.imf.model.assetmap.AssetMap;
-import com.sferalabs.imf.model.imfpackage.ImfPackage;
-import com.sferalabs.imf.model.packinglist.PackingList;
+import com.sferalabs.imf.util.ImfHashAlgorithm;
+import com.sferalabs.imf.util.ImfHashCache;
+import com.sferalabs.imf.util.ImfHashEngine;
 import com.sferalabs.imf.util.ImfLogger;
-import com.sferalabs.imf.validation.AssetMapValidator;
-import com.sferalabs.imf.validation.CompositionPlaylistValidator;
-import com.sferalabs.imf.validation.PackingListValidator;
+import com.sferalabs.imf.validation.MXFValidationCache;
+import com.sferalabs.imf.validation.ValidationReportWriter;
 import com.sferalabs.imf.validation.ValidationResult;
 import com.sferalabs.imf.validation.ValidationResultList;
+import com.sferalabs.imf.validation.ValidationSeverity;
+import com.sferalabs.imf.validation.ValidationStopCondition;
+import com.sferalabs.imf.xsd.ImfXsds;
 
 public class ImfValidator {
 	
@@ -63,6 +79,17 @@ public class ImfValidator {
 	private static List<String> dependentPackagePaths;
 	private static boolean isVerboseEnabled;
 	private static boolean isHashCheckingSkipped;
+	private static int hashThreadCount;
+	private static Set<ImfHashAlgorithm> extraHashAlgos;
+	private static String hashCachePath;
+	private static int cplThreadCount;
+	private static boolean isCplStreamed;
+	private static boolean isXmlPrefetched;
+	private static ValidationStopCondition stopCondition;
+	private static String reportPath;
+	private static String batchPath;
+	private static int packageThreadCount;
+	private static int daemonPort = -1;
 
 	// banner text
 	private static final String VERSION = "1.8";
@@ -80,7 +107,21 @@ public class ImfValidator {
 		System.out.println("Usage:");
 		System.out.println("-p,--package    <folder>    package to verify (should be used only one time)");
 		System.out.println("-d,--depend     <folder>    dependent package (can be used multiple times to specify multiple dependent packages)");
+		System.out.println("--batch  <file|folder>      validate packages listed in a file, one per line with tab separated dependent packages,");
+		System.out.println("                            or all packages found in a folder");
+		System.out.println("--package-threads <N>       number of packages validated concurrently in batch and daemon mode (number of processors by default)");
+		System.out.println("--daemon        <port>      validate packages submitted to http://127.0.0.1:<port>/jobs until the process is stopped");
 		System.out.println("--hash-check                perform files hash validation (disabled by default)");
+		System.out.println("--hash-threads  <N>         number of threads used for hash validation (number of processors by default)");
+		System.out.println("--hash-algorithms <list>    additional digests calculated in the same pass, comma separated: sha1,sha256,crc32");
+		System.out.println("--hash-cache    <folder>    reuse hash values of unchanged files stored in the given folder");
+		System.out.println("--cpl-threads   <N>         number of CPLs validated concurrently (number of processors by default)");
+		System.out.println("--streaming-cpl             validate CPLs while reading them instead of loading them in memory, for very large CPLs");
+		System.out.println("--prefetch-xml              parse PackingList and CPLs concurrently once ASSETMAP is parsed, for high latency storage");
+		System.out.println("--fail-fast     <condition> stop validating a package and cancel its hashing and MXF parsing once the condition is met:");
+		System.out.println("                            first-error, first-critical or a number of errors");
+		System.out.println("--report        <file>      write validation results as they are found to the given file or pipe, one JSON object per line");
+		System.out.println("                            in batch mode, folder receiving one report per package and summary.ndjson");
 		System.out.println("--assetmap-xsd              specify asset map xsd");
 		System.out.println("--packinglist-xsd           specify packinglist xsd");
 		System.out.println("--coreconstraints-xsd       specify core constraints xsd");
@@ -109,6 +150,17 @@ public class ImfValidator {
 		dependentPackagePaths = new ArrayList<String>();
 		isVerboseEnabled = false;
 		isHashCheckingSkipped = true;
+		isCplStreamed = false;
+		isXmlPrefetched = false;
+		stopCondition = null;
+		hashCachePath = null;
+		reportPath = null;
+		batchPath = null;
+		daemonPort = -1;
+		hashThreadCount = ImfHashEngine.getDefaultThreadCount();
+		extraHashAlgos = EnumSet.noneOf(ImfHashAlgorithm.class);
+		cplThreadCount = Runtime.getRuntime().availableProcessors();
+		packageThreadCount = Runtime.getRuntime().availableProcessors();
 		for (int i = 0; i < args.length; i++) {
 			switch (args[i]) {
 				case "-d":
@@ -142,6 +194,108 @@ public class ImfValidator {
 				case "--hash-check":
 					isHashCheckingSkipped = false;
 					break;
+				case "--hash-threads":
+					if (i == (args.length - 1)) {
+						ImfLogger.getLogger().logError("Invalid arguments");
+						usage();
+						return false;
+					}
+					hashThreadCount = parseThreadCount(args[++i]);
+					if (hashThreadCount < 1) {
+						ImfLogger.getLogger().logError("Invalid number of hash threads: %s", args[i]);
+						return false;
+					}
+					break;
+				case "--hash-algorithms":
+					if (i == (args.length - 1)) {
+						ImfLogger.getLogger().logError("Invalid arguments");
+						usage();
+						return false;
+					}
+					extraHashAlgos = parseHashAlgorithms(args[++i]);
+					if (extraHashAlgos == null) {
+						ImfLogger.getLogger().logError("Invalid hash algorithms: %s", args[i]);
+						return false;
+					}
+					break;
+				case "--cpl-threads":
+					if (i == (args.length - 1)) {
+						ImfLogger.getLogger().logError("Invalid arguments");
+						usage();
+						return false;
+					}
+					cplThreadCount = parseThreadCount(args[++i]);
+					if (cplThreadCount < 1) {
+						ImfLogger.getLogger().logError("Invalid number of CPL threads: %s", args[i]);
+						return false;
+					}
+					break;
+				case "--streaming-cpl":
+					isCplStreamed = true;
+					break;
+				case "--prefetch-xml":
+					isXmlPrefetched = true;
+					break;
+				case "--fail-fast":
+					if (i == (args.length - 1)) {
+						ImfLogger.getLogger().logError("Invalid arguments");
+						usage();
+						return false;
+					}
+					stopCondition = ValidationStopCondition.parse(args[++i]);
+					if (stopCondition == null) {
+						ImfLogger.getLogger().logError("Invalid fail-fast condition: %s", args[i]);
+						return false;
+					}
+					break;
+				case "--batch":
+					if (i == (args.length - 1)) {
+						ImfLogger.getLogger().logError("Invalid arguments");
+						usage();
+						return false;
+					}
+					batchPath = args[++i];
+					break;
+				case "--package-threads":
+					if (i == (args.length - 1)) {
+						ImfLogger.getLogger().logError("Invalid arguments");
+						usage();
+						return false;
+					}
+					packageThreadCount = parseThreadCount(args[++i]);
+					if (packageThreadCount < 1) {
+						ImfLogger.getLogger().logError("Invalid number of package threads: %s", args[i]);
+						return false;
+					}
+					break;
+				case "--daemon":
+					if (i == (args.length - 1)) {
+						ImfLogger.getLogger().logError("Invalid arguments");
+						usage();
+						return false;
+					}
+					daemonPort = parsePort(args[++i]);
+					if (daemonPort < 0) {
+						ImfLogger.getLogger().logError("Invalid daemon port: %s", args[i]);
+						return false;
+					}
+					break;
+				case "--report":
+					if (i == (args.length - 1)) {
+						ImfLogger.getLogger().logError("Invalid arguments");
+						usage();
+						return false;
+					}
+					reportPath = args[++i];
+					break;
+				case "--hash-cache":
+					if (i == (args.length - 1)) {
+						ImfLogger.getLogger().logError("Invalid arguments");
+						usage();
+						return false;
+					}
+					hashCachePath = args[++i];
+					break;
 				case "--assetmap-xsd":
 				case "--packinglist-xsd":
 				case "--coreconstraints-xsd":
@@ -153,7 +307,7 @@ public class ImfValidator {
 					
 					String filePath = args[i+1];
 					if (!Files.exists(new File(filePath).toPath())) {
-						ImfLogger.getLogger().logError(String.format("Invalid xsd path: %s", filePath));
+						ImfLogger.getLogger().logError("Invalid xsd path: %s", filePath);
 						return false;
 					}
 					
@@ -178,7 +332,14 @@ public class ImfValidator {
 			}
 		}
 		
-		if (!packagePathWasSet) {
+		int modeCount = (packagePathWasSet ? 1 : 0) + (batchPath != null ? 1 : 0) + (daemonPort >= 0 ? 1 : 0);
+		if (modeCount > 1) {
+			ImfLogger.getLogger().logError("--package, --batch and --daemon can not be used together");
+			usage();
+			return false;
+		}
+		
+		if (modeCount == 0) {
 			ImfLogger.getLogger().logError("Please specify package using -p or --package argument");
 			usage();
 			return false;
@@ -186,6 +347,67 @@ public class ImfValidator {
 		return true;
 	}
 	
+	private static int parseThreadCount(String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+	
+	private static int parsePort(String value) {
+		try {
+			int port = Integer.parseInt(value);
+			return port <= 65535 ? port : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+	
+	private static Set<ImfHashAlgorithm> parseHashAlgorithms(String value) {
+		Set<ImfHashAlgorithm> algos = EnumSet.noneOf(ImfHashAlgorithm.class);
+		for (String name : value.split(",")) {
+			switch (name.trim().toLowerCase()) {
+				case "sha1":
+					algos.add(ImfHashAlgorithm.SHA1);
+					break;
+				case "sha256":
+					algos.add(ImfHashAlgorithm.SHA256);
+					break;
+				case "crc32":
+					algos.add(ImfHashAlgorithm.CRC32);
+					break;
+				default:
+					return null;
+			}
+		}
+		return algos;
+	}
+	
+	private static ImfHashCache loadHashCache() {
+		if (hashCachePath == null || isHashCheckingSkipped) {
+			return null;
+		}
+		ImfHashCache hashCache = new ImfHashCache(hashCachePath);
+		try {
+			hashCache.load();
+		} catch (IOException e) {
+			ImfLogger.getLogger().logWarning("Unable to load hash cache: %s", e.getMessage());
+		}
+		return hashCache;
+	}
+	
+	private static void saveHashCache(ImfHashCache hashCache) {
+		if (hashCache == null) {
+			return;
+		}
+		try {
+			hashCache.save();
+		} catch (IOException e) {
+			ImfLogger.getLogger().logWarning("Unable to save hash cache: %s", e.getMessage());
+		}
+	}
+	
 	public static void main(String[] args) {
 
 		System.out.println(BANNER);
@@ -194,124 +416,264 @@ public class ImfValidator {
 			return;
 		}
 		
-		Path verifyingFolderPath = new File(verifyingPackagePath).toPath();
-		//check existence of package
-		if (!Files.exists(verifyingFolderPath) && Files.isDirectory(verifyingFolderPath)) {
-			ImfLogger.getLogger().logError(String.format("Invalid package path: %s", verifyingPackagePath));
+		if (isVerboseEnabled)
+			ImfLogger.getLogger().enableDebugLog();
+		
+		ImfLogger.getLogger().startAsyncOutput();
+		try {
+			//compile embedded schemas once, validators only create a Validator per document
+			ImfXsds.getInstance().preloadSchemas();
+			if (daemonPort >= 0) {
+				runDaemon();
+			} else if (batchPath != null) {
+				validateBatch();
+			} else {
+				validatePackage();
+			}
+		} catch (SAXException e) {
+			ImfLogger.getLogger().logError("Unable to load xsd: %s", e.getMessage());
+		} catch (IOException e) {
+			ImfLogger.getLogger().logError("Unable to load xsd: %s", e.getMessage());
+		} finally {
+			ImfLogger.getLogger().stopAsyncOutput();
+		}
+	}
+	
+	private static PackageValidationTask createTask(String packagePath, List<String> packageDependencies) {
+		PackageValidationTask task = new PackageValidationTask(packagePath);
+		task.setDependentPackagePaths(packageDependencies);
+		task.setXsdPaths(assetMapXsdPath, packingListXsdPath, coreConstraintsXsdPath);
+		task.setHashChecking(isHashCheckingSkipped, hashThreadCount, extraHashAlgos);
+		task.setCplThreadCount(cplThreadCount);
+		task.setStreamingCpl(isCplStreamed);
+		task.setXmlPrefetch(isXmlPrefetched);
+		task.setStopCondition(stopCondition);
+		return task;
+	}
+	
+	private static void validatePackage() {
+		PackageValidationTask task = createTask(verifyingPackagePath, dependentPackagePaths);
+		task.setReportPath(reportPath);
+		ImfHashCache hashCache = loadHashCache();
+		task.setHashCache(hashCache);
+		try {
+			task.call();
+		} finally {
+			saveHashCache(hashCache);
+		}
+	}
+	
+	private static void runDaemon() {
+		final ValidationDaemon daemon = new ValidationDaemon(daemonPort, packageThreadCount);
+		daemon.setXsdPaths(assetMapXsdPath, packingListXsdPath, coreConstraintsXsdPath);
+		daemon.setHashChecking(isHashCheckingSkipped, hashThreadCount, extraHashAlgos);
+		daemon.setHashCachePath(hashCachePath);
+		daemon.setCplThreadCount(cplThreadCount);
+		daemon.setStreamingCpl(isCplStreamed);
+		daemon.setXmlPrefetch(isXmlPrefetched);
+		daemon.setStopCondition(stopCondition);
+		try {
+			daemon.start();
+		} catch (IOException e) {
+			ImfLogger.getLogger().logError("Unable to start daemon on port %d: %s", daemonPort, e.getMessage());
+			return;
+		}
+		//stopped by a signal, the hash cache is saved by stop
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+			@Override
+			public void run() {
+				daemon.stop();
+				ImfLogger.getLogger().flush();
+			}
+		}));
+		try {
+			daemon.awaitStop();
+		} catch (InterruptedException e) {
+			daemon.stop();
+		}
+	}
+	
+	/**
+	 * Validate packages concurrently. Hash engine, hash cache, MXF cache and CPL threads are
+	 * shared by all packages so the thread and I/O limits apply to the whole batch.
+	 */
+	private static void validateBatch() {
+		List<PackageValidationTask> tasks;
+		try {
+			tasks = readBatch(new File(batchPath));
+		} catch (IOException e) {
+			ImfLogger.getLogger().logError("Unable to read batch %s: %s", batchPath, e.getMessage());
+			return;
+		}
+		if (tasks.isEmpty()) {
+			ImfLogger.getLogger().logError("No package found in %s", batchPath);
 			return;
 		}
 		
-		//check existence of dependent packages
-		for (String folderPath:dependentPackagePaths) {
-			verifyingFolderPath = new File(folderPath).toPath();
-			if (!Files.exists(verifyingFolderPath) && Files.isDirectory(verifyingFolderPath)) {
-				ImfLogger.getLogger().logError(String.format("Invalid package path: %s", folderPath));
+		File reportFolder = null;
+		if (reportPath != null) {
+			reportFolder = new File(reportPath);
+			if (!reportFolder.isDirectory() && !reportFolder.mkdirs()) {
+				ImfLogger.getLogger().logError("Unable to create report folder: %s", reportPath);
 				return;
 			}
 		}
 		
-		//Do validation
+		ImfHashEngine hashEngine = isHashCheckingSkipped ? null : new ImfHashEngine(hashThreadCount);
+		ImfHashCache hashCache = loadHashCache();
+		MXFValidationCache mxfValidationCache = new MXFValidationCache();
+		ExecutorService cplExecutor = cplThreadCount == 1 ? null : Executors.newFixedThreadPool(cplThreadCount);
+		for (int i = 0; i < tasks.size(); i++) {
+			PackageValidationTask task = tasks.get(i);
+			task.setHashEngine(hashEngine);
+			task.setHashCache(hashCache);
+			task.setMXFValidationCache(mxfValidationCache);
+			task.setCplExecutor(cplExecutor);
+			task.setCaptureOutput(true);
+			if (reportFolder != null) {
+				String reportName = String.format("%05d-%s.ndjson", i + 1, new File(task.getPackagePath()).getName());
+				task.setReportPath(new File(reportFolder, reportName).getPath());
+			}
+		}
+		
+		long startTime = System.currentTimeMillis();
+		ImfLogger.getLogger().logInfo("Validating %d packages ...", tasks.size());
+		ExecutorService packageExecutor = Executors.newFixedThreadPool(Math.min(packageThreadCount, tasks.size()));
+		//only the outcome of each package is kept, so memory does not grow with the results of the batch
+		List<PackageSummary> summaries = new ArrayList<PackageSummary>(tasks.size());
 		try {
-			ValidationResultList validationResults = new ValidationResultList();
-			ImfPackage imfPackage = new ImfPackage(verifyingPackagePath);
-			imfPackage.setDependantPackageList(dependentPackagePaths);
-			if (isVerboseEnabled)
-				ImfLogger.getLogger().enableDebugLog();
-			
-			//AssetMap
-			ImfLogger.getLogger().logInfo("Validating ASSETMAP.xml ...");
-			AssetMapValidator assetValidator = new AssetMapValidator(imfPackage);
-			if (assetMapXsdPath != null) {
-				assetValidator.setXsdPath(assetMapXsdPath);
+			//output of each package is printed as soon as the package is done
+			CompletionService<ValidationResultList> completionService = new ExecutorCompletionService<ValidationResultList>(packageExecutor);
+			Map<Future<ValidationResultList>, Integer> taskIndexes = new HashMap<Future<ValidationResultList>, Integer>();
+			for (int i = 0; i < tasks.size(); i++) {
+				taskIndexes.put(completionService.submit(tasks.get(i)), i);
+				summaries.add(null);
 			}
-			
-			validationResults.add(assetValidator.parse());
-			validationResults.addAll(assetValidator.validate());
-			System.out.println("");
-			
-			//PackingList
-			AssetMap assetMap = assetValidator.getAssetMap();
-			List<Asset> packingListAssets = assetMap.getPackingListAssets();
-			if (packingListAssets.size() == 0) {
-				ImfLogger.getLogger().logError("Unable to find PackingList file in package");
-				return;
+			for (int done = 1; done <= tasks.size(); done++) {
+				Future<ValidationResultList> future = completionService.take();
+				int index = taskIndexes.remove(future);
+				PackageValidationTask task = tasks.get(index);
+				ImfLogger.getLogger().logCapturedOutput(task.getOutput());
+				task.clearOutput();
+				ValidationResultList results;
+				try {
+					results = future.get();
+				} catch (ExecutionException e) {
+					ImfLogger.getLogger().logError("Validation of %s failed: %s", task.getPackagePath(), e.getCause());
+					results = new ValidationResultList();
+					results.add(new ValidationResult(true, String.valueOf(e.getCause())));
+				}
+				PackageSummary summary = new PackageSummary(!results.containsError(), results.getSeverityCounts());
+				summaries.set(index, summary);
+				ImfLogger.getLogger().logInfo("[%d/%d] %s %s (%d ms)", done, tasks.size(),
+						summary.isValid ? "VALID" : "INVALID", task.getPackagePath(), task.getElapsedMillis());
+				ImfLogger.getLogger().logNewLine();
 			}
-			
-			if (packingListAssets.size() > 1) {
-				ImfLogger.getLogger().logError("Package has multiple PackingList files");
-				return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			ImfLogger.getLogger().logError("Batch validation was interrupted");
+			return;
+		} finally {
+			packageExecutor.shutdownNow();
+			if (cplExecutor != null) {
+				cplExecutor.shutdownNow();
 			}
-			
-			PackingList packingList = null;
-			Asset asset = packingListAssets.get(0);
-			String packingListPath = assetMap.getAssetResourcePath(asset.getUuid());
-			String packingListFilename = new File(packingListPath).getName();
-			ImfLogger.getLogger().logInfo("Validating PackingList file: " + packingListFilename + " ...");
-			PackingListValidator packingListValidator = new PackingListValidator(packingListPath);
-			if (packingListXsdPath != null) {
-				packingListValidator.setXsdPath(packingListXsdPath);
+			if (hashEngine != null) {
+				hashEngine.shutdown();
 			}
-			
-			try {
-				validationResults.add(packingListValidator.parse());
-				packingList = packingListValidator.getPackingList();
-				packingListValidator.setAssetMap(assetMap);
-				packingListValidator.setSkipHashChecking(isHashCheckingSkipped);
-				validationResults.addAll(packingListValidator.validate());
-			} catch (SAXException e) {
-				ValidationResult result = new ValidationResult();
-				result.setHasError(true);
-				SAXParseException spe = (SAXParseException) e;
-				if (spe != null) {
-					String message = "Line: " + spe.getLineNumber() + " Col: " + spe.getColumnNumber() + " " + spe.getMessage();
-					ImfLogger.getLogger().logError(message);
-					result.setMessage(message);
+			saveHashCache(hashCache);
+		}
+		
+		long elapsedMillis = System.currentTimeMillis() - startTime;
+		int invalidCount = 0;
+		for (int i = 0; i < tasks.size(); i++) {
+			if (!summaries.get(i).isValid) {
+				ImfLogger.getLogger().logError("Invalid package: %s", tasks.get(i).getPackagePath());
+				invalidCount++;
+			}
+		}
+		ImfLogger.getLogger().logInfo("Finished validation of %d packages in %d ms: %d valid, %d invalid",
+				tasks.size(), elapsedMillis, tasks.size() - invalidCount, invalidCount);
+		if (reportFolder != null) {
+			writeBatchSummary(new File(reportFolder, "summary.ndjson"), tasks, summaries, elapsedMillis);
+		}
+	}
+	
+	/**
+	 * Read packages of a batch. A folder is searched for ASSETMAP.xml files, a file lists one package
+	 * per line followed by its tab separated dependent packages. Dependent packages given by -d
+	 * are added to every package.
+	 */
+	private static List<PackageValidationTask> readBatch(File batch) throws IOException {
+		List<PackageValidationTask> tasks = new ArrayList<PackageValidationTask>();
+		if (batch.isDirectory()) {
+			final List<String> packagePaths = new ArrayList<String>();
+			Files.walkFileTree(batch.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					if (file.getFileName().toString().equalsIgnoreCase("ASSETMAP.xml")) {
+						packagePaths.add(file.getParent().toString());
+					}
+					return FileVisitResult.CONTINUE;
+				}
+				
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e) {
+					ImfLogger.getLogger().logWarning("Unable to read %s: %s", file, e.getMessage());
+					return FileVisitResult.CONTINUE;
 				}
-				validationResults.add(result);
-			} catch (Exception e) {
-				ValidationResult result = new ValidationResult();
-				result.setHasError(true);
-				ImfLogger.getLogger().logError(e.getMessage());
-				result.setMessage(e.getMessage());
-				validationResults.add(result);
+			});
+			Collections.sort(packagePaths);
+			for (String packagePath : packagePaths) {
+				tasks.add(createTask(packagePath, dependentPackagePaths));
 			}
-			
-			//CPL
-			List<Asset> cplAssets = assetMap.getCPLAssets();
-			for (Asset cpl:cplAssets) {
-				String cplFilePath = assetMap.getAssetResourcePath(cpl.getUuid());
-				String cplFilename = new File(cplFilePath).getName();
-				System.out.println();
-				ImfLogger.getLogger().logInfo("Validating CPL: " + cplFilename + " ...");
-				CompositionPlaylistValidator cplValidator = new CompositionPlaylistValidator(cplFilePath);
-				if (coreConstraintsXsdPath != null) {
-					cplValidator.setXsdPath(coreConstraintsXsdPath);
+			return tasks;
+		}
+		
+		for (String line : Files.readAllLines(batch.toPath(), StandardCharsets.UTF_8)) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] paths = line.split("\t");
+			List<String> packageDependencies = new ArrayList<String>(dependentPackagePaths);
+			for (int i = 1; i < paths.length; i++) {
+				if (!paths[i].trim().isEmpty()) {
+					packageDependencies.add(paths[i].trim());
 				}
-				cplValidator.setAssetMap(assetMap);
-				cplValidator.setPackingList(packingList);
-				validationResults.add(cplValidator.parse());
-				validationResults.addAll(cplValidator.validate());
 			}
-			
-			if(validationResults.containsError())
-				ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + verifyingPackagePath);
-			else {
-				ImfLogger.getLogger().logInfo("Finished validation of IMF package " + verifyingPackagePath);
+			tasks.add(createTask(paths[0].trim(), packageDependencies));
+		}
+		return tasks;
+	}
+	
+	private static void writeBatchSummary(File summaryFile, List<PackageValidationTask> tasks,
+			List<PackageSummary> summaries, long elapsedMillis) {
+		int invalidCount = 0;
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(summaryFile), StandardCharsets.UTF_8)) {
+			for (int i = 0; i < tasks.size(); i++) {
+				PackageValidationTask task = tasks.get(i);
+				PackageSummary summary = summaries.get(i);
+				if (!summary.isValid) {
+					invalidCount++;
+				}
+				
+				StringBuilder line = new StringBuilder(256);
+				line.append("{\"type\":\"package\",\"path\":");
+				ValidationReportWriter.appendJsonString(line, task.getPackagePath());
+				line.append(",\"report\":");
+				ValidationReportWriter.appendJsonString(line, task.getReportPath() == null ? null : new File(task.getReportPath()).getName());
+				line.append(",\"status\":\"").append(summary.isValid ? "valid" : "invalid").append('"');
+				line.append(",\"elapsedMs\":").append(task.getElapsedMillis());
+				for (Map.Entry<ValidationSeverity, Integer> entry : summary.severityCounts.entrySet()) {
+					line.append(",\"").append(entry.getKey().name().toLowerCase()).append("\":").append(entry.getValue());
+				}
+				writer.write(line.append("}\n").toString());
 			}
-		} catch (SAXException e) {
-			SAXParseException spe = (SAXParseException) e;
-			if (spe != null)
-				ImfLogger.getLogger().logError("Line: " + spe.getLineNumber() + " Col: " + spe.getColumnNumber() + " " + spe.getMessage());
-			ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + verifyingPackagePath);
+			writer.write(String.format("{\"type\":\"summary\",\"packages\":%d,\"valid\":%d,\"invalid\":%d,\"elapsedMs\":%d}\n",
+					tasks.size(), tasks.size() - invalidCount, invalidCount, elapsedMillis));
 		} catch (IOException e) {
-			ImfLogger.getLogger().logError(e.getMessage());
-			ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + verifyingPackagePath);
-		} catch (ParserConfigurationException e) {
-			ImfLogger.getLogger().logError(e.getMessage());
-			ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + verifyingPackagePath);
-		} catch (ImfXmlException e) {
-			ImfLogger.getLogger().logError(e.getMessage());
-			ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + verifyingPackagePath);
+			ImfLogger.getLogger().logWarning("Unable to write batch summary: %s", e.getMessage());
 		}
 	}
 
@@ -0,0 +1,438 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.tool.imf;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * MXFHeaderMetadata class encodes the primer pack and the header metadata of a synthetic OP1A track
+ * file: Preface, ContentStorage, EssenceContainerData, a Material package and a File package with
+ * one timeline track each, and a CDCI picture descriptor or a wave audio descriptor with the MCA
+ * sub descriptors of a stereo soundfield group (st377-1, st377-4 and st2067-2).
+ */
+final class MXFHeaderMetadata {
+	
+	/**
+	 * Property of a local set with its static or dynamic local tag
+	 */
+	private static class Property {
+		final int tag;
+		final byte[] ul;
+		
+		Property(int tag, int... ul) {
+			this.tag = tag;
+			this.ul = label(ul);
+		}
+	}
+	
+	private static final byte[] PRIMER_PACK_KEY = label(0x02, 0x05, 0x01, 0x01, 0x0d, 0x01, 0x02, 0x01, 0x01, 0x05, 0x01, 0x00);
+	
+	//set keys
+	private static final byte[] PREFACE_KEY = setKey(0x2f);
+	private static final byte[] CONTENT_STORAGE_KEY = setKey(0x18);
+	private static final byte[] ESSENCE_CONTAINER_DATA_KEY = setKey(0x23);
+	private static final byte[] MATERIAL_PACKAGE_KEY = setKey(0x36);
+	private static final byte[] SOURCE_PACKAGE_KEY = setKey(0x37);
+	private static final byte[] TIMELINE_TRACK_KEY = setKey(0x3b);
+	private static final byte[] SEQUENCE_KEY = setKey(0x0f);
+	private static final byte[] SOURCE_CLIP_KEY = setKey(0x11);
+	private static final byte[] CDCI_DESCRIPTOR_KEY = setKey(0x28);
+	private static final byte[] WAVE_AUDIO_DESCRIPTOR_KEY = setKey(0x48);
+	private static final byte[] AUDIO_CHANNEL_LABEL_KEY = setKey(0x6b);
+	private static final byte[] SOUNDFIELD_GROUP_LABEL_KEY = setKey(0x6c);
+	
+	//properties
+	private static final Property INSTANCE_UID = new Property(0x3c0a, 0x01, 0x01, 0x01, 0x01, 0x01, 0x01, 0x15, 0x02, 0x00, 0x00, 0x00, 0x00);
+	private static final Property LAST_MODIFIED_DATE = new Property(0x3b02, 0x01, 0x01, 0x01, 0x02, 0x07, 0x02, 0x01, 0x10, 0x02, 0x04, 0x00, 0x00);
+	private static final Property VERSION = new Property(0x3b05, 0x01, 0x01, 0x01, 0x02, 0x03, 0x01, 0x02, 0x01, 0x05, 0x00, 0x00, 0x00);
+	private static final Property CONTENT_STORAGE = new Property(0x3b03, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x04, 0x02, 0x01, 0x00, 0x00);
+	private static final Property OPERATIONAL_PATTERN = new Property(0x3b09, 0x01, 0x01, 0x01, 0x05, 0x01, 0x02, 0x02, 0x03, 0x00, 0x00, 0x00, 0x00);
+	private static final Property ESSENCE_CONTAINERS = new Property(0x3b0a, 0x01, 0x01, 0x01, 0x05, 0x01, 0x02, 0x02, 0x10, 0x02, 0x01, 0x00, 0x00);
+	private static final Property DM_SCHEMES = new Property(0x3b0b, 0x01, 0x01, 0x01, 0x05, 0x01, 0x02, 0x02, 0x10, 0x02, 0x02, 0x00, 0x00);
+	private static final Property PACKAGES = new Property(0x1901, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x04, 0x05, 0x01, 0x00, 0x00);
+	private static final Property ESSENCE_CONTAINER_DATA = new Property(0x1902, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x04, 0x05, 0x02, 0x00, 0x00);
+	private static final Property LINKED_PACKAGE_UID = new Property(0x2701, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x06, 0x01, 0x00, 0x00, 0x00);
+	private static final Property INDEX_SID = new Property(0x3f06, 0x01, 0x01, 0x01, 0x04, 0x01, 0x03, 0x04, 0x05, 0x00, 0x00, 0x00, 0x00);
+	private static final Property BODY_SID = new Property(0x3f07, 0x01, 0x01, 0x01, 0x04, 0x01, 0x03, 0x04, 0x04, 0x00, 0x00, 0x00, 0x00);
+	private static final Property PACKAGE_UID = new Property(0x4401, 0x01, 0x01, 0x01, 0x01, 0x01, 0x01, 0x15, 0x10, 0x00, 0x00, 0x00, 0x00);
+	private static final Property PACKAGE_CREATION_DATE = new Property(0x4405, 0x01, 0x01, 0x01, 0x02, 0x07, 0x02, 0x01, 0x10, 0x01, 0x03, 0x00, 0x00);
+	private static final Property PACKAGE_MODIFIED_DATE = new Property(0x4404, 0x01, 0x01, 0x01, 0x02, 0x07, 0x02, 0x01, 0x10, 0x02, 0x05, 0x00, 0x00);
+	private static final Property TRACKS = new Property(0x4403, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x04, 0x06, 0x05, 0x00, 0x00);
+	private static final Property DESCRIPTOR = new Property(0x4701, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x04, 0x02, 0x03, 0x00, 0x00);
+	private static final Property TRACK_ID = new Property(0x4801, 0x01, 0x01, 0x01, 0x02, 0x01, 0x07, 0x01, 0x01, 0x00, 0x00, 0x00, 0x00);
+	private static final Property TRACK_NUMBER = new Property(0x4804, 0x01, 0x01, 0x01, 0x02, 0x01, 0x04, 0x01, 0x03, 0x00, 0x00, 0x00, 0x00);
+	private static final Property TRACK_SEQUENCE = new Property(0x4803, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x04, 0x02, 0x04, 0x00, 0x00);
+	private static final Property EDIT_RATE = new Property(0x4b01, 0x01, 0x01, 0x01, 0x02, 0x05, 0x30, 0x04, 0x05, 0x00, 0x00, 0x00, 0x00);
+	private static final Property ORIGIN = new Property(0x4b02, 0x01, 0x01, 0x01, 0x02, 0x07, 0x02, 0x01, 0x03, 0x01, 0x03, 0x00, 0x00);
+	private static final Property DATA_DEFINITION = new Property(0x0201, 0x01, 0x01, 0x01, 0x02, 0x04, 0x07, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00);
+	private static final Property DURATION = new Property(0x0202, 0x01, 0x01, 0x01, 0x02, 0x07, 0x02, 0x02, 0x01, 0x01, 0x03, 0x00, 0x00);
+	private static final Property STRUCTURAL_COMPONENTS = new Property(0x1001, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x04, 0x06, 0x09, 0x00, 0x00);
+	private static final Property START_POSITION = new Property(0x1201, 0x01, 0x01, 0x01, 0x02, 0x07, 0x02, 0x01, 0x03, 0x01, 0x04, 0x00, 0x00);
+	private static final Property SOURCE_PACKAGE_ID = new Property(0x1101, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x03, 0x01, 0x00, 0x00, 0x00);
+	private static final Property SOURCE_TRACK_ID = new Property(0x1102, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x03, 0x02, 0x00, 0x00, 0x00);
+	private static final Property LINKED_TRACK_ID = new Property(0x3006, 0x01, 0x01, 0x01, 0x05, 0x06, 0x01, 0x01, 0x03, 0x05, 0x00, 0x00, 0x00);
+	private static final Property SAMPLE_RATE = new Property(0x3001, 0x01, 0x01, 0x01, 0x01, 0x04, 0x06, 0x01, 0x01, 0x00, 0x00, 0x00, 0x00);
+	private static final Property CONTAINER_DURATION = new Property(0x3002, 0x01, 0x01, 0x01, 0x01, 0x04, 0x06, 0x01, 0x02, 0x00, 0x00, 0x00, 0x00);
+	private static final Property ESSENCE_CONTAINER = new Property(0x3004, 0x01, 0x01, 0x01, 0x02, 0x06, 0x01, 0x01, 0x04, 0x01, 0x02, 0x00, 0x00);
+	private static final Property FRAME_LAYOUT = new Property(0x320c, 0x01, 0x01, 0x01, 0x01, 0x04, 0x01, 0x03, 0x01, 0x04, 0x00, 0x00, 0x00);
+	private static final Property STORED_WIDTH = new Property(0x3203, 0x01, 0x01, 0x01, 0x01, 0x04, 0x01, 0x05, 0x02, 0x02, 0x00, 0x00, 0x00);
+	private static final Property STORED_HEIGHT = new Property(0x3202, 0x01, 0x01, 0x01, 0x01, 0x04, 0x01, 0x05, 0x02, 0x01, 0x00, 0x00, 0x00);
+	private static final Property ASPECT_RATIO = new Property(0x320e, 0x01, 0x01, 0x01, 0x01, 0x04, 0x01, 0x01, 0x01, 0x01, 0x00, 0x00, 0x00);
+	private static final Property VIDEO_LINE_MAP = new Property(0x320d, 0x01, 0x01, 0x01, 0x02, 0x04, 0x01, 0x03, 0x02, 0x05, 0x00, 0x00, 0x00);
+	private static final Property COMPONENT_DEPTH = new Property(0x3301, 0x01, 0x01, 0x01, 0x02, 0x04, 0x01, 0x05, 0x03, 0x0a, 0x00, 0x00, 0x00);
+	private static final Property HORIZONTAL_SUBSAMPLING = new Property(0x3302, 0x01, 0x01, 0x01, 0x01, 0x04, 0x01, 0x05, 0x01, 0x05, 0x00, 0x00, 0x00);
+	private static final Property VERTICAL_SUBSAMPLING = new Property(0x3308, 0x01, 0x01, 0x01, 0x02, 0x04, 0x01, 0x05, 0x01, 0x10, 0x00, 0x00, 0x00);
+	private static final Property AUDIO_SAMPLING_RATE = new Property(0x3d03, 0x01, 0x01, 0x01, 0x05, 0x04, 0x02, 0x03, 0x01, 0x01, 0x01, 0x00, 0x00);
+	private static final Property LOCKED = new Property(0x3d02, 0x01, 0x01, 0x01, 0x04, 0x04, 0x02, 0x03, 0x01, 0x04, 0x00, 0x00, 0x00);
+	private static final Property CHANNEL_COUNT = new Property(0x3d07, 0x01, 0x01, 0x01, 0x05, 0x04, 0x02, 0x01, 0x01, 0x04, 0x00, 0x00, 0x00);
+	private static final Property QUANTIZATION_BITS = new Property(0x3d01, 0x01, 0x01, 0x01, 0x04, 0x04, 0x02, 0x03, 0x03, 0x04, 0x00, 0x00, 0x00);
+	private static final Property BLOCK_ALIGN = new Property(0x3d0a, 0x01, 0x01, 0x01, 0x05, 0x04, 0x02, 0x03, 0x02, 0x01, 0x00, 0x00, 0x00);
+	private static final Property AVERAGE_BYTES_PER_SECOND = new Property(0x3d09, 0x01, 0x01, 0x01, 0x05, 0x04, 0x02, 0x03, 0x03, 0x05, 0x00, 0x00, 0x00);
+	private static final Property CHANNEL_ASSIGNMENT = new Property(0x3d32, 0x01, 0x01, 0x01, 0x07, 0x04, 0x02, 0x01, 0x01, 0x05, 0x00, 0x00, 0x00);
+	//dynamic local tags
+	private static final Property SUB_DESCRIPTORS = new Property(0xffff, 0x01, 0x01, 0x01, 0x09, 0x06, 0x01, 0x01, 0x04, 0x06, 0x10, 0x00, 0x00);
+	private static final Property MCA_LABEL_DICTIONARY_ID = new Property(0xfffe, 0x01, 0x01, 0x01, 0x0e, 0x01, 0x03, 0x07, 0x01, 0x01, 0x00, 0x00, 0x00);
+	private static final Property MCA_TAG_SYMBOL = new Property(0xfffd, 0x01, 0x01, 0x01, 0x0e, 0x01, 0x03, 0x07, 0x01, 0x02, 0x00, 0x00, 0x00);
+	private static final Property MCA_TAG_NAME = new Property(0xfffc, 0x01, 0x01, 0x01, 0x0e, 0x01, 0x03, 0x07, 0x01, 0x03, 0x00, 0x00, 0x00);
+	private static final Property MCA_LINK_ID = new Property(0xfffb, 0x01, 0x01, 0x01, 0x0e, 0x01, 0x03, 0x07, 0x01, 0x05, 0x00, 0x00, 0x00);
+	private static final Property SOUNDFIELD_GROUP_LINK_ID = new Property(0xfffa, 0x01, 0x01, 0x01, 0x0e, 0x01, 0x03, 0x07, 0x01, 0x06, 0x00, 0x00, 0x00);
+	private static final Property MCA_CHANNEL_ID = new Property(0xfff9, 0x01, 0x01, 0x01, 0x0e, 0x01, 0x03, 0x04, 0x0a, 0x00, 0x00, 0x00, 0x00);
+	private static final Property RFC5646_SPOKEN_LANGUAGE = new Property(0xfff8, 0x01, 0x01, 0x01, 0x0d, 0x03, 0x01, 0x01, 0x02, 0x03, 0x15, 0x00, 0x00);
+	private static final Property MCA_TITLE = new Property(0xfff7, 0x01, 0x01, 0x01, 0x0e, 0x01, 0x05, 0x03, 0x0d, 0x00, 0x00, 0x00, 0x00);
+	private static final Property MCA_TITLE_VERSION = new Property(0xfff6, 0x01, 0x01, 0x01, 0x0e, 0x01, 0x05, 0x03, 0x0e, 0x00, 0x00, 0x00, 0x00);
+	private static final Property MCA_AUDIO_CONTENT_KIND = new Property(0xfff5, 0x01, 0x01, 0x01, 0x0e, 0x03, 0x02, 0x01, 0x02, 0x20, 0x00, 0x00, 0x00);
+	private static final Property MCA_AUDIO_ELEMENT_KIND = new Property(0xfff4, 0x01, 0x01, 0x01, 0x0e, 0x03, 0x02, 0x01, 0x02, 0x21, 0x00, 0x00, 0x00);
+	
+	private static final Property[] PRIMER = {
+		INSTANCE_UID, LAST_MODIFIED_DATE, VERSION, CONTENT_STORAGE, OPERATIONAL_PATTERN, ESSENCE_CONTAINERS, DM_SCHEMES,
+		PACKAGES, ESSENCE_CONTAINER_DATA, LINKED_PACKAGE_UID, INDEX_SID, BODY_SID, PACKAGE_UID, PACKAGE_CREATION_DATE,
+		PACKAGE_MODIFIED_DATE, TRACKS, DESCRIPTOR, TRACK_ID, TRACK_NUMBER, TRACK_SEQUENCE, EDIT_RATE, ORIGIN,
+		DATA_DEFINITION, DURATION, STRUCTURAL_COMPONENTS, START_POSITION, SOURCE_PACKAGE_ID, SOURCE_TRACK_ID,
+		LINKED_TRACK_ID, SAMPLE_RATE, CONTAINER_DURATION, ESSENCE_CONTAINER, FRAME_LAYOUT, STORED_WIDTH, STORED_HEIGHT,
+		ASPECT_RATIO, VIDEO_LINE_MAP, COMPONENT_DEPTH, HORIZONTAL_SUBSAMPLING, VERTICAL_SUBSAMPLING, AUDIO_SAMPLING_RATE,
+		LOCKED, CHANNEL_COUNT, QUANTIZATION_BITS, BLOCK_ALIGN, AVERAGE_BYTES_PER_SECOND, CHANNEL_ASSIGNMENT,
+		SUB_DESCRIPTORS, MCA_LABEL_DICTIONARY_ID, MCA_TAG_SYMBOL, MCA_TAG_NAME, MCA_LINK_ID, SOUNDFIELD_GROUP_LINK_ID,
+		MCA_CHANNEL_ID, RFC5646_SPOKEN_LANGUAGE, MCA_TITLE, MCA_TITLE_VERSION, MCA_AUDIO_CONTENT_KIND, MCA_AUDIO_ELEMENT_KIND };
+	
+	//property values
+	private static final byte[] PICTURE_DATA_DEFINITION = label(0x04, 0x01, 0x01, 0x01, 0x01, 0x03, 0x02, 0x02, 0x01, 0x00, 0x00, 0x00);
+	private static final byte[] SOUND_DATA_DEFINITION = label(0x04, 0x01, 0x01, 0x01, 0x01, 0x03, 0x02, 0x02, 0x02, 0x00, 0x00, 0x00);
+	private static final byte[] IMF_CHANNEL_ASSIGNMENT = label(0x04, 0x01, 0x01, 0x0d, 0x04, 0x02, 0x02, 0x10, 0x04, 0x01, 0x00, 0x00);
+	private static final byte[] STANDARD_STEREO_LABEL = label(0x04, 0x01, 0x01, 0x0d, 0x03, 0x02, 0x02, 0x01, 0x00, 0x00, 0x00, 0x00);
+	private static final byte[] LEFT_LABEL = label(0x04, 0x01, 0x01, 0x0d, 0x03, 0x02, 0x01, 0x01, 0x00, 0x00, 0x00, 0x00);
+	private static final byte[] RIGHT_LABEL = label(0x04, 0x01, 0x01, 0x0d, 0x03, 0x02, 0x01, 0x02, 0x00, 0x00, 0x00, 0x00);
+	/** SMPTE UMID label, length and instance number, followed by the material number */
+	private static final byte[] UMID_PREFIX = {
+		0x06, 0x0a, 0x2b, 0x34, 0x01, 0x01, 0x01, 0x05, 0x01, 0x01, 0x0f, 0x20, 0x13, 0x00, 0x00, 0x00 };
+	/** 2015-01-01 00:00:00.000 */
+	private static final byte[] TIMESTAMP = { 0x07, (byte) 0xdf, 0x01, 0x01, 0x00, 0x00, 0x00, 0x00 };
+	
+	static final int PICTURE_EDIT_RATE = 24;
+	static final int SOUND_EDIT_RATE = 48000;
+	static final int SOUND_CHANNEL_COUNT = 2;
+	static final int SOUND_BLOCK_ALIGN = SOUND_CHANNEL_COUNT * 3;
+	
+	private static final int MATERIAL_TRACK_ID = 1;
+	private static final int FILE_TRACK_ID = 2;
+	
+	private MXFHeaderMetadata() {
+	}
+	
+	/**
+	 * Encode primer pack and header metadata
+	 * @param trackFileUuid material number of the File package
+	 * @param isSound sound track file, picture otherwise
+	 * @param duration number of edit units of the essence
+	 * @param essenceContainer essence container label
+	 * @param trackNumber track number of the essence element
+	 * @param bodySID stream of the essence container
+	 * @return header metadata, its length is the HeaderByteCount of the header partition
+	 */
+	static byte[] encode(UUID trackFileUuid, boolean isSound, long duration, byte[] essenceContainer, int trackNumber, int bodySID) {
+		//instance UIDs derive from the track file uuid, so a file is written identically for the same uuid
+		Random random = new Random(trackFileUuid.getMostSignificantBits() ^ trackFileUuid.getLeastSignificantBits());
+		byte[] materialPackageUid = umid(uuid(random));
+		byte[] filePackageUid = umid(trackFileUuid);
+		int editRate = isSound ? SOUND_EDIT_RATE : PICTURE_EDIT_RATE;
+		byte[] dataDefinition = isSound ? SOUND_DATA_DEFINITION : PICTURE_DATA_DEFINITION;
+		ByteArrayOutputStream sets = new ByteArrayOutputStream();
+		
+		byte[] prefaceUid = uuid(random);
+		byte[] contentStorageUid = uuid(random);
+		byte[] essenceContainerDataUid = uuid(random);
+		byte[] materialPackageSetUid = uuid(random);
+		byte[] filePackageSetUid = uuid(random);
+		byte[] descriptorUid = uuid(random);
+		
+		LocalSet preface = new LocalSet(prefaceUid);
+		preface.put(LAST_MODIFIED_DATE, TIMESTAMP);
+		preface.putShort(VERSION, 0x0103);
+		preface.put(CONTENT_STORAGE, contentStorageUid);
+		preface.put(OPERATIONAL_PATTERN, ImfPackageGenerator.OP1A_LABEL);
+		preface.putBatch(ESSENCE_CONTAINERS, 16, essenceContainer);
+		preface.putBatch(DM_SCHEMES, 16);
+		preface.write(sets, PREFACE_KEY);
+		
+		LocalSet contentStorage = new LocalSet(contentStorageUid);
+		contentStorage.putBatch(PACKAGES, 16, materialPackageSetUid, filePackageSetUid);
+		contentStorage.putBatch(ESSENCE_CONTAINER_DATA, 16, essenceContainerDataUid);
+		contentStorage.write(sets, CONTENT_STORAGE_KEY);
+		
+		LocalSet essenceContainerData = new LocalSet(essenceContainerDataUid);
+		essenceContainerData.put(LINKED_PACKAGE_UID, filePackageUid);
+		essenceContainerData.putInt(INDEX_SID, 0);
+		essenceContainerData.putInt(BODY_SID, bodySID);
+		essenceContainerData.write(sets, ESSENCE_CONTAINER_DATA_KEY);
+		
+		//Material package track plays the whole File package track
+		writePackage(sets, MATERIAL_PACKAGE_KEY, materialPackageSetUid, materialPackageUid, null, MATERIAL_TRACK_ID, 0,
+				editRate, dataDefinition, duration, filePackageUid, FILE_TRACK_ID, random);
+		writePackage(sets, SOURCE_PACKAGE_KEY, filePackageSetUid, filePackageUid, descriptorUid, FILE_TRACK_ID, trackNumber,
+				editRate, dataDefinition, duration, new byte[32], 0, random);
+		
+		LocalSet descriptor = new LocalSet(descriptorUid);
+		descriptor.putInt(LINKED_TRACK_ID, FILE_TRACK_ID);
+		descriptor.putRational(SAMPLE_RATE, editRate, 1);
+		descriptor.putLong(CONTAINER_DURATION, duration);
+		descriptor.put(ESSENCE_CONTAINER, essenceContainer);
+		if (isSound) {
+			byte[] soundfieldGroupUid = uuid(random);
+			byte[] leftUid = uuid(random);
+			byte[] rightUid = uuid(random);
+			descriptor.putRational(AUDIO_SAMPLING_RATE, SOUND_EDIT_RATE, 1);
+			descriptor.put(LOCKED, new byte[] { 0 });
+			descriptor.putInt(CHANNEL_COUNT, SOUND_CHANNEL_COUNT);
+			descriptor.putInt(QUANTIZATION_BITS, 24);
+			descriptor.putShort(BLOCK_ALIGN, SOUND_BLOCK_ALIGN);
+			descriptor.putInt(AVERAGE_BYTES_PER_SECOND, SOUND_EDIT_RATE * SOUND_BLOCK_ALIGN);
+			descriptor.put(CHANNEL_ASSIGNMENT, IMF_CHANNEL_ASSIGNMENT);
+			descriptor.putBatch(SUB_DESCRIPTORS, 16, soundfieldGroupUid, leftUid, rightUid);
+			descriptor.write(sets, WAVE_AUDIO_DESCRIPTOR_KEY);
+			
+			byte[] soundfieldGroupLinkId = uuid(random);
+			LocalSet soundfieldGroup = new LocalSet(soundfieldGroupUid);
+			putMCALabel(soundfieldGroup, STANDARD_STEREO_LABEL, soundfieldGroupLinkId, "sgST", "Standard Stereo");
+			soundfieldGroup.putUTF16(MCA_TITLE, "Synthetic composition");
+			soundfieldGroup.putUTF16(MCA_TITLE_VERSION, "1");
+			soundfieldGroup.putUTF16(MCA_AUDIO_CONTENT_KIND, "PRM");
+			soundfieldGroup.putUTF16(MCA_AUDIO_ELEMENT_KIND, "FCMP");
+			soundfieldGroup.write(sets, SOUNDFIELD_GROUP_LABEL_KEY);
+			
+			LocalSet left = new LocalSet(leftUid);
+			putMCALabel(left, LEFT_LABEL, uuid(random), "chL", "Left");
+			left.putInt(MCA_CHANNEL_ID, 1);
+			left.put(SOUNDFIELD_GROUP_LINK_ID, soundfieldGroupLinkId);
+			left.write(sets, AUDIO_CHANNEL_LABEL_KEY);
+			
+			LocalSet right = new LocalSet(rightUid);
+			putMCALabel(right, RIGHT_LABEL, uuid(random), "chR", "Right");
+			right.putInt(MCA_CHANNEL_ID, 2);
+			right.put(SOUNDFIELD_GROUP_LINK_ID, soundfieldGroupLinkId);
+			right.write(sets, AUDIO_CHANNEL_LABEL_KEY);
+		} else {
+			//1920x1080 progressive 4:2:2 10 bit
+			descriptor.put(FRAME_LAYOUT, new byte[] { 0 });
+			descriptor.putInt(STORED_WIDTH, 1920);
+			descriptor.putInt(STORED_HEIGHT, 1080);
+			descriptor.putRational(ASPECT_RATIO, 16, 9);
+			descriptor.putBatch(VIDEO_LINE_MAP, 4, intBytes(42), intBytes(0));
+			descriptor.putInt(COMPONENT_DEPTH, 10);
+			descriptor.putInt(HORIZONTAL_SUBSAMPLING, 2);
+			descriptor.putInt(VERTICAL_SUBSAMPLING, 1);
+			descriptor.write(sets, CDCI_DESCRIPTOR_KEY);
+		}
+		
+		ByteBuffer primerPack = ByteBuffer.allocate(ImfPackageGenerator.KL_SIZE + 8 + PRIMER.length * 18);
+		ImfPackageGenerator.putKL(primerPack, PRIMER_PACK_KEY, primerPack.capacity() - ImfPackageGenerator.KL_SIZE);
+		primerPack.putInt(PRIMER.length).putInt(18);
+		for (Property property : PRIMER) {
+			primerPack.putShort((short) property.tag).put(property.ul);
+		}
+		ByteArrayOutputStream headerMetadata = new ByteArrayOutputStream(primerPack.capacity() + sets.size());
+		headerMetadata.write(primerPack.array(), 0, primerPack.capacity());
+		headerMetadata.write(sets.toByteArray(), 0, sets.size());
+		return headerMetadata.toByteArray();
+	}
+	
+	/**
+	 * Write a package with one timeline track holding one source clip
+	 */
+	private static void writePackage(ByteArrayOutputStream sets, byte[] key, byte[] instanceUid, byte[] packageUid, byte[] descriptorUid,
+			int trackId, int trackNumber, int editRate, byte[] dataDefinition, long duration, byte[] sourcePackageId, int sourceTrackId,
+			Random random) {
+		byte[] trackUid = uuid(random);
+		byte[] sequenceUid = uuid(random);
+		byte[] sourceClipUid = uuid(random);
+		
+		LocalSet genericPackage = new LocalSet(instanceUid);
+		genericPackage.put(PACKAGE_UID, packageUid);
+		genericPackage.put(PACKAGE_CREATION_DATE, TIMESTAMP);
+		genericPackage.put(PACKAGE_MODIFIED_DATE, TIMESTAMP);
+		genericPackage.putBatch(TRACKS, 16, trackUid);
+		if (descriptorUid != null) {
+			genericPackage.put(DESCRIPTOR, descriptorUid);
+		}
+		genericPackage.write(sets, key);
+		
+		LocalSet track = new LocalSet(trackUid);
+		track.putInt(TRACK_ID, trackId);
+		track.putInt(TRACK_NUMBER, trackNumber);
+		track.put(TRACK_SEQUENCE, sequenceUid);
+		track.putRational(EDIT_RATE, editRate, 1);
+		track.putLong(ORIGIN, 0);
+		track.write(sets, TIMELINE_TRACK_KEY);
+		
+		LocalSet sequence = new LocalSet(sequenceUid);
+		sequence.put(DATA_DEFINITION, dataDefinition);
+		sequence.putLong(DURATION, duration);
+		sequence.putBatch(STRUCTURAL_COMPONENTS, 16, sourceClipUid);
+		sequence.write(sets, SEQUENCE_KEY);
+		
+		LocalSet sourceClip = new LocalSet(sourceClipUid);
+		sourceClip.put(DATA_DEFINITION, dataDefinition);
+		sourceClip.putLong(DURATION, duration);
+		sourceClip.putLong(START_POSITION, 0);
+		sourceClip.put(SOURCE_PACKAGE_ID, sourcePackageId);
+		sourceClip.putInt(SOURCE_TRACK_ID, sourceTrackId);
+		sourceClip.write(sets, SOURCE_CLIP_KEY);
+	}
+	
+	private static void putMCALabel(LocalSet set, byte[] dictionaryId, byte[] linkId, String tagSymbol, String tagName) {
+		set.put(MCA_LABEL_DICTIONARY_ID, dictionaryId);
+		set.put(MCA_LINK_ID, linkId);
+		set.putUTF16(MCA_TAG_SYMBOL, tagSymbol);
+		set.putUTF16(MCA_TAG_NAME, tagName);
+		set.put(RFC5646_SPOKEN_LANGUAGE, "en".getBytes(StandardCharsets.US_ASCII));
+	}
+	
+	/**
+	 * Local set of 2 byte tags and 2 byte lengths, starting with its InstanceUID
+	 */
+	private static class LocalSet {
+		private final ByteArrayOutputStream properties = new ByteArrayOutputStream();
+		
+		LocalSet(byte[] instanceUid) {
+			put(INSTANCE_UID, instanceUid);
+		}
+		
+		void put(Property property, byte[] value) {
+			properties.write(property.tag >> 8);
+			properties.write(property.tag);
+			properties.write(value.length >> 8);
+			properties.write(value.length);
+			properties.write(value, 0, value.length);
+		}
+		
+		void putShort(Property property, int value) {
+			put(property, ByteBuffer.allocate(2).putShort((short) value).array());
+		}
+		
+		void putInt(Property property, int value) {
+			put(property, intBytes(value));
+		}
+		
+		void putLong(Property property, long value) {
+			put(property, ByteBuffer.allocate(8).putLong(value).array());
+		}
+		
+		void putRational(Property property, int numerator, int denominator) {
+			put(property, ByteBuffer.allocate(8).putInt(numerator).putInt(denominator).array());
+		}
+		
+		void putUTF16(Property property, String value) {
+			put(property, value.getBytes(StandardCharsets.UTF_16BE));
+		}
+		
+		/**
+		 * Put a batch or an array: item count, item size and items
+		 */
+		void putBatch(Property property, int itemSize, byte[]... items) {
+			ByteBuffer batch = ByteBuffer.allocate(8 + items.length * itemSize);
+			batch.putInt(items.length).putInt(itemSize);
+			for (byte[] item : items) {
+				batch.put(item);
+			}
+			put(property, batch.array());
+		}
+		
+		void write(ByteArrayOutputStream sets, byte[] key) {
+			ByteBuffer kl = ByteBuffer.allocate(ImfPackageGenerator.KL_SIZE);
+			ImfPackageGenerator.putKL(kl, key, properties.size());
+			sets.write(kl.array(), 0, kl.capacity());
+			sets.write(properties.toByteArray(), 0, properties.size());
+		}
+	}
+	
+	private static byte[] setKey(int type) {
+		return label(0x02, 0x53, 0x01, 0x01, 0x0d, 0x01, 0x01, 0x01, 0x01, 0x01, type, 0x00);
+	}
+	
+	/**
+	 * SMPTE label starting with 06.0e.2b.34
+	 */
+	private static byte[] label(int... bytes) {
+		byte[] label = new byte[16];
+		label[0] = 0x06;
+		label[1] = 0x0e;
+		label[2] = 0x2b;
+		label[3] = 0x34;
+		for (int i = 0; i < bytes.length; i++) {
+			label[i + 4] = (byte) bytes[i];
+		}
+		return label;
+	}
+	
+	private static byte[] umid(UUID materialNumber) {
+		return ByteBuffer.allocate(32).put(UMID_PREFIX)
+				.putLong(materialNumber.getMostSignificantBits()).putLong(materialNumber.getLeastSignificantBits()).array();
+	}
+	
+	private static byte[] umid(byte[] materialNumber) {
+		return ByteBuffer.allocate(32).put(UMID_PREFIX).put(materialNumber).array();
+	}
+	
+	private static byte[] uuid(Random random) {
+		//random version 4 uuid
+		long mostSigBits = (random.nextLong() & ~0xf000L) | 0x4000L;
+		long leastSigBits = (random.nextLong() & ~(0xc000L << 48)) | (0x8000L << 48);
+		return ByteBuffer.allocate(16).putLong(mostSigBits).putLong(leastSigBits).array();
+	}
+	
+	private static byte[] intBytes(int value) {
+		return ByteBuffer.allocate(4).putInt(value).array();
+	}
+}
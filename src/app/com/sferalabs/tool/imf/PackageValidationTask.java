@@ -0,0 +1,604 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.tool.imf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import com.sferalabs.imf.exception.ImfXmlException;
+import com.sferalabs.imf.model.assetmap.Asset;
+import com.sferalabs.imf.model.assetmap.AssetMap;
+import com.sferalabs.imf.model.imfpackage.ImfPackage;
+import com.sferalabs.imf.model.packinglist.PackingList;
+import com.sferalabs.imf.util.ImfHashAlgorithm;
+import com.sferalabs.imf.util.ImfHashCache;
+import com.sferalabs.imf.util.ImfHashEngine;
+import com.sferalabs.imf.util.ImfLogger;
+import com.sferalabs.imf.validation.AssetMapValidator;
+import com.sferalabs.imf.validation.CompositionPlaylistValidator;
+import com.sferalabs.imf.validation.MXFValidationCache;
+import com.sferalabs.imf.validation.PackingListValidator;
+import com.sferalabs.imf.validation.ValidationCancellation;
+import com.sferalabs.imf.validation.ValidationReportWriter;
+import com.sferalabs.imf.validation.ValidationResult;
+import com.sferalabs.imf.validation.ValidationResultList;
+import com.sferalabs.imf.validation.ValidationResultListener;
+import com.sferalabs.imf.validation.ValidationRule;
+import com.sferalabs.imf.validation.ValidationStopCondition;
+
+/**
+ * PackageValidationTask class validates ASSETMAP, PackingList and CPLs of one package.
+ * Hash engine, caches and CPL executor can be shared by tasks validating several packages.
+ * Failures are logged and returned as error results.
+ */
+class PackageValidationTask implements Callable<ValidationResultList> {
+	
+	private final String packagePath;
+	private List<String> dependentPackagePaths = new ArrayList<String>();
+	private String assetMapXsdPath;
+	private String packingListXsdPath;
+	private String coreConstraintsXsdPath;
+	private boolean isHashCheckingSkipped = true;
+	private int hashThreadCount = ImfHashEngine.getDefaultThreadCount();
+	private Set<ImfHashAlgorithm> extraHashAlgos;
+	private ImfHashEngine hashEngine;
+	private ImfHashCache hashCache;
+	private MXFValidationCache mxfValidationCache;
+	private int cplThreadCount = 1;
+	private boolean isCplStreamed;
+	private boolean isXmlPrefetched;
+	private ValidationStopCondition stopCondition;
+	private ExecutorService cplExecutor;
+	private String reportPath;
+	private OutputStream reportOutput;
+	private boolean captureOutput;
+	private String output = "";
+	private long elapsedMillis;
+	
+	PackageValidationTask(String packagePath) {
+		this.packagePath = packagePath;
+	}
+	
+	/**
+	 * Validate the package. With a report or a stop condition the returned list is empty and only
+	 * holds error flags and severity counts, every result goes to the report
+	 * @return results
+	 */
+	@Override
+	public ValidationResultList call() {
+		long startTime = System.currentTimeMillis();
+		if (captureOutput) {
+			ImfLogger.getLogger().startCapture();
+		}
+		try {
+			return validatePackage();
+		} finally {
+			if (captureOutput) {
+				output = ImfLogger.getLogger().stopCapture();
+			}
+			elapsedMillis = System.currentTimeMillis() - startTime;
+		}
+	}
+	
+	private ValidationResultList validatePackage() {
+		ValidationResultList validationResults = new ValidationResultList();
+		//check existence of package and dependent packages
+		List<String> packagePaths = new ArrayList<String>();
+		packagePaths.add(packagePath);
+		packagePaths.addAll(dependentPackagePaths);
+		for (String folderPath : packagePaths) {
+			if (!new File(folderPath).isDirectory()) {
+				String msg = String.format("Invalid package path: %s", folderPath);
+				ImfLogger.getLogger().logError(msg);
+				validationResults.add(newCriticalResult(msg));
+				return validationResults;
+			}
+		}
+		
+		ValidationReportWriter reportWriter = null;
+		if (reportOutput != null) {
+			reportWriter = new ValidationReportWriter(reportOutput);
+			reportWriter.setPackagePath(packagePath);
+		} else if (reportPath != null) {
+			try {
+				reportWriter = new ValidationReportWriter(reportPath);
+				reportWriter.setPackagePath(packagePath);
+			} catch (IOException e) {
+				String msg = String.format("Unable to create validation report: %s", e.getMessage());
+				ImfLogger.getLogger().logError(msg);
+				validationResults.add(new ValidationResult(true, msg));
+				return validationResults;
+			}
+		}
+		
+		//Do validation, results are counted by the cancellation before they are reported
+		ValidationCancellation cancellation = stopCondition == null ? null : new ValidationCancellation(stopCondition, reportWriter);
+		ValidationResultListener resultListener = cancellation != null ? cancellation : reportWriter;
+		validationResults.setListener(resultListener);
+		//the report and the cancellation see every result, the returned list only counts them
+		validationResults.setRetainingResults(resultListener == null);
+		ExecutorService prefetchExecutor = null;
+		PrefetchedParse<PackingListValidator> packingListParse = null;
+		List<PrefetchedParse<CompositionPlaylistValidator>> cplParses = new ArrayList<PrefetchedParse<CompositionPlaylistValidator>>();
+		try {
+			ImfPackage imfPackage = new ImfPackage(packagePath);
+			imfPackage.setDependantPackageList(dependentPackagePaths);
+			
+			//AssetMap
+			ImfLogger.getLogger().logInfo("Validating ASSETMAP.xml ...");
+			AssetMapValidator assetValidator = new AssetMapValidator(imfPackage);
+			assetValidator.setResultListener(resultListener);
+			if (assetMapXsdPath != null) {
+				assetValidator.setXsdPath(assetMapXsdPath);
+			}
+			
+			validationResults.add(assetValidator.parse());
+			AssetMap assetMap = assetValidator.getAssetMap();
+			List<Asset> packingListAssets = assetMap.getPackingListAssets();
+			List<Asset> cplAssets = assetMap.getCPLAssets();
+			if (isXmlPrefetched) {
+				//paths of all documents are known, they are parsed while previous documents are validated
+				Executor executor = cplExecutor;
+				if (executor == null) {
+					prefetchExecutor = Executors.newFixedThreadPool(Math.min(cplThreadCount, cplAssets.size() + 1));
+					executor = prefetchExecutor;
+				}
+				if (packingListAssets.size() == 1) {
+					String packingListPath = assetMap.getAssetResourcePath(packingListAssets.get(0).getUuid());
+					packingListParse = new PrefetchedParse<PackingListValidator>(newPackingListValidator(packingListPath), false);
+					packingListParse.start(executor);
+				}
+				for (Asset cpl : cplAssets) {
+					CompositionPlaylistValidator cplValidator = new CompositionPlaylistValidator(assetMap.getAssetResourcePath(cpl.getUuid()));
+					if (coreConstraintsXsdPath != null) {
+						cplValidator.setXsdPath(coreConstraintsXsdPath);
+					}
+					PrefetchedParse<CompositionPlaylistValidator> cplParse =
+							new PrefetchedParse<CompositionPlaylistValidator>(cplValidator, isCplStreamed);
+					cplParse.start(executor);
+					cplParses.add(cplParse);
+				}
+			}
+			validationResults.addAll(assetValidator.validate());
+			ImfLogger.getLogger().logNewLine();
+			if (isStopped(cancellation, validationResults)) {
+				return validationResults;
+			}
+			
+			//PackingList
+			if (packingListAssets.size() == 0) {
+				ImfLogger.getLogger().logError("Unable to find PackingList file in package");
+				validationResults.add(newCriticalResult("Unable to find PackingList file in package"));
+				return validationResults;
+			}
+			
+			if (packingListAssets.size() > 1) {
+				ImfLogger.getLogger().logError("Package has multiple PackingList files");
+				validationResults.add(newCriticalResult("Package has multiple PackingList files"));
+				return validationResults;
+			}
+			
+			PackingList packingList = null;
+			Asset asset = packingListAssets.get(0);
+			String packingListPath = assetMap.getAssetResourcePath(asset.getUuid());
+			String packingListFilename = new File(packingListPath).getName();
+			ImfLogger.getLogger().logInfo("Validating PackingList file: " + packingListFilename + " ...");
+			PackingListValidator packingListValidator = packingListParse != null
+					? packingListParse.getValidator() : newPackingListValidator(packingListPath);
+			packingListValidator.setResultListener(resultListener);
+			packingListValidator.setCancellation(cancellation);
+			
+			try {
+				validationResults.add(packingListParse != null ? packingListParse.get() : packingListValidator.parse());
+				packingList = packingListValidator.getPackingList();
+				packingListValidator.setAssetMap(assetMap);
+				packingListValidator.setSkipHashChecking(isHashCheckingSkipped);
+				packingListValidator.setHashThreadCount(hashThreadCount);
+				packingListValidator.setHashEngine(hashEngine);
+				if (extraHashAlgos != null) {
+					packingListValidator.setExtraHashAlgorithms(extraHashAlgos);
+				}
+				packingListValidator.setHashCache(hashCache);
+				validationResults.addAll(packingListValidator.validate());
+			} catch (SAXException e) {
+				ValidationResult result = new ValidationResult(true, "", ValidationRule.XSD);
+				result.setCriticalError(true);
+				result.setFilePath(packingListPath);
+				String message = e.getMessage();
+				if (e instanceof SAXParseException) {
+					SAXParseException spe = (SAXParseException) e;
+					message = "Line: " + spe.getLineNumber() + " Col: " + spe.getColumnNumber() + " " + spe.getMessage();
+				}
+				ImfLogger.getLogger().logError(message);
+				result.setMessage(message);
+				validationResults.add(result);
+			} catch (Exception e) {
+				ValidationResult result = new ValidationResult();
+				result.setHasError(true);
+				result.setFilePath(packingListPath);
+				ImfLogger.getLogger().logError(e.getMessage());
+				result.setMessage(e.getMessage());
+				validationResults.add(result);
+			}
+			if (isStopped(cancellation, validationResults)) {
+				return validationResults;
+			}
+			
+			//CPL
+			List<CplValidationTask> cplTasks = new ArrayList<CplValidationTask>();
+			MXFValidationCache cache = mxfValidationCache == null ? new MXFValidationCache() : mxfValidationCache;
+			for (Asset cpl:cplAssets) {
+				CplValidationTask cplTask = new CplValidationTask(assetMap.getAssetResourcePath(cpl.getUuid()), assetMap, packingList);
+				cplTask.setXsdPath(coreConstraintsXsdPath);
+				cplTask.setMXFValidationCache(cache);
+				cplTask.setResultListener(resultListener);
+				cplTask.setCancellation(cancellation);
+				cplTask.setStreaming(isCplStreamed);
+				if (!cplParses.isEmpty()) {
+					cplTask.setPrefetchedParse(cplParses.get(cplTasks.size()));
+				}
+				cplTasks.add(cplTask);
+			}
+			validationResults.addAll(validateCpls(cplTasks, cancellation));
+			if (isStopped(cancellation, validationResults)) {
+				return validationResults;
+			}
+			
+			if(validationResults.containsError())
+				ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + packagePath);
+			else {
+				ImfLogger.getLogger().logInfo("Finished validation of IMF package " + packagePath);
+			}
+		} catch (SAXException e) {
+			ValidationResult result = new ValidationResult(true, e.getMessage(), ValidationRule.XSD);
+			result.setCriticalError(true);
+			if (e instanceof SAXParseException) {
+				SAXParseException spe = (SAXParseException) e;
+				result.setMessage("Line: " + spe.getLineNumber() + " Col: " + spe.getColumnNumber() + " " + spe.getMessage());
+				if (spe.getSystemId() != null && spe.getSystemId().startsWith("file:")) {
+					result.setFilePath(new File(URI.create(spe.getSystemId())).getPath());
+				}
+			}
+			ImfLogger.getLogger().logError(result.getMessage());
+			validationResults.add(result);
+			ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + packagePath);
+		} catch (IOException e) {
+			ImfLogger.getLogger().logError(e.getMessage());
+			validationResults.add(newCriticalResult(e.getMessage()));
+			ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + packagePath);
+		} catch (ParserConfigurationException e) {
+			ImfLogger.getLogger().logError(e.getMessage());
+			validationResults.add(new ValidationResult(true, e.getMessage()));
+			ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + packagePath);
+		} catch (ImfXmlException e) {
+			ImfLogger.getLogger().logError(e.getMessage());
+			validationResults.add(new ValidationResult(true, e.getMessage()));
+			ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + packagePath);
+		} finally {
+			//parses of documents not reached are not needed
+			if (packingListParse != null) {
+				packingListParse.cancel();
+			}
+			for (PrefetchedParse<CompositionPlaylistValidator> cplParse : cplParses) {
+				cplParse.cancel();
+			}
+			if (prefetchExecutor != null) {
+				prefetchExecutor.shutdownNow();
+			}
+			closeReport(reportWriter);
+		}
+		return validationResults;
+	}
+	
+	private ValidationResultList validateCpls(List<CplValidationTask> cplTasks, ValidationCancellation cancellation)
+			throws IOException, ParserConfigurationException, SAXException, ImfXmlException {
+		ValidationResultList validationResults = new ValidationResultList();
+		if (cplTasks.size() < 2 || (cplExecutor == null && cplThreadCount == 1)) {
+			for (CplValidationTask cplTask : cplTasks) {
+				if (cancellation != null && cancellation.isCancelled()) {
+					break;
+				}
+				validationResults.addAll(cplTask.call());
+			}
+			return validationResults;
+		}
+		
+		//validate concurrently, buffered output of each CPL is printed in AssetMap order
+		ExecutorService executor = cplExecutor;
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Math.min(cplThreadCount, cplTasks.size()));
+		}
+		List<Future<ValidationResultList>> futures = new ArrayList<Future<ValidationResultList>>();
+		try {
+			for (CplValidationTask cplTask : cplTasks) {
+				cplTask.setCaptureOutput(true);
+				futures.add(executor.submit(cplTask));
+			}
+			//once cancelled, tasks return at their next check so that their results and output are kept
+			for (int i = 0; i < cplTasks.size(); i++) {
+				try {
+					validationResults.addAll(futures.get(i).get());
+				} catch (ExecutionException e) {
+					rethrowCplFailure(e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new ImfXmlException("CPL validation was interrupted");
+				} finally {
+					ImfLogger.getLogger().logCapturedOutput(cplTasks.get(i).getOutput());
+				}
+			}
+		} finally {
+			if (executor != cplExecutor) {
+				executor.shutdownNow();
+			} else {
+				//shared executor keeps running, only tasks of this package are cancelled
+				for (Future<ValidationResultList> future : futures) {
+					future.cancel(true);
+				}
+			}
+		}
+		return validationResults;
+	}
+	
+	private static void rethrowCplFailure(Throwable cause)
+			throws IOException, ParserConfigurationException, SAXException, ImfXmlException {
+		if (cause instanceof IOException)
+			throw (IOException) cause;
+		if (cause instanceof ParserConfigurationException)
+			throw (ParserConfigurationException) cause;
+		if (cause instanceof SAXException)
+			throw (SAXException) cause;
+		if (cause instanceof ImfXmlException)
+			throw (ImfXmlException) cause;
+		if (cause instanceof Error)
+			throw (Error) cause;
+		throw (RuntimeException) cause;
+	}
+	
+	/**
+	 * Check if validation was cancelled by the stop condition, the remaining steps are then skipped
+	 */
+	private boolean isStopped(ValidationCancellation cancellation, ValidationResultList validationResults) {
+		if (cancellation == null || !cancellation.isCancelled()) {
+			return false;
+		}
+		String msg = String.format("Validation stopped after %s, remaining checks were skipped", cancellation.getCondition());
+		ImfLogger.getLogger().logWarning(msg);
+		validationResults.add(new ValidationResult(false, msg));
+		ImfLogger.getLogger().logError("Finished validation of IMF package with errors " + packagePath);
+		return true;
+	}
+	
+	/**
+	 * Create an error result of a failure preventing validation of the package
+	 */
+	private static ValidationResult newCriticalResult(String msg) {
+		ValidationResult result = new ValidationResult(true, msg);
+		result.setCriticalError(true);
+		return result;
+	}
+	
+	private PackingListValidator newPackingListValidator(String packingListPath) {
+		PackingListValidator packingListValidator = new PackingListValidator(packingListPath);
+		if (packingListXsdPath != null) {
+			packingListValidator.setXsdPath(packingListXsdPath);
+		}
+		return packingListValidator;
+	}
+	
+	private static void closeReport(ValidationReportWriter reportWriter) {
+		if (reportWriter == null) {
+			return;
+		}
+		try {
+			reportWriter.close();
+		} catch (IOException e) {
+			ImfLogger.getLogger().logWarning("Unable to write validation report: %s", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Get path of the validated package
+	 * @return packagePath
+	 */
+	String getPackagePath() {
+		return packagePath;
+	}
+	
+	/**
+	 * Set supplemental packages the package depends on
+	 * @param dependentPackagePaths
+	 */
+	void setDependentPackagePaths(List<String> dependentPackagePaths) {
+		this.dependentPackagePaths = dependentPackagePaths;
+	}
+	
+	/**
+	 * Set xsd files, embedded xsd is used for null values
+	 * @param assetMapXsdPath
+	 * @param packingListXsdPath
+	 * @param coreConstraintsXsdPath
+	 */
+	void setXsdPaths(String assetMapXsdPath, String packingListXsdPath, String coreConstraintsXsdPath) {
+		this.assetMapXsdPath = assetMapXsdPath;
+		this.packingListXsdPath = packingListXsdPath;
+		this.coreConstraintsXsdPath = coreConstraintsXsdPath;
+	}
+	
+	/**
+	 * Set hash checking options
+	 * @param isHashCheckingSkipped
+	 * @param hashThreadCount threads of the hash engine created when no engine is shared
+	 * @param extraHashAlgos
+	 */
+	void setHashChecking(boolean isHashCheckingSkipped, int hashThreadCount, Set<ImfHashAlgorithm> extraHashAlgos) {
+		this.isHashCheckingSkipped = isHashCheckingSkipped;
+		this.hashThreadCount = hashThreadCount;
+		this.extraHashAlgos = extraHashAlgos;
+	}
+	
+	/**
+	 * Set hash engine shared by packages
+	 * @param hashEngine
+	 */
+	void setHashEngine(ImfHashEngine hashEngine) {
+		this.hashEngine = hashEngine;
+	}
+	
+	/**
+	 * Set hash cache, loaded and saved by the caller
+	 * @param hashCache
+	 */
+	void setHashCache(ImfHashCache hashCache) {
+		this.hashCache = hashCache;
+	}
+	
+	/**
+	 * Set MXF validation cache shared by packages
+	 * @param mxfValidationCache
+	 */
+	void setMXFValidationCache(MXFValidationCache mxfValidationCache) {
+		this.mxfValidationCache = mxfValidationCache;
+	}
+	
+	/**
+	 * Set number of CPLs validated concurrently when no executor is shared
+	 * @param cplThreadCount
+	 */
+	void setCplThreadCount(int cplThreadCount) {
+		this.cplThreadCount = cplThreadCount;
+	}
+	
+	/**
+	 * Validate CPLs while they are read, without building their model
+	 * @param isCplStreamed
+	 */
+	void setStreamingCpl(boolean isCplStreamed) {
+		this.isCplStreamed = isCplStreamed;
+	}
+	
+	/**
+	 * Parse PackingList and CPLs concurrently as soon as the AssetMap is parsed, they are still validated in order
+	 * @param isXmlPrefetched
+	 */
+	void setXmlPrefetch(boolean isXmlPrefetched) {
+		this.isXmlPrefetched = isXmlPrefetched;
+	}
+	
+	/**
+	 * Stop validation of the package once the given condition is met, outstanding hashing and MXF parsing are cancelled
+	 * @param stopCondition condition, null to validate the whole package
+	 */
+	void setStopCondition(ValidationStopCondition stopCondition) {
+		this.stopCondition = stopCondition;
+	}
+	
+	/**
+	 * Set executor validating CPLs of all packages
+	 * @param cplExecutor
+	 */
+	void setCplExecutor(ExecutorService cplExecutor) {
+		this.cplExecutor = cplExecutor;
+	}
+	
+	/**
+	 * Set file receiving the validation report
+	 * @param reportPath
+	 */
+	void setReportPath(String reportPath) {
+		this.reportPath = reportPath;
+	}
+	
+	/**
+	 * Set stream receiving the validation report, it is closed once validation is done
+	 * @param reportOutput
+	 */
+	void setReportOutput(OutputStream reportOutput) {
+		this.reportOutput = reportOutput;
+	}
+	
+	/**
+	 * Get file receiving the validation report
+	 * @return reportPath, null if no report is written
+	 */
+	String getReportPath() {
+		return reportPath;
+	}
+	
+	/**
+	 * Buffer log output of the task instead of printing it, so that concurrent tasks do not interleave
+	 * @param captureOutput
+	 */
+	void setCaptureOutput(boolean captureOutput) {
+		this.captureOutput = captureOutput;
+	}
+	
+	/**
+	 * Get buffered log output
+	 * @return output, empty if output was not captured
+	 */
+	String getOutput() {
+		return output;
+	}
+	
+	/**
+	 * Release buffered log output once it is printed
+	 */
+	void clearOutput() {
+		output = "";
+	}
+	
+	/**
+	 * Get duration of the validation
+	 * @return milliseconds
+	 */
+	long getElapsedMillis() {
+		return elapsedMillis;
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.tool.imf;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+import com.sferalabs.imf.exception.ImfXmlException;
+import com.sferalabs.imf.util.ImfLogger;
+import com.sferalabs.imf.validation.ValidationResult;
+import com.sferalabs.imf.validation.XmlResourceValidator;
+
+/**
+ * PrefetchedParse class parses an XML document in the background ahead of its validation.
+ * Log output of the parse is buffered and printed when the result is taken, so the output
+ * keeps the validation order. A parse not started yet when its result is needed runs in the
+ * calling thread.
+ */
+class PrefetchedParse<V extends XmlResourceValidator> {
+	
+	private final V validator;
+	private final boolean isXsdOnly;
+	private final FutureTask<ValidationResult> parse;
+	/** Set by the thread parsing the document, the executor or the thread taking the result */
+	private final AtomicBoolean isClaimed = new AtomicBoolean();
+	private volatile String output = "";
+	
+	/**
+	 * @param validator validator of the document, configured for parsing
+	 * @param isXsdOnly only validate the document against xsd instead of building its model
+	 */
+	PrefetchedParse(V validator, boolean isXsdOnly) {
+		this.validator = validator;
+		this.isXsdOnly = isXsdOnly;
+		this.parse = new FutureTask<ValidationResult>(new Callable<ValidationResult>() {
+			@Override
+			public ValidationResult call() throws IOException, ParserConfigurationException, SAXException {
+				if (!isClaimed.compareAndSet(false, true)) {
+					return null;
+				}
+				ImfLogger.getLogger().startCapture();
+				try {
+					return parseDocument();
+				} finally {
+					output = ImfLogger.getLogger().stopCapture();
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Start the parse on given executor
+	 * @param executor
+	 */
+	void start(Executor executor) {
+		try {
+			executor.execute(parse);
+		} catch (RejectedExecutionException e) {
+			//executor is shutting down, document is parsed when its result is taken
+		}
+	}
+	
+	/**
+	 * Get the validator of the document
+	 * @return validator, its model is available once get returned
+	 */
+	V getValidator() {
+		return validator;
+	}
+	
+	/**
+	 * Wait for the parse and print its log output
+	 * @return result of the parse
+	 * @throws IOException
+	 * @throws ParserConfigurationException
+	 * @throws SAXException if the document is malformed
+	 * @throws ImfXmlException if waiting was interrupted
+	 */
+	ValidationResult get() throws IOException, ParserConfigurationException, SAXException, ImfXmlException {
+		if (isClaimed.compareAndSet(false, true)) {
+			parse.cancel(false);
+			return parseDocument();
+		}
+		try {
+			return parse.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof ParserConfigurationException)
+				throw (ParserConfigurationException) cause;
+			if (cause instanceof SAXException)
+				throw (SAXException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw (RuntimeException) cause;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ImfXmlException("Parsing was interrupted");
+		} finally {
+			ImfLogger.getLogger().logCapturedOutput(output);
+		}
+	}
+	
+	/**
+	 * Cancel the parse if its result is not needed
+	 */
+	void cancel() {
+		parse.cancel(true);
+	}
+	
+	private ValidationResult parseDocument() throws IOException, ParserConfigurationException, SAXException {
+		return isXsdOnly ? validator.validateXsd() : validator.parse();
+	}
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.tool.imf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sferalabs.imf.util.ImfHashAlgorithm;
+import com.sferalabs.imf.util.ImfHashCache;
+import com.sferalabs.imf.util.ImfHashEngine;
+import com.sferalabs.imf.util.ImfLogger;
+import com.sferalabs.imf.validation.MXFValidationCache;
+import com.sferalabs.imf.validation.ValidationReportWriter;
+import com.sferalabs.imf.validation.ValidationStopCondition;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * ValidationDaemon class validates packages submitted over a local HTTP endpoint, bound to the
+ * loopback address only. Jobs are queued by priority and run on a bounded pool sharing the hash
+ * engine, hash cache, MXF validation cache and CPL threads, so caches stay warm between jobs.
+ * <pre>
+ * POST /jobs?package=&lt;folder&gt;[&amp;depend=&lt;folder&gt;...][&amp;priority=&lt;N&gt;]  queue a job, parameters may also be sent as a form
+ * GET  /jobs                  status of all jobs, one JSON object per line
+ * GET  /jobs/&lt;id&gt;             status of a job
+ * GET  /jobs/&lt;id&gt;/results     NDJSON report of a job, streamed until the job is finished
+ * </pre>
+ */
+public class ValidationDaemon {
+	
+	private static class Messages {
+		public static final String LISTENING_FMT = "Validation daemon listening on http://%s:%d/jobs";
+		public static final String JOB_QUEUED_FMT = "Job %d: queued %s with priority %d";
+		public static final String REQUEST_FAILED_FMT = "Unable to answer %s %s: %s";
+		public static final String HASH_CACHE_SAVE_FAILED_FMT = "Unable to save hash cache: %s";
+		public static final String HASH_CACHE_LOAD_FAILED_FMT = "Unable to load hash cache: %s";
+	}
+	
+	/** Number of finished jobs whose status and report are kept */
+	private static final int MAX_FINISHED_JOBS = 1000;
+	
+	private final int port;
+	private final int threadCount;
+	private String assetMapXsdPath;
+	private String packingListXsdPath;
+	private String coreConstraintsXsdPath;
+	private boolean isHashCheckingSkipped = true;
+	private int hashThreadCount = ImfHashEngine.getDefaultThreadCount();
+	private Set<ImfHashAlgorithm> extraHashAlgos;
+	private String hashCachePath;
+	private int cplThreadCount = 1;
+	private boolean isCplStreamed;
+	private boolean isXmlPrefetched;
+	private ValidationStopCondition stopCondition;
+	
+	private final AtomicLong nextJobId = new AtomicLong(1);
+	/** Jobs by id, iterated in submission order */
+	private final Map<Long, ValidationJob> jobs = new ConcurrentSkipListMap<Long, ValidationJob>();
+	private final Queue<ValidationJob> finishedJobs = new ConcurrentLinkedQueue<ValidationJob>();
+	private final MXFValidationCache mxfValidationCache = new MXFValidationCache();
+	private HttpServer server;
+	private ExecutorService requestExecutor;
+	private ThreadPoolExecutor jobExecutor;
+	private ExecutorService cplExecutor;
+	private ImfHashEngine hashEngine;
+	private ImfHashCache hashCache;
+	
+	/**
+	 * Instantiates a daemon
+	 * @param port port on the loopback address, 0 for any free port
+	 * @param threadCount number of packages validated concurrently
+	 */
+	public ValidationDaemon(int port, int threadCount) {
+		this.port = port;
+		this.threadCount = threadCount;
+	}
+	
+	/**
+	 * Start accepting jobs
+	 * @throws IOException if the port can not be bound
+	 */
+	public synchronized void start() throws IOException {
+		if (server != null) {
+			return;
+		}
+		if (!isHashCheckingSkipped) {
+			hashEngine = new ImfHashEngine(hashThreadCount);
+			if (hashCachePath != null) {
+				hashCache = new ImfHashCache(hashCachePath);
+				try {
+					hashCache.load();
+				} catch (IOException e) {
+					ImfLogger.getLogger().logWarning(Messages.HASH_CACHE_LOAD_FAILED_FMT, e.getMessage());
+				}
+			}
+		}
+		if (cplThreadCount > 1) {
+			cplExecutor = Executors.newFixedThreadPool(cplThreadCount);
+		}
+		//jobs are given to execute, not submit, so that the queue orders them and not their futures
+		jobExecutor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+				new PriorityBlockingQueue<Runnable>()) {
+			@Override
+			protected void afterExecute(Runnable job, Throwable throwable) {
+				retire((ValidationJob) job);
+			}
+		};
+		//report streams hold a request thread until their job is finished
+		requestExecutor = Executors.newCachedThreadPool();
+		
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/jobs", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleJobRequest(exchange);
+			}
+		});
+		server.setExecutor(requestExecutor);
+		server.start();
+		ImfLogger.getLogger().logInfo(Messages.LISTENING_FMT, server.getAddress().getHostString(), getPort());
+	}
+	
+	/**
+	 * Stop the daemon, running jobs are interrupted
+	 */
+	public synchronized void stop() {
+		if (server == null) {
+			return;
+		}
+		server.stop(0);
+		jobExecutor.shutdownNow();
+		requestExecutor.shutdownNow();
+		if (cplExecutor != null) {
+			cplExecutor.shutdownNow();
+		}
+		if (hashEngine != null) {
+			hashEngine.shutdown();
+		}
+		if (hashCache != null) {
+			try {
+				hashCache.save();
+			} catch (IOException e) {
+				ImfLogger.getLogger().logWarning(Messages.HASH_CACHE_SAVE_FAILED_FMT, e.getMessage());
+			}
+		}
+		server = null;
+		notifyAll();
+	}
+	
+	/**
+	 * Wait until the daemon is stopped
+	 * @throws InterruptedException
+	 */
+	public synchronized void awaitStop() throws InterruptedException {
+		while (server != null) {
+			wait();
+		}
+	}
+	
+	/**
+	 * Get bound port
+	 * @return port, or the configured port if the daemon is not started
+	 */
+	public synchronized int getPort() {
+		return server == null ? port : server.getAddress().getPort();
+	}
+	
+	/**
+	 * Queue validation of a package
+	 * @param packagePath
+	 * @param dependentPackagePaths
+	 * @param priority jobs of higher priority run first
+	 * @return the queued job
+	 */
+	ValidationJob submit(String packagePath, List<String> dependentPackagePaths, int priority) {
+		PackageValidationTask task = new PackageValidationTask(packagePath);
+		task.setDependentPackagePaths(dependentPackagePaths);
+		task.setXsdPaths(assetMapXsdPath, packingListXsdPath, coreConstraintsXsdPath);
+		task.setHashChecking(isHashCheckingSkipped, hashThreadCount, extraHashAlgos);
+		task.setHashEngine(hashEngine);
+		task.setHashCache(hashCache);
+		task.setMXFValidationCache(mxfValidationCache);
+		task.setCplThreadCount(cplThreadCount);
+		task.setCplExecutor(cplExecutor);
+		task.setStreamingCpl(isCplStreamed);
+		task.setXmlPrefetch(isXmlPrefetched);
+		task.setStopCondition(stopCondition);
+		
+		ValidationJob job = new ValidationJob(nextJobId.getAndIncrement(), priority, task);
+		jobs.put(job.getId(), job);
+		ImfLogger.getLogger().logInfo(Messages.JOB_QUEUED_FMT, job.getId(), packagePath, priority);
+		try {
+			jobExecutor.execute(job);
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.getId());
+			throw e;
+		}
+		return job;
+	}
+	
+	private void retire(ValidationJob job) {
+		finishedJobs.add(job);
+		while (finishedJobs.size() > MAX_FINISHED_JOBS) {
+			ValidationJob oldest = finishedJobs.poll();
+			if (oldest != null) {
+				jobs.remove(oldest.getId());
+			}
+		}
+	}
+	
+	private void handleJobRequest(HttpExchange exchange) throws IOException {
+		try {
+			String[] path = exchange.getRequestURI().getPath().split("/");
+			String method = exchange.getRequestMethod();
+			//path is "", "jobs"[, id[, "results"]]
+			if (path.length == 2 && method.equals("POST")) {
+				handleSubmit(exchange);
+			} else if (path.length == 2 && method.equals("GET")) {
+				StringBuilder body = new StringBuilder();
+				for (ValidationJob job : jobs.values()) {
+					body.append(job.toJson()).append('\n');
+				}
+				sendText(exchange, 200, body.toString());
+			} else if (path.length == 3 || path.length == 4) {
+				ValidationJob job = getJob(path[2]);
+				if (job == null) {
+					sendError(exchange, 404, "Unknown job: " + path[2]);
+				} else if (!method.equals("GET")) {
+					sendError(exchange, 405, "Method not allowed: " + method);
+				} else if (path.length == 3) {
+					sendText(exchange, 200, job.toJson() + "\n");
+				} else if (path[3].equals("results")) {
+					exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+					exchange.sendResponseHeaders(200, 0);
+					try {
+						job.writeReport(exchange.getResponseBody());
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				} else {
+					sendError(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+				}
+			} else if (path.length == 2) {
+				sendError(exchange, 405, "Method not allowed: " + method);
+			} else {
+				sendError(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+			}
+		} catch (IOException e) {
+			//client went away
+			ImfLogger.getLogger().logDebug(Messages.REQUEST_FAILED_FMT, exchange.getRequestMethod(), exchange.getRequestURI(), e.getMessage());
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	private void handleSubmit(HttpExchange exchange) throws IOException {
+		String packagePath = null;
+		List<String> dependentPackagePaths = new ArrayList<String>();
+		int priority = 0;
+		List<String[]> parameters = parseParameters(exchange.getRequestURI().getRawQuery());
+		parameters.addAll(parseParameters(readBody(exchange.getRequestBody())));
+		for (String[] parameter : parameters) {
+			switch (parameter[0]) {
+				case "package":
+					packagePath = parameter[1];
+					break;
+				case "depend":
+					dependentPackagePaths.add(parameter[1]);
+					break;
+				case "priority":
+					try {
+						priority = Integer.parseInt(parameter[1]);
+					} catch (NumberFormatException e) {
+						sendError(exchange, 400, "Invalid priority: " + parameter[1]);
+						return;
+					}
+					break;
+				default:
+					sendError(exchange, 400, "Unknown parameter: " + parameter[0]);
+					return;
+			}
+		}
+		if (packagePath == null || packagePath.isEmpty()) {
+			sendError(exchange, 400, "Missing parameter: package");
+			return;
+		}
+		
+		ValidationJob job;
+		try {
+			job = submit(packagePath, dependentPackagePaths, priority);
+		} catch (RejectedExecutionException e) {
+			sendError(exchange, 503, "Daemon is stopping");
+			return;
+		}
+		exchange.getResponseHeaders().set("Location", "/jobs/" + job.getId());
+		sendText(exchange, 202, job.toJson() + "\n");
+	}
+	
+	private ValidationJob getJob(String id) {
+		try {
+			return jobs.get(Long.parseLong(id));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	private static List<String[]> parseParameters(String text) {
+		List<String[]> parameters = new ArrayList<String[]>();
+		if (text == null || text.isEmpty()) {
+			return parameters;
+		}
+		for (String pair : text.split("&")) {
+			if (pair.isEmpty()) {
+				continue;
+			}
+			int separator = pair.indexOf('=');
+			String name = separator < 0 ? pair : pair.substring(0, separator);
+			String value = separator < 0 ? "" : pair.substring(separator + 1);
+			try {
+				parameters.add(new String[] {URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8")});
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return parameters;
+	}
+	
+	private static String readBody(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int count;
+		while ((count = inputStream.read(buffer)) != -1) {
+			body.write(buffer, 0, count);
+		}
+		return new String(body.toByteArray(), StandardCharsets.UTF_8).trim();
+	}
+	
+	private static void sendError(HttpExchange exchange, int code, String message) throws IOException {
+		StringBuilder json = new StringBuilder("{\"error\":");
+		ValidationReportWriter.appendJsonString(json, message);
+		sendText(exchange, code, json.append("}\n").toString());
+	}
+	
+	private static void sendText(HttpExchange exchange, int code, String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(code, bytes.length);
+		try (OutputStream outputStream = exchange.getResponseBody()) {
+			outputStream.write(bytes);
+		}
+	}
+	
+	/**
+	 * Set xsd files, embedded xsd is used for null values
+	 * @param assetMapXsdPath
+	 * @param packingListXsdPath
+	 * @param coreConstraintsXsdPath
+	 */
+	public void setXsdPaths(String assetMapXsdPath, String packingListXsdPath, String coreConstraintsXsdPath) {
+		this.assetMapXsdPath = assetMapXsdPath;
+		this.packingListXsdPath = packingListXsdPath;
+		this.coreConstraintsXsdPath = coreConstraintsXsdPath;
+	}
+	
+	/**
+	 * Set hash checking options, applied when the daemon is started
+	 * @param isHashCheckingSkipped
+	 * @param hashThreadCount threads of the hash engine shared by jobs
+	 * @param extraHashAlgos
+	 */
+	public void setHashChecking(boolean isHashCheckingSkipped, int hashThreadCount, Set<ImfHashAlgorithm> extraHashAlgos) {
+		this.isHashCheckingSkipped = isHashCheckingSkipped;
+		this.hashThreadCount = hashThreadCount;
+		this.extraHashAlgos = extraHashAlgos;
+	}
+	
+	/**
+	 * Set folder of the hash cache, loaded when the daemon is started and saved when it is stopped
+	 * @param hashCachePath
+	 */
+	public void setHashCachePath(String hashCachePath) {
+		this.hashCachePath = hashCachePath;
+	}
+	
+	/**
+	 * Set number of CPLs validated concurrently by all jobs, applied when the daemon is started
+	 * @param cplThreadCount
+	 */
+	public void setCplThreadCount(int cplThreadCount) {
+		this.cplThreadCount = cplThreadCount;
+	}
+	
+	/**
+	 * Validate CPLs while they are read, without building their model
+	 * @param isCplStreamed
+	 */
+	public void setStreamingCpl(boolean isCplStreamed) {
+		this.isCplStreamed = isCplStreamed;
+	}
+	
+	/**
+	 * Parse PackingList and CPLs concurrently as soon as the AssetMap is parsed
+	 * @param isXmlPrefetched
+	 */
+	public void setXmlPrefetch(boolean isXmlPrefetched) {
+		this.isXmlPrefetched = isXmlPrefetched;
+	}
+	
+	/**
+	 * Stop validation of a package once the given condition is met
+	 * @param stopCondition condition, null to validate whole packages
+	 */
+	public void setStopCondition(ValidationStopCondition stopCondition) {
+		this.stopCondition = stopCondition;
+	}
+}
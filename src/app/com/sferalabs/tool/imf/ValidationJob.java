@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.tool.imf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sferalabs.imf.util.ImfLogger;
+import com.sferalabs.imf.validation.ValidationReportWriter;
+import com.sferalabs.imf.validation.ValidationResult;
+import com.sferalabs.imf.validation.ValidationResultList;
+import com.sferalabs.imf.validation.ValidationSeverity;
+
+/**
+ * ValidationJob class is a package validation queued by the daemon. Jobs of higher priority
+ * run first, jobs of equal priority run in submission order. The NDJSON report of the job is
+ * kept in memory so that it can be streamed while the job runs and read once it is done.
+ */
+class ValidationJob implements Runnable, Comparable<ValidationJob> {
+	
+	enum Status {
+		QUEUED, RUNNING, DONE, FAILED
+	}
+	
+	private static final AtomicLong sequence = new AtomicLong();
+	
+	private final long id;
+	private final long order = sequence.getAndIncrement();
+	private final int priority;
+	private final PackageValidationTask task;
+	private final ReportBuffer report = new ReportBuffer();
+	private volatile Status status = Status.QUEUED;
+	private volatile PackageSummary summary;
+	
+	ValidationJob(long id, int priority, PackageValidationTask task) {
+		this.id = id;
+		this.priority = priority;
+		this.task = task;
+		task.setReportOutput(report);
+		task.setCaptureOutput(true);
+	}
+	
+	@Override
+	public void run() {
+		status = Status.RUNNING;
+		try {
+			ImfLogger.getLogger().logInfo("Job %d: validating %s ...", id, task.getPackagePath());
+			ValidationResultList results = task.call();
+			//only the counts are kept, finished jobs are retained until they are evicted
+			summary = new PackageSummary(!results.containsError(), results.getSeverityCounts());
+			status = Status.DONE;
+		} catch (RuntimeException e) {
+			ImfLogger.getLogger().logError("Job %d: validation failed: %s", id, e);
+			ValidationResultList results = new ValidationResultList();
+			results.add(new ValidationResult(true, String.valueOf(e)));
+			summary = new PackageSummary(false, results.getSeverityCounts());
+			status = Status.FAILED;
+		} finally {
+			report.finish();
+			ImfLogger.getLogger().logCapturedOutput(task.getOutput());
+			ImfLogger.getLogger().logInfo("Job %d: %s %s", id, status, task.getPackagePath());
+		}
+	}
+	
+	@Override
+	public int compareTo(ValidationJob other) {
+		if (priority != other.priority) {
+			return priority > other.priority ? -1 : 1;
+		}
+		return order < other.order ? -1 : (order == other.order ? 0 : 1);
+	}
+	
+	long getId() {
+		return id;
+	}
+	
+	Status getStatus() {
+		return status;
+	}
+	
+	boolean isFinished() {
+		return status == Status.DONE || status == Status.FAILED;
+	}
+	
+	/**
+	 * Get status of the job as a JSON object, counts and validity are given once the job is finished
+	 * @return JSON text
+	 */
+	String toJson() {
+		StringBuilder json = new StringBuilder(256);
+		json.append("{\"id\":").append(id);
+		json.append(",\"package\":");
+		ValidationReportWriter.appendJsonString(json, task.getPackagePath());
+		json.append(",\"priority\":").append(priority);
+		json.append(",\"status\":\"").append(status).append('"');
+		PackageSummary jobSummary = summary;
+		if (isFinished() && jobSummary != null) {
+			json.append(",\"valid\":").append(jobSummary.isValid);
+			json.append(",\"elapsedMs\":").append(task.getElapsedMillis());
+			for (Map.Entry<ValidationSeverity, Integer> entry : jobSummary.severityCounts.entrySet()) {
+				json.append(",\"").append(entry.getKey().name().toLowerCase()).append("\":").append(entry.getValue());
+			}
+		}
+		return json.append('}').toString();
+	}
+	
+	/**
+	 * Write the report from its beginning, returns once the job is finished and the whole report is written
+	 * @param outputStream
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	void writeReport(OutputStream outputStream) throws IOException, InterruptedException {
+		report.writeTo(outputStream);
+	}
+	
+	/**
+	 * Report stream growing while validation runs, readers wait for new lines until it is closed
+	 */
+	private static class ReportBuffer extends OutputStream {
+		
+		private byte[] data = new byte[4096];
+		private int size;
+		private boolean closed;
+		
+		@Override
+		public synchronized void write(int b) {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+		
+		@Override
+		public synchronized void write(byte[] bytes, int offset, int length) {
+			if (size + length > data.length) {
+				data = Arrays.copyOf(data, Math.max(data.length * 2, size + length));
+			}
+			System.arraycopy(bytes, offset, data, size, length);
+			size += length;
+			notifyAll();
+		}
+		
+		/**
+		 * Closed by the report writer, readers keep waiting until the job status is updated
+		 */
+		@Override
+		public void close() {
+		}
+		
+		synchronized void finish() {
+			closed = true;
+			notifyAll();
+		}
+		
+		void writeTo(OutputStream outputStream) throws IOException, InterruptedException {
+			int written = 0;
+			while (true) {
+				byte[] chunk;
+				int end;
+				boolean isLast;
+				synchronized (this) {
+					while (written == size && !closed) {
+						wait();
+					}
+					chunk = data;
+					end = size;
+					isLast = closed;
+				}
+				//bytes below size are never modified, they are written without holding the lock
+				outputStream.write(chunk, written, end - written);
+				outputStream.flush();
+				written = end;
+				if (isLast) {
+					return;
+				}
+			}
+		}
+	}
+}
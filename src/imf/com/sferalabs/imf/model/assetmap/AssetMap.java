@@ -36,11 +36,15 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
 
 import com.sferalabs.imf.model.imfpackage.ImfPackage;
@@ -77,6 +81,13 @@ public class AssetMap {
 	private List<Asset> assetList;
 	
 	private ImfPackage imfPackage;
+	
+	/** Assets of assetList by uuid, first occurrence wins */
+	@XmlTransient
+	private Map<String, Asset> assetIndex = new HashMap<String, Asset>();
+	/** Resolved absolute resource path by asset uuid, null value if resource is missing */
+	@XmlTransient
+	private volatile Map<String, String> resourcePathIndex;
 
 	/**
 	 * @return the imfPackage
@@ -90,6 +101,7 @@ public class AssetMap {
 	 */
 	public final void setImfPackage(ImfPackage imfPackage) {
 		this.imfPackage = imfPackage;
+		this.resourcePathIndex = null;
 	}
 
 	/**
@@ -207,6 +219,16 @@ public class AssetMap {
 	 */
 	public final void setAssetList(List<Asset> assetList) {
 		this.assetList = assetList;
+		Map<String, Asset> index = new HashMap<String, Asset>();
+		if (assetList != null) {
+			for (Asset asset : assetList) {
+				if (asset.getUuid() != null && !index.containsKey(asset.getUuid())) {
+					index.put(asset.getUuid(), asset);
+				}
+			}
+		}
+		this.assetIndex = index;
+		this.resourcePathIndex = null;
 	}
 
 	/**
@@ -241,6 +263,16 @@ public class AssetMap {
 		return uuids;
 	}
 
+	/**
+	 * Check if uuid is the ASSETMAP uuid or the uuid of one of its assets
+	 * 
+	 * @param uuid
+	 * @return true if uuid is found
+	 */
+	public final boolean containsUuid(String uuid) {
+		return uuid != null && (uuid.equals(this.uuid) || assetIndex.containsKey(uuid));
+	}
+
 	/**
 	 * Get all chunk items
 	 * 
@@ -270,15 +302,7 @@ public class AssetMap {
 	 * @return asset, null if asset is not found
 	 */
 	public final Asset getAssetByUuid(String uuid) {
-		if (assetList != null) {
-			for (Asset asset : assetList) {
-				if (asset.getUuid() != null) {
-					if (uuid.equals(asset.getUuid()))
-						return asset;
-				}
-			}
-		}
-		return null;
+		return assetIndex.get(uuid);
 	}
 
 	/**
@@ -328,38 +352,64 @@ public class AssetMap {
 		return assets;
 	}
 	/**
-	 * Get asset resource path based on given uuid
+	 * Get asset resource path based on given uuid. All asset paths are resolved on first call
+	 * against a single listing of the package and its dependent packages.
+	 * 
 	 * @param uuid
-	 * @return asset resource path
+	 * @return asset resource path, null if asset or resource is not found
 	 */
 	public final String getAssetResourcePath(String uuid) {
 		
 		if (imfPackage == null)
 			return null;
 		
-		Asset asset = getAssetByUuid(uuid);
-		//looking for asset in package
-		String assetPath = asset.getChunkList().get(0).getPath();
-		String packagePath = imfPackage.getPackagePath();
-		
-		Path itempath = new File(packagePath).toPath().resolve(assetPath);
-		
-		if (Files.exists(itempath)) {
-			return itempath.toAbsolutePath().toString();
+		Map<String, String> index = resourcePathIndex;
+		if (index == null) {
+			index = buildResourcePathIndex();
+		}
+		return index.get(uuid);
+	}
+	
+	private synchronized Map<String, String> buildResourcePathIndex() {
+		if (resourcePathIndex != null) {
+			return resourcePathIndex;
 		}
 		
+		List<String> packagePaths = new ArrayList<String>();
+		packagePaths.add(imfPackage.getPackagePath());
 		//looking into supplemental packages
-		if (!imfPackage.isFinalPackage()) {
-			if (imfPackage.getDependentPackageList() != null) {
-				for (String supplementalPackagePath : imfPackage.getDependentPackageList()) {
-					itempath = new File(supplementalPackagePath).toPath().resolve(assetPath);
-					if (Files.exists(itempath)) {
-						return itempath.toAbsolutePath().toString();
-					}
-				}
-			}
+		if (!imfPackage.isFinalPackage() && imfPackage.getDependentPackageList() != null) {
+			packagePaths.addAll(imfPackage.getDependentPackageList());
 		}
+		Set<Path> packageFiles = imfPackage.getPackageFiles();
 		
+		Map<String, String> index = new HashMap<String, String>();
+		for (Map.Entry<String, Asset> entry : assetIndex.entrySet()) {
+			List<Chunk> chunks = entry.getValue().getChunkList();
+			String resourcePath = null;
+			if (chunks != null && chunks.size() > 0 && chunks.get(0).getPath() != null) {
+				resourcePath = resolveResourcePath(chunks.get(0).getPath(), packagePaths, packageFiles);
+			}
+			index.put(entry.getKey(), resourcePath);
+		}
+		resourcePathIndex = index;
+		return index;
+	}
+	
+	private static String resolveResourcePath(String assetPath, List<String> packagePaths, Set<Path> packageFiles) {
+		for (String packagePath : packagePaths) {
+			Path itempath = new File(packagePath).toPath().resolve(assetPath).toAbsolutePath();
+			if (packageFiles.contains(itempath.normalize())) {
+				return itempath.toString();
+			}
+		}
+		//not in the listing, e.g. unreadable folder or case insensitive file system
+		for (String packagePath : packagePaths) {
+			Path itempath = new File(packagePath).toPath().resolve(assetPath);
+			if (Files.exists(itempath)) {
+				return itempath.toAbsolutePath().toString();
+			}
+		}
 		return null;
 	}
 }
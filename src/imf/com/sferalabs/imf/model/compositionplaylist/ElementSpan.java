@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.model.compositionplaylist;
+
+import java.util.Map;
+
+/**
+ * ElementSpan class locates an element in its document so that it can be read later instead
+ * of being parsed with the document. Positions are line and column numbers as reported by the
+ * parser: the start position follows the start tag, the end position follows the end tag.
+ */
+public class ElementSpan {
+	
+	private String systemId;
+	private String encoding;
+	private String qName;
+	private int startLine;
+	private int startColumn;
+	private int endLine;
+	private int endColumn;
+	private Map<String, String> namespaces;
+	private Map<String, String> attributes;
+	
+	/**
+	 * @return the systemId of the document
+	 */
+	public final String getSystemId() {
+		return systemId;
+	}
+	
+	/**
+	 * @param systemId the systemId to set
+	 */
+	public final void setSystemId(String systemId) {
+		this.systemId = systemId;
+	}
+	
+	/**
+	 * @return the encoding of the document, null if unknown
+	 */
+	public final String getEncoding() {
+		return encoding;
+	}
+	
+	/**
+	 * @param encoding the encoding to set
+	 */
+	public final void setEncoding(String encoding) {
+		this.encoding = encoding;
+	}
+	
+	/**
+	 * @return the qualified name of the element
+	 */
+	public final String getQName() {
+		return qName;
+	}
+	
+	/**
+	 * @param qName the qName to set
+	 */
+	public final void setQName(String qName) {
+		this.qName = qName;
+	}
+	
+	/**
+	 * @return the line following the start tag
+	 */
+	public final int getStartLine() {
+		return startLine;
+	}
+	
+	/**
+	 * @return the column following the start tag
+	 */
+	public final int getStartColumn() {
+		return startColumn;
+	}
+	
+	/**
+	 * @param line the line following the start tag
+	 * @param column the column following the start tag
+	 */
+	public final void setStart(int line, int column) {
+		this.startLine = line;
+		this.startColumn = column;
+	}
+	
+	/**
+	 * @return the line following the end tag
+	 */
+	public final int getEndLine() {
+		return endLine;
+	}
+	
+	/**
+	 * @return the column following the end tag
+	 */
+	public final int getEndColumn() {
+		return endColumn;
+	}
+	
+	/**
+	 * @param line the line following the end tag
+	 * @param column the column following the end tag
+	 */
+	public final void setEnd(int line, int column) {
+		this.endLine = line;
+		this.endColumn = column;
+	}
+	
+	/**
+	 * @return namespaces in scope of the element by prefix, empty prefix for the default namespace
+	 */
+	public final Map<String, String> getNamespaces() {
+		return namespaces;
+	}
+	
+	/**
+	 * @param namespaces the namespaces to set
+	 */
+	public final void setNamespaces(Map<String, String> namespaces) {
+		this.namespaces = namespaces;
+	}
+	
+	/**
+	 * @return attributes of the element by qualified name
+	 */
+	public final Map<String, String> getAttributes() {
+		return attributes;
+	}
+	
+	/**
+	 * @param attributes the attributes to set
+	 */
+	public final void setAttributes(Map<String, String> attributes) {
+		this.attributes = attributes;
+	}
+}
@@ -39,6 +39,7 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
 
 /**
@@ -55,6 +56,8 @@ public class EssenceDescriptor {
 	private String id;
     @XmlAnyElement(lax = true)
     private List<Object> any;
+    @XmlTransient
+    private ElementSpan span;
 
 	/**
 	 * @return the id
@@ -70,6 +73,20 @@ public class EssenceDescriptor {
 		this.id = id;
 	}
 	
+	/**
+	 * @return location of the descriptor in the CPL, null if the descriptor was not read from a CPL
+	 */
+	public final ElementSpan getSpan() {
+		return span;
+	}
+	
+	/**
+	 * @param span location of the descriptor in the CPL, its content is not parsed with the CPL
+	 */
+	public final void setSpan(ElementSpan span) {
+		this.span = span;
+	}
+	
 	/**
 	 * Gets the value of the any property
 	 * @return a reference to the live list
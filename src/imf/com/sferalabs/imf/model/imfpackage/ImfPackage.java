@@ -32,7 +32,18 @@
  */
 package com.sferalabs.imf.model.imfpackage;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Package class
@@ -42,6 +53,7 @@ public class ImfPackage {
 	private boolean isFinalPackage;
 	private List<String> dependentPackagePaths;
 	private String packagePath;
+	private Set<Path> packageFiles;
 	
 	public ImfPackage(String packagePath) {
 		this.packagePath = packagePath;
@@ -60,6 +72,7 @@ public class ImfPackage {
 	 */
 	public final void setPackagePath(String packagePath) {
 		this.packagePath = packagePath;
+		this.packageFiles = null;
 	}
 
 	/**
@@ -84,5 +97,56 @@ public class ImfPackage {
 		if (dependentPackagePaths.size() > 0) {
 			this.isFinalPackage = false;
 		}
+		this.packageFiles = null;
+	}
+
+	/**
+	 * Get a snapshot of the files and folders of the package and its dependent packages.
+	 * The folders are listed once, on first call, following symbolic links. Entries of
+	 * unreadable folders are not part of the snapshot.
+	 * 
+	 * @return absolute normalized paths
+	 */
+	public final synchronized Set<Path> getPackageFiles() {
+		if (packageFiles == null) {
+			Set<Path> files = new HashSet<Path>();
+			listFiles(packagePath, files);
+			if (dependentPackagePaths != null) {
+				for (String dependentPackagePath : dependentPackagePaths) {
+					listFiles(dependentPackagePath, files);
+				}
+			}
+			packageFiles = files;
+		}
+		return packageFiles;
+	}
+
+	private static void listFiles(String folderPath, final Set<Path> files) {
+		if (folderPath == null) {
+			return;
+		}
+		try {
+			Path folder = new File(folderPath).toPath().toAbsolutePath().normalize();
+			Files.walkFileTree(folder, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					files.add(dir);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					files.add(file);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e) {
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			//paths missing from the snapshot are probed one by one
+		}
 	}
 }
@@ -33,12 +33,15 @@
 package com.sferalabs.imf.model.packinglist;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
 
 /**
@@ -76,6 +79,10 @@ public class PackingList {
 	private String groupId;
 	@XmlElement(name = "AssetList", required = true)
 	private List<PackingAsset> assetList;
+	
+	/** Assets of assetList by uuid, first occurrence wins */
+	@XmlTransient
+	private Map<String, PackingAsset> assetIndex = new HashMap<String, PackingAsset>();
 
 	/**
 	 * @return the uuid
@@ -195,6 +202,15 @@ public class PackingList {
 	 */
 	public final void setAssetList(List<PackingAsset> assetList) {
 		this.assetList = assetList;
+		Map<String, PackingAsset> index = new HashMap<String, PackingAsset>();
+		if (assetList != null) {
+			for (PackingAsset asset : assetList) {
+				if (asset.getUuid() != null && !index.containsKey(asset.getUuid())) {
+					index.put(asset.getUuid(), asset);
+				}
+			}
+		}
+		this.assetIndex = index;
 	}
 
 	/**
@@ -218,6 +234,17 @@ public class PackingList {
 		}
 		return uuids;
 	}
+
+	/**
+	 * Check if uuid is the PackingList uuid or the uuid of one of its assets
+	 * 
+	 * @param uuid
+	 * @return true if uuid is found
+	 */
+	public final boolean containsUuid(String uuid) {
+		return uuid != null && (uuid.equals(this.uuid) || assetIndex.containsKey(uuid));
+	}
+
 	/**
 	 * Get packing asset by uuid
 	 * 
@@ -225,14 +252,6 @@ public class PackingList {
 	 * @return packing asset, null if packing asset is not found
 	 */
 	public final PackingAsset getPackingAssetByUuid(String uuid) {
-		if (assetList != null) {
-			for (PackingAsset asset : assetList) {
-				if (asset.getUuid() != null) {
-					if (uuid.equals(asset.getUuid()))
-						return asset;
-				}
-			}
-		}
-		return null;
+		return assetIndex.get(uuid);
 	}
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.saxhandler;
+
+import com.sferalabs.imf.exception.ImfXmlException;
+import com.sferalabs.imf.model.compositionplaylist.BaseResource;
+import com.sferalabs.imf.model.compositionplaylist.CompositionPlaylist;
+import com.sferalabs.imf.model.compositionplaylist.Segment;
+import com.sferalabs.imf.model.compositionplaylist.Sequence;
+
+/**
+ * Receives parts of a CPL in document order from {@link StaxCompositionPlaylistReader}
+ */
+public interface CompositionPlaylistListener {
+	
+	/**
+	 * Called when elements preceding SegmentList are read
+	 * @param compositionPlaylist CPL without segments
+	 * @throws ImfXmlException
+	 */
+	void compositionPlaylist(CompositionPlaylist compositionPlaylist) throws ImfXmlException;
+	
+	/**
+	 * Called when elements of a segment preceding SequenceList are read
+	 * @param segment segment without sequences
+	 * @throws ImfXmlException
+	 */
+	void segment(Segment segment) throws ImfXmlException;
+	
+	/**
+	 * Called when elements of a sequence preceding ResourceList are read
+	 * @param sequence sequence without resources
+	 * @throws ImfXmlException
+	 */
+	void sequence(Sequence sequence) throws ImfXmlException;
+	
+	/**
+	 * Called when a resource is read
+	 * @param resource
+	 * @throws ImfXmlException
+	 */
+	void resource(BaseResource resource) throws ImfXmlException;
+	
+	/**
+	 * Called at the end of a segment
+	 * @param segment segment with its sequences, resources of the sequences are not kept
+	 * @throws ImfXmlException
+	 */
+	void endSegment(Segment segment) throws ImfXmlException;
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.saxhandler;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import com.sferalabs.imf.model.compositionplaylist.ElementSpan;
+
+/**
+ * Read an element skipped by a parser from its span in the source document
+ */
+public final class ElementSpanReader {
+	
+	private static final String DEFAULT_ENCODING = "UTF-8";
+	private static final char BYTE_ORDER_MARK = '\uFEFF';
+	
+	private ElementSpanReader() {
+	}
+	
+	/**
+	 * Parse the element of given span, namespaces declared on its ancestors are declared on the element
+	 * @param span span of the element
+	 * @return element read from the source document
+	 * @throws IOException if the source document can't be read
+	 * @throws ParserConfigurationException
+	 * @throws SAXException if the element is malformed
+	 */
+	public static Element read(ElementSpan span) throws IOException, ParserConfigurationException, SAXException {
+		StringBuilder xml = new StringBuilder();
+		xml.append('<').append(span.getQName());
+		for (Map.Entry<String, String> namespace : span.getNamespaces().entrySet()) {
+			xml.append(namespace.getKey().isEmpty() ? " xmlns" : " xmlns:" + namespace.getKey());
+			appendAttributeValue(xml, namespace.getValue());
+		}
+		for (Map.Entry<String, String> attribute : span.getAttributes().entrySet()) {
+			xml.append(' ').append(attribute.getKey());
+			appendAttributeValue(xml, attribute.getValue());
+		}
+		String content = readContent(span);
+		if (content.isEmpty()) {
+			xml.append("/>");
+		} else {
+			xml.append('>').append(content).append("</").append(span.getQName()).append('>');
+		}
+		
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		factory.setExpandEntityReferences(false);
+		DocumentBuilder builder = factory.newDocumentBuilder();
+		InputSource source = new InputSource(new StringReader(xml.toString()));
+		source.setSystemId(span.getSystemId());
+		return builder.parse(source).getDocumentElement();
+	}
+	
+	/**
+	 * Read characters between the start tag and the end tag of the span
+	 */
+	private static String readContent(ElementSpan span) throws IOException {
+		File file;
+		try {
+			file = new File(new URI(span.getSystemId()));
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			throw new IOException("Invalid system id " + span.getSystemId(), e);
+		}
+		String encoding = span.getEncoding() == null ? DEFAULT_ENCODING : span.getEncoding();
+		StringBuilder content = new StringBuilder();
+		try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), encoding))) {
+			//positions are counted as the parsers do, a line break is \n, \r\n or \r
+			int line = 1;
+			int column = 1;
+			boolean isAfterCarriageReturn = false;
+			boolean isFirst = true;
+			int c;
+			while ((c = reader.read()) != -1) {
+				if (isFirst) {
+					isFirst = false;
+					if (c == BYTE_ORDER_MARK) {
+						continue;
+					}
+				}
+				if (c == '\n' && isAfterCarriageReturn) {
+					content.append((char) c);
+					isAfterCarriageReturn = false;
+					continue;
+				}
+				if (isBefore(line, column, span.getEndLine(), span.getEndColumn())) {
+					if (!isBefore(line, column, span.getStartLine(), span.getStartColumn())) {
+						content.append((char) c);
+					}
+				} else {
+					break;
+				}
+				isAfterCarriageReturn = c == '\r';
+				if (c == '\n' || c == '\r') {
+					line++;
+					column = 1;
+				} else {
+					column++;
+				}
+			}
+		}
+		//content ends with the end tag, an element written as an empty tag has no content
+		int endTag = content.lastIndexOf("</");
+		return endTag < 0 ? "" : content.substring(0, endTag);
+	}
+	
+	private static boolean isBefore(int line, int column, int otherLine, int otherColumn) {
+		return line < otherLine || (line == otherLine && column < otherColumn);
+	}
+	
+	private static void appendAttributeValue(StringBuilder xml, String value) {
+		xml.append("=\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '&':
+					xml.append("&amp;");
+					break;
+				case '<':
+					xml.append("&lt;");
+					break;
+				case '"':
+					xml.append("&quot;");
+					break;
+				case '\t':
+					xml.append("&#9;");
+					break;
+				case '\n':
+					xml.append("&#10;");
+					break;
+				case '\r':
+					xml.append("&#13;");
+					break;
+				default:
+					xml.append(c);
+					break;
+			}
+		}
+		xml.append('"');
+	}
+}
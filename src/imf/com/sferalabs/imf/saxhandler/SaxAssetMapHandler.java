@@ -33,7 +33,9 @@
 package com.sferalabs.imf.saxhandler;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -51,6 +53,38 @@ public class SaxAssetMapHandler extends DefaultHandler {
 	enum AssetXmlNode {
 		ROOT, ASSETMAP, ASSET, CHUNK
 	}
+	
+	/**
+	 * Elements handled by the parser, looked up by local name
+	 */
+	enum AssetMapElement {
+		ASSETMAP("AssetMap"), ASSETLIST("AssetList"), ASSET("Asset"),
+		CHUNKLIST("ChunkList"), CHUNK("Chunk"), ID("Id"), ANNOTATIONTEXT("AnnotationText"),
+		CREATOR("Creator"), VOLUMECOUNT("VolumeCount"), ISSUEDATE("IssueDate"), ISSUER("Issuer"),
+		PACKINGLIST("PackingList"), PATH("Path"), VOLUMEINDEX("VolumeIndex"),
+		OFFSET("Offset"), LENGTH("Length"), OTHER(null);
+		
+		private static final Map<String, AssetMapElement> elements = new HashMap<String, AssetMapElement>();
+		
+		static {
+			for (AssetMapElement element : values()) {
+				if (element.localName != null) {
+					elements.put(element.localName, element);
+				}
+			}
+		}
+		
+		private final String localName;
+		
+		private AssetMapElement(String localName) {
+			this.localName = localName;
+		}
+		
+		static AssetMapElement forName(String localName, String qName) {
+			AssetMapElement element = elements.get(XmlNames.localName(localName, qName));
+			return element == null ? OTHER : element;
+		}
+	}
 
 	private AssetXmlNode node = AssetXmlNode.ROOT;
 	private boolean isAssetMapInitialized;
@@ -59,12 +93,13 @@ public class SaxAssetMapHandler extends DefaultHandler {
 	private List<Chunk> chunkList;
 	private Asset asset;
 	private Chunk chunk;
-	private String content;
+	private final ElementText text = new ElementText();
 	
 	@Override
 	public void startElement(String uri, String localName, String qName, Attributes attributes)
 			throws SAXException {
-		qName = qName.toLowerCase();
+		AssetMapElement element = AssetMapElement.forName(localName, qName);
+		text.clear();
 		
 		//Check that there's only one AssetMap node in the xml document
 		if (isAssetMapInitialized) {
@@ -73,27 +108,27 @@ public class SaxAssetMapHandler extends DefaultHandler {
 		
 		if (node == AssetXmlNode.ROOT) {
 			//first element of schema should be AssetMap
-			if (!qName.equals("assetmap")) {
+			if (element != AssetMapElement.ASSETMAP) {
 				throw new SAXException("Invalid xml file, AssetMap should be the first node");
 			}
 		}
 		
-		switch (qName) {
-			case "assetmap":
+		switch (element) {
+			case ASSETMAP:
 				assetMap = new AssetMap();
 				node = AssetXmlNode.ASSETMAP;
 				break;
-			case "assetlist":
+			case ASSETLIST:
 				assetList = new ArrayList<Asset>();
 				break;
-			case "asset":
+			case ASSET:
 				asset = new Asset();
 				node = AssetXmlNode.ASSET;
 				break;
-			case "chunklist":
+			case CHUNKLIST:
 				chunkList = new ArrayList<Chunk>();
 				break;
-			case "chunk":
+			case CHUNK:
 				chunk = new Chunk();
 				node = AssetXmlNode.CHUNK;
 				break;
@@ -105,27 +140,27 @@ public class SaxAssetMapHandler extends DefaultHandler {
 	@Override
 	public void endElement(String uri, String localName, String qName)
 			throws SAXException {
-		qName = qName.toLowerCase();
-		switch (qName) {
-			case "assetmap":
+		AssetMapElement element = AssetMapElement.forName(localName, qName);
+		switch (element) {
+			case ASSETMAP:
 				isAssetMapInitialized = true;
 				break;
-			case "assetlist":
+			case ASSETLIST:
 				if (assetList != null)
 					assetMap.setAssetList(assetList);
 				assetList = null;
 				break;
-			case "asset":
+			case ASSET:
 				if (asset != null)
 					assetList.add(asset);
 				asset = null;
 				break;
-			case "chunklist":
+			case CHUNKLIST:
 				if (chunkList != null)
 					asset.setChunkList(chunkList);
 				chunkList = null;
 				break;
-			case "chunk":
+			case CHUNK:
 				if (chunk != null)
 					chunkList.add(chunk);
 				chunk = null;
@@ -133,57 +168,57 @@ public class SaxAssetMapHandler extends DefaultHandler {
 			default:
 				switch (node) {
 					case ASSETMAP:
-						switch (qName) {
-							case "id":
-								assetMap.setUuid(content);
+						switch (element) {
+							case ID:
+								assetMap.setUuid(text.toString());
 								break;
-							case "annotationtext":
-								assetMap.setAnnotation(content);
+							case ANNOTATIONTEXT:
+								assetMap.setAnnotation(text.toString());
 								break;
-							case "creator":
-								assetMap.setCreator(content);
+							case CREATOR:
+								assetMap.setCreator(text.toString());
 								break;
-							case "volumecount":
-								assetMap.setVolumnCount(Long.valueOf(content));
+							case VOLUMECOUNT:
+								assetMap.setVolumnCount(Long.valueOf(text.toString()));
 								break;
-							case "issuedate":
-								assetMap.setIssueDate(content);
+							case ISSUEDATE:
+								assetMap.setIssueDate(text.toString());
 								break;
-							case "issuer":
-								assetMap.setIssuer(content);
+							case ISSUER:
+								assetMap.setIssuer(text.toString());
 								break;
 							default:
 								break;
 						}
 						break;
 					case ASSET:
-						switch (qName) {
-							case "id":
-								asset.setUuid(content);
+						switch (element) {
+							case ID:
+								asset.setUuid(text.toString());
 								break;
-							case "annotationtext":
-								asset.setAnnotation(content);
+							case ANNOTATIONTEXT:
+								asset.setAnnotation(text.toString());
 								break;
-							case "packinglist":
-								asset.setPackingList(Boolean.valueOf(content));
+							case PACKINGLIST:
+								asset.setPackingList(Boolean.valueOf(text.toString()));
 								break;
 							default:
 								break;
 						}
 						break;
 					case CHUNK:
-						switch (qName) {
-							case "path":
-								chunk.setPath(content);
+						switch (element) {
+							case PATH:
+								chunk.setPath(text.toString());
 								break;
-							case "volumeindex":
-								chunk.setVolumeIndex(Long.valueOf(content));
+							case VOLUMEINDEX:
+								chunk.setVolumeIndex(Long.valueOf(text.toString()));
 								break;
-							case "offset":
-								chunk.setOffset(Long.valueOf(content));
+							case OFFSET:
+								chunk.setOffset(Long.valueOf(text.toString()));
 								break;
-							case "length":
-								chunk.setLength(Long.valueOf(content));
+							case LENGTH:
+								chunk.setLength(Long.valueOf(text.toString()));
 								break;
 							default:
 								break;
@@ -194,11 +229,12 @@ public class SaxAssetMapHandler extends DefaultHandler {
 				}
 				break;
 		}
+		text.clear();
 	}
 	
 	@Override
 	public void characters(char[] ch, int start, int length) throws SAXException {
-		content = String.copyValueOf(ch, start, length).trim();
+		text.append(ch, start, length);
 	}
 	
 	/**
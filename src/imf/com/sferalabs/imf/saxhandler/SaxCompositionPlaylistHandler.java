@@ -34,10 +34,15 @@ package com.sferalabs.imf.saxhandler;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
+import org.xml.sax.ext.Locator2;
 import org.xml.sax.helpers.DefaultHandler;
 
 import com.sferalabs.imf.model.compositionplaylist.ApplicationIdentification;
@@ -47,6 +52,7 @@ import com.sferalabs.imf.model.compositionplaylist.CompositionTimecode;
 import com.sferalabs.imf.model.compositionplaylist.ContentKind;
 import com.sferalabs.imf.model.compositionplaylist.ContentMaturityRating;
 import com.sferalabs.imf.model.compositionplaylist.ContentVersion;
+import com.sferalabs.imf.model.compositionplaylist.ElementSpan;
 import com.sferalabs.imf.model.compositionplaylist.EssenceDescriptor;
 import com.sferalabs.imf.model.compositionplaylist.ExtensionProperties;
 import com.sferalabs.imf.model.compositionplaylist.Locale;
@@ -59,7 +65,8 @@ import com.sferalabs.imf.model.compositionplaylist.StereoImageTrackFileResource;
 import com.sferalabs.imf.model.compositionplaylist.TrackFileResource;
 
 /**
- * SaxCompositionPlaylistHandler class
+ * SaxCompositionPlaylistHandler class. Content of essence descriptors and of unknown extension
+ * properties is skipped, the span of each essence descriptor is kept to read it when needed.
  */
 public class SaxCompositionPlaylistHandler extends DefaultHandler {
 
@@ -71,8 +78,95 @@ public class SaxCompositionPlaylistHandler extends DefaultHandler {
 		MARKERRESOURCE, MARKER, LEFTEYERESOURCE, RIGHTEYERESOURCE, BASERESOURCE
 	}
 	
+	/**
+	 * Elements handled by the parser, looked up by local name
+	 */
+	enum CompositionPlaylistElement {
+		COMPOSITIONPLAYLIST("CompositionPlaylist"), CONTENTVERSIONLIST("ContentVersionList"),
+		ESSENCEDESCRIPTORLIST("EssenceDescriptorList"), COMPOSITIONTIMECODE("CompositionTimecode"),
+		LOCALELIST("LocaleList"), EXTENSIONPROPERTIES("ExtensionProperties"), SEGMENTLIST("SegmentList"),
+		ESSENCEDESCRIPTOR("EssenceDescriptor"), CONTENTKIND("ContentKind"), CONTENTVERSION("ContentVersion"),
+		LOCALE("Locale"), SEGMENT("Segment"), APPLICATIONIDENTIFICATION("ApplicationIdentification"),
+		LANGUAGELIST("LanguageList"), REGIONLIST("RegionList"),
+		CONTENTMATURITYRATINGLIST("ContentMaturityRatingList"), CONTENTMATURITYRATING("ContentMaturityRating"),
+		SEQUENCELIST("SequenceList"), MARKERSEQUENCE("MarkerSequence"),
+		MAINIMAGESEQUENCE("MainImageSequence"), MAINAUDIOSEQUENCE("MainAudioSequence"),
+		SUBTITLESSEQUENCE("SubtitlesSequence"), HEARINGIMPAIREDCAPTIONSSEQUENCE("HearingImpairedCaptionsSequence"),
+		VISUALLYIMPAIREDTEXTSEQUENCE("VisuallyImpairedTextSequence"), COMMENTARYSEQUENCE("CommentarySequence"),
+		KARAOKESEQUENCE("KaraokeSequence"), RESOURCELIST("ResourceList"), RESOURCE("Resource"), MARKER("Marker"),
+		ID("Id"), ANNOTATION("Annotation"), ISSUEDATE("IssueDate"), ISSUER("Issuer"), CREATOR("Creator"),
+		CONTENTORIGINATOR("ContentOriginator"), CONTENTTITLE("ContentTitle"), EDITRATE("EditRate"),
+		TOTALRUNNINGTIME("TotalRunningTime"), TIMECODEDROPFRAME("TimecodeDropFrame"),
+		TIMECODERATE("TimecodeRate"), TIMECODESTARTADDRESS("TimecodeStartAddress"), LABELTEXT("LabelText"),
+		AGENCY("Agency"), RATING("Rating"), AUDIENCE("Audience"), TRACKID("TrackId"),
+		SOURCEENCODING("SourceEncoding"), TRACKFILEID("TrackFileId"), KEYID("KeyId"), HASH("Hash"),
+		INTRINSICDURATION("IntrinsicDuration"), ENTRYPOINT("EntryPoint"), SOURCEDURATION("SourceDuration"),
+		REPEATCOUNT("RepeatCount"), OTHER(null);
+		
+		private static final Map<String, CompositionPlaylistElement> elements =
+				new HashMap<String, CompositionPlaylistElement>();
+		
+		static {
+			for (CompositionPlaylistElement element : values()) {
+				if (element.localName != null) {
+					elements.put(element.localName, element);
+				}
+			}
+		}
+		
+		private final String localName;
+		
+		private CompositionPlaylistElement(String localName) {
+			this.localName = localName;
+		}
+		
+		static CompositionPlaylistElement forName(String localName, String qName) {
+			CompositionPlaylistElement element = elements.get(XmlNames.localName(localName, qName));
+			return element == null ? OTHER : element;
+		}
+	}
+	
+	/**
+	 * Resource types, looked up by the local part of xsi:type value
+	 */
+	enum ResourceType {
+		TRACKFILERESOURCETYPE("TrackFileResourceType"), MARKERRESOURCETYPE("MarkerResourceType"),
+		STEREOIMAGETRACKFILERESOURCETYPE("StereoImageTrackFileResourceType"),
+		LEFTEYE("LeftEye"), RIGHTEYE("RightEye"), OTHER(null);
+		
+		private static final Map<String, ResourceType> types = new HashMap<String, ResourceType>();
+		
+		static {
+			for (ResourceType type : values()) {
+				if (type.localName != null) {
+					types.put(type.localName, type);
+				}
+			}
+		}
+		
+		private final String localName;
+		
+		private ResourceType(String localName) {
+			this.localName = localName;
+		}
+		
+		static ResourceType forName(String type) {
+			ResourceType resourceType = types.get(XmlNames.stripPrefix(type));
+			return resourceType == null ? OTHER : resourceType;
+		}
+	}
+	
 	private boolean isCompositionPlaylistInitialized;
-	private String content;
+	private final ElementText text = new ElementText();
+	private Locator locator;
+	/** Namespace declarations in scope, prefix and uri pairs in declaration order */
+	private final List<String> prefixMappings = new ArrayList<String>();
+	/** Depth of current element, the root is at depth 1 */
+	private int depth;
+	/** Depth of skipped elements, 0 when elements are handled */
+	private int skipDepth;
+	/** Depth of the essence descriptor or extension properties whose children are skipped */
+	private int skippingParentDepth;
 	private ComposistionPlaylistXmlNode node = ComposistionPlaylistXmlNode.ROOT;
 	
 	//CompositionPlaylist variables
@@ -127,7 +221,22 @@ public class SaxCompositionPlaylistHandler extends DefaultHandler {
 	@Override
 	public void startElement(String uri, String localName, String qName, Attributes attributes)
 			throws SAXException {
-		qName = qName.toLowerCase();
+		if (skipDepth > 0) {
+			skipDepth++;
+			return;
+		}
+		CompositionPlaylistElement element = CompositionPlaylistElement.forName(localName, qName);
+		text.clear();
+		depth++;
+		if (skippingParentDepth > 0 && depth == skippingParentDepth + 1) {
+			//only Id of essence descriptors and ApplicationIdentification of extension properties are read
+			if (element != CompositionPlaylistElement.ID
+					&& element != CompositionPlaylistElement.APPLICATIONIDENTIFICATION) {
+				skipDepth = 1;
+				depth--;
+				return;
+			}
+		}
 		
 		//Check that there's only one PackingList node in the xml document
 		if (isCompositionPlaylistInitialized) {
@@ -136,123 +245,125 @@ public class SaxCompositionPlaylistHandler extends DefaultHandler {
 				
 		if (node == ComposistionPlaylistXmlNode.ROOT) {
 			//first element of schema should be CompositionPlaylist
-			if (!qName.equals("compositionplaylist")) {
+			if (element != CompositionPlaylistElement.COMPOSITIONPLAYLIST) {
 				throw new SAXException("Invalid xml file, CompositionPlaylist should be the first node");
 			}
 		}
 				
-		switch (qName) {
-			case "compositionplaylist":
+		switch (element) {
+			case COMPOSITIONPLAYLIST:
 				compositionPlaylist = new CompositionPlaylist();
 				node = ComposistionPlaylistXmlNode.COMPOSITIONPLAYLIST;
 				break;
 			//CompositionPlaylist Child
-			case "contentversionlist":
+			case CONTENTVERSIONLIST:
 				contentVersionList = new ArrayList<ContentVersion>();
 				break;
-			case "essencedescriptorlist":
+			case ESSENCEDESCRIPTORLIST:
 				essenceDescriptorList = new ArrayList<EssenceDescriptor>();
 				break;
-			case "compositiontimecode":
+			case COMPOSITIONTIMECODE:
 				compositionTimecode = new CompositionTimecode();
 				node = ComposistionPlaylistXmlNode.COMPOSITIONTIMECODE;
 				break;
-			case "localelist":
+			case LOCALELIST:
 				localeList = new ArrayList<Locale>();
 				break;
-			case "extensionproperties":
+			case EXTENSIONPROPERTIES:
 				extensionProperties = new ExtensionProperties();
 				node = ComposistionPlaylistXmlNode.EXTENSIONPROPERTIES;
+				skippingParentDepth = depth;
 				break;
-			case "segmentlist":
+			case SEGMENTLIST:
 				segmentList = new ArrayList<Segment>();
 				break;
-			case "essencedescriptor":
+			case ESSENCEDESCRIPTOR:
 				essenceDescriptor = new EssenceDescriptor();
+				essenceDescriptor.setSpan(newSpan(qName, attributes));
 				node = ComposistionPlaylistXmlNode.ESSENCEDESCRIPTOR;
+				skippingParentDepth = depth;
 				break;
-			case "contentkind":
+			case CONTENTKIND:
 				String scope = attributes.getValue("scope");
 				contentKind = new ContentKind();
 				if (scope != null) {
 					contentKind.setScope(scope.toLowerCase());
 				}
 				break;
-			case "contentversion":
+			case CONTENTVERSION:
 				contentVersion = new ContentVersion();
 				node = ComposistionPlaylistXmlNode.CONTENTVERSION;
 				break;
-			case "locale":
+			case LOCALE:
 				locale = new Locale();
 				node = ComposistionPlaylistXmlNode.LOCALE;
 				break;
-			case "segment":
+			case SEGMENT:
 				segment = new Segment();
 				node = ComposistionPlaylistXmlNode.SEGMENT;
 				break;
 			//ExtensionProperties Child
-			case "applicationidentification":
+			case APPLICATIONIDENTIFICATION:
 				applicationIdentification = new ApplicationIdentification();
 				node = ComposistionPlaylistXmlNode.APPLICATIONIDENTIFICATION;
 				break;
 			//Locale Child
-			case "languagelist":
+			case LANGUAGELIST:
 				languageList = new ArrayList<String>();
 				break;
-			case "regionlist":
+			case REGIONLIST:
 				regionList = new ArrayList<String>();
 				break;
-			case "contentmaturityratinglist":
+			case CONTENTMATURITYRATINGLIST:
 				contentMaturityRatingList = new ArrayList<ContentMaturityRating>();
 				break;
-			case "contentmaturityrating":
+			case CONTENTMATURITYRATING:
 				contentMaturityRating = new ContentMaturityRating();
 				node = ComposistionPlaylistXmlNode.CONTENTMATURITYRATING;
 				break;
 			//Segment Child
-			case "sequencelist":
+			case SEQUENCELIST:
 				sequenceList = new ArrayList<Sequence>();
 				break;
-			case "markersequence":
-			case "cc:mainimagesequence":
-			case "cc:mainaudiosequence":
-			case "cc:subtitlessequence":
-			case "cc:hearingimpairedcaptionssequence":
-			case "cc:visuallyimpairedtextsequence":
-			case "cc:commentarysequence":
-			case "cc:karaokesequence":
+			case MARKERSEQUENCE:
+			case MAINIMAGESEQUENCE:
+			case MAINAUDIOSEQUENCE:
+			case SUBTITLESSEQUENCE:
+			case HEARINGIMPAIREDCAPTIONSSEQUENCE:
+			case VISUALLYIMPAIREDTEXTSEQUENCE:
+			case COMMENTARYSEQUENCE:
+			case KARAOKESEQUENCE:
 				sequence = new Sequence();
 				node = ComposistionPlaylistXmlNode.SEQUENCE;
 				break;
 			//Sequence Child
-			case "resourcelist":
+			case RESOURCELIST:
 				resourceList = new ArrayList<BaseResource>();
 				break;
-			case "resource":
-				String type = attributes.getValue("xsi:type");
+			case RESOURCE:
+				String type = attributes.getValue(XmlNames.XSI_NAMESPACE, "type");
 				if (type != null) {
-					type = type.toLowerCase();
-					switch (type) {
-						case "trackfileresourcetype":
+					switch (ResourceType.forName(type)) {
+						case TRACKFILERESOURCETYPE:
 							resource = new TrackFileResource();
 							node = ComposistionPlaylistXmlNode.TRACKFILERESOURCE;
 							break;
-						case "markerresourcetype":
+						case MARKERRESOURCETYPE:
 							resource = new MarkerResource();
 							markers = new ArrayList<Marker>();
 							((MarkerResource) resource).setMarkers(markers);
 							node = ComposistionPlaylistXmlNode.MARKERRESOURCE;
 							break;
-						case "cc:stereoimagetrackfileresourcetype":
+						case STEREOIMAGETRACKFILERESOURCETYPE:
 							resource = new StereoImageTrackFileResource();
 							node = ComposistionPlaylistXmlNode.STEREOIMAGETRACKFILERESOURCE;
 							break;
-						case "lefteye":
+						case LEFTEYE:
 							leftEye = new TrackFileResource();
 							((StereoImageTrackFileResource) resource).setLeftEye(leftEye);
 							node = ComposistionPlaylistXmlNode.LEFTEYERESOURCE;
 							break;
-						case "righteye":
+						case RIGHTEYE:
 							rightEye = new TrackFileResource();
 							((StereoImageTrackFileResource) resource).setLeftEye(rightEye);
 							node = ComposistionPlaylistXmlNode.RIGHTEYERESOURCE;
@@ -267,7 +378,7 @@ public class SaxCompositionPlaylistHandler extends DefaultHandler {
 					node = ComposistionPlaylistXmlNode.BASERESOURCE;
 				}
 				break;
-			case "marker":
+			case MARKER:
 				marker = new Marker();
 				node = ComposistionPlaylistXmlNode.MARKER;
 				break;
@@ -279,330 +390,342 @@ public class SaxCompositionPlaylistHandler extends DefaultHandler {
 	@Override
 	public void endElement(String uri, String localName, String qName)
 			throws SAXException {
-		qName = qName.toLowerCase();
-		switch (qName) {
-			case "compositionplaylist":
+		if (skipDepth > 0) {
+			skipDepth--;
+			return;
+		}
+		CompositionPlaylistElement element = CompositionPlaylistElement.forName(localName, qName);
+		if (depth == skippingParentDepth) {
+			skippingParentDepth = 0;
+		}
+		depth--;
+		switch (element) {
+			case COMPOSITIONPLAYLIST:
 				isCompositionPlaylistInitialized = true;
 				break;
 				//CompositionPlaylist Child
-			case "contentversionlist":
+			case CONTENTVERSIONLIST:
 				compositionPlaylist.setContentVersionList(contentVersionList);
 				break;
-			case "essencedescriptorlist":
+			case ESSENCEDESCRIPTORLIST:
 				compositionPlaylist.setEssenceDescriptorList(essenceDescriptorList);
 				break;
-			case "compositiontimecode":
+			case COMPOSITIONTIMECODE:
 				compositionPlaylist.setCompositionTimecode(compositionTimecode);
 				break;
-			case "localelist":
+			case LOCALELIST:
 				compositionPlaylist.setLocaleList(localeList);
 				break;
-			case "extensionproperties":
+			case EXTENSIONPROPERTIES:
 				compositionPlaylist.setExtensionProperties(extensionProperties);
 				break;
-			case "segmentlist":
+			case SEGMENTLIST:
 				compositionPlaylist.setSegmentList(segmentList);
 				break;
-			case "essencedescriptor":
+			case ESSENCEDESCRIPTOR:
+				if (locator != null) {
+					essenceDescriptor.getSpan().setEnd(locator.getLineNumber(), locator.getColumnNumber());
+				}
 				essenceDescriptorList.add(essenceDescriptor);
 				break;
-			case "locale":
+			case LOCALE:
 				localeList.add(locale);
 				break;
-			case "contentversion":
+			case CONTENTVERSION:
 				contentVersionList.add(contentVersion);
 				break;
-			case "segment":
+			case SEGMENT:
 				segmentList.add(segment);
 				break;
 			//ExtensionProperties Child
-			case "applicationidentification":
-				applicationIdentification.setUriList(new ArrayList<String>(Arrays.asList(content.split(" "))));
+			case APPLICATIONIDENTIFICATION:
+				applicationIdentification.setUriList(new ArrayList<String>(Arrays.asList(text.toString().split(" "))));
 				extensionProperties.setApplicationIdentification(applicationIdentification);
 				break;
 			//Locale Child
-			case "languagelist":
+			case LANGUAGELIST:
 				locale.setLanguageList(languageList);
 				break;
-			case "regionlist":
+			case REGIONLIST:
 				locale.setRegionList(regionList);
 				break;
-			case "contentmaturityratinglist":
+			case CONTENTMATURITYRATINGLIST:
 				locale.setContentMaturityRatingList(contentMaturityRatingList);
 				break;
-			case "contentmaturityrating":
+			case CONTENTMATURITYRATING:
 				contentMaturityRatingList.add(contentMaturityRating);
 				break;
 			//Segment Child
-			case "sequencelist":
+			case SEQUENCELIST:
 				segment.setSequenceList(sequenceList);
 				break;
-			case "markersequence":
+			case MARKERSEQUENCE:
 				sequence.setType(SequenceType.MARKERSEQUENCE);
 				sequenceList.add(sequence);
 				break;
-			case "cc:mainimagesequence":
+			case MAINIMAGESEQUENCE:
 				sequence.setType(SequenceType.MAINIMAGESEQUENCE);
 				sequenceList.add(sequence);
 				break;
-			case "cc:mainaudiosequence":
+			case MAINAUDIOSEQUENCE:
 				sequence.setType(SequenceType.MAINAUDIOSEQUENCE);
 				sequenceList.add(sequence);
 				break;
-			case "cc:subtitlessequence":
+			case SUBTITLESSEQUENCE:
 				sequence.setType(SequenceType.SUBTILESSEQUENCE);
 				sequenceList.add(sequence);
 				break;
-			case "cc:hearingimpairedcaptionssequence":
+			case HEARINGIMPAIREDCAPTIONSSEQUENCE:
 				sequence.setType(SequenceType.HEARINGIMPAIREDCAPTIONSSEQUENCE);
 				sequenceList.add(sequence);
 				break;
-			case "cc:visuallyimpairedtextsequence":
+			case VISUALLYIMPAIREDTEXTSEQUENCE:
 				sequence.setType(SequenceType.VISUALLYIMPAIREDTEXTSEQUENCE);
 				sequenceList.add(sequence);
 				break;
-			case "cc:commentarysequence":
+			case COMMENTARYSEQUENCE:
 				sequence.setType(SequenceType.COMMENTARYSEQUENCE);
 				sequenceList.add(sequence);
 				break;
-			case "cc:karaokesequence":
+			case KARAOKESEQUENCE:
 				sequence.setType(SequenceType.KARAOKESEQUENCE);
 				sequenceList.add(sequence);
 				break;
 			//Sequence Child
-			case "resourcelist":
+			case RESOURCELIST:
 				sequence.setResourceList(resourceList);
 				break;
-			case "resource":
+			case RESOURCE:
 				resourceList.add(resource);
 				break;
-			case "marker":
+			case MARKER:
 				markers.add(marker);
 				break;
 			default:
 				switch (node) {
 					case COMPOSITIONPLAYLIST:
-						setAttributesForCompositionPlaylist(qName);
+						setAttributesForCompositionPlaylist(element);
 						break;
 					case COMPOSITIONTIMECODE:
-						setAttributesForCompositionTimecode(qName);
+						setAttributesForCompositionTimecode(element);
 						break;
 					case EXTENSIONPROPERTIES:
 						//Nothing to do
 						break;
 					case ESSENCEDESCRIPTOR:
-						setAttributesForEssenceDescriptor(qName);
+						setAttributesForEssenceDescriptor(element);
 						break;
 					case LOCALE:
-						setAttributesForLocale(qName);
+						setAttributesForLocale(element);
 						break;
 					case CONTENTVERSION:
-						setAttributesForContentVersion(qName);
+						setAttributesForContentVersion(element);
 						break;
 					case SEGMENT:
-						setAttributesForSegment(qName);
+						setAttributesForSegment(element);
 						break;
 					case APPLICATIONIDENTIFICATION:
 						//Nothing to do
 						break;
 					case CONTENTMATURITYRATING:
-						setAttributesForContentMaturityRating(qName);
+						setAttributesForContentMaturityRating(element);
 						break;
 					case SEQUENCE:
-						setAttributesForSequence(qName);
+						setAttributesForSequence(element);
 						break;
 					case TRACKFILERESOURCE:
-						setAttributesForTrackFileResource(qName, (TrackFileResource) resource);
+						setAttributesForTrackFileResource(element, (TrackFileResource) resource);
 						break;
 					case BASERESOURCE:
 					case MARKERRESOURCE:
 					case STEREOIMAGETRACKFILERESOURCE:
-						setAttributesForBaseResource(qName, resource);
+						setAttributesForBaseResource(element, resource);
 						break;
 					case LEFTEYERESOURCE:
-						setAttributesForTrackFileResource(qName, leftEye);
+						setAttributesForTrackFileResource(element, leftEye);
 						break;
 					case RIGHTEYERESOURCE:
-						setAttributesForTrackFileResource(qName, rightEye);
+						setAttributesForTrackFileResource(element, rightEye);
 						break;
 					default:
 						break;
 				}
 				break; 
 		}
+		text.clear();
 	}
 	
-	private void setAttributesForCompositionPlaylist(String qName) {
-		switch (qName) {
-			case "id":
-				compositionPlaylist.setUuid(content);
+	private void setAttributesForCompositionPlaylist(CompositionPlaylistElement element) {
+		switch (element) {
+			case ID:
+				compositionPlaylist.setUuid(text.toString());
 				break;
-			case "annotation":
-				compositionPlaylist.setAnnotation(content);
+			case ANNOTATION:
+				compositionPlaylist.setAnnotation(text.toString());
 				break;
-			case "issuedate":
-				compositionPlaylist.setIssueDate(content);
+			case ISSUEDATE:
+				compositionPlaylist.setIssueDate(text.toString());
 				break;
-			case "issuer":
-				compositionPlaylist.setIssuer(content);
+			case ISSUER:
+				compositionPlaylist.setIssuer(text.toString());
 				break;
-			case "creator":
-				compositionPlaylist.setCreator(content);
+			case CREATOR:
+				compositionPlaylist.setCreator(text.toString());
 				break;
-			case "contentoriginator":
-				compositionPlaylist.setContentOriginator(content);
+			case CONTENTORIGINATOR:
+				compositionPlaylist.setContentOriginator(text.toString());
 				break;
-			case "contenttitle":
-				compositionPlaylist.setContentTitle(content);
+			case CONTENTTITLE:
+				compositionPlaylist.setContentTitle(text.toString());
 				break;
-			case "contentkind":
-				contentKind.setValue(content);
+			case CONTENTKIND:
+				contentKind.setValue(text.toString());
 				compositionPlaylist.setContentKind(contentKind);
 				break;
-			case "editrate":
-				compositionPlaylist.setEditRate(content);
+			case EDITRATE:
+				compositionPlaylist.setEditRate(text.toString());
 				break;
-			case "totalrunningtime":
-				compositionPlaylist.setTotalRunningTime(content);
+			case TOTALRUNNINGTIME:
+				compositionPlaylist.setTotalRunningTime(text.toString());
 				break;
 			default:
 				break;
 		}
 	}
 	
-	private void setAttributesForCompositionTimecode(String qName) {
-		switch (qName) {
-			case "timecodedropframe":
-				compositionTimecode.setTimecodeDropFrame(Boolean.valueOf(content));
+	private void setAttributesForCompositionTimecode(CompositionPlaylistElement element) {
+		switch (element) {
+			case TIMECODEDROPFRAME:
+				compositionTimecode.setTimecodeDropFrame(Boolean.valueOf(text.toString()));
 				break;
-			case "timecoderate":
-				compositionTimecode.setTimecodeRate(Long.valueOf(content));
+			case TIMECODERATE:
+				compositionTimecode.setTimecodeRate(Long.valueOf(text.toString()));
 				break;
-			case "timecodestartaddress":
-				compositionTimecode.setTimecodeStartAddress(content);
+			case TIMECODESTARTADDRESS:
+				compositionTimecode.setTimecodeStartAddress(text.toString());
 				break;
 			default:
 				break;
 		}
 	}
 	
-	private void setAttributesForEssenceDescriptor(String qName) {
-		switch (qName) {
-			case "id":
-				essenceDescriptor.setId(content);
+	private void setAttributesForEssenceDescriptor(CompositionPlaylistElement element) {
+		switch (element) {
+			case ID:
+				essenceDescriptor.setId(text.toString());
 				break;
 			default:
 				break;
 		}
 	}
 	
-	private void setAttributesForLocale(String qName) {
-		switch (qName) {
-			case "annotation":
-				locale.setAnnotation(content);
+	private void setAttributesForLocale(CompositionPlaylistElement element) {
+		switch (element) {
+			case ANNOTATION:
+				locale.setAnnotation(text.toString());
 				break;
 			default:
 				break;	
 		}
 	}
 	
-	private void setAttributesForContentVersion(String qName) {
-		switch (qName) {
-			case "id":
-				contentVersion.setId(content);
+	private void setAttributesForContentVersion(CompositionPlaylistElement element) {
+		switch (element) {
+			case ID:
+				contentVersion.setId(text.toString());
 				break;
-			case "labeltext":
-				contentVersion.setLabelText(content);
+			case LABELTEXT:
+				contentVersion.setLabelText(text.toString());
 				break;
 			default:
 				break;	
 		}
 	}
 	
-	private void setAttributesForSegment(String qName) {
-		switch (qName) {
-			case "id":
-				segment.setId(content);
+	private void setAttributesForSegment(CompositionPlaylistElement element) {
+		switch (element) {
+			case ID:
+				segment.setId(text.toString());
 				break;
-			case "annotation":
-				segment.setAnnotation(content);
+			case ANNOTATION:
+				segment.setAnnotation(text.toString());
 				break;
 			default:
 				break;	
 		}
 	}
 	
-	private void setAttributesForContentMaturityRating(String qName) {
-		switch (qName) {
-			case "agency":
-				contentMaturityRating.setAgency(content);
+	private void setAttributesForContentMaturityRating(CompositionPlaylistElement element) {
+		switch (element) {
+			case AGENCY:
+				contentMaturityRating.setAgency(text.toString());
 				break;
-			case "rating":
-				contentMaturityRating.setRating(content);
+			case RATING:
+				contentMaturityRating.setRating(text.toString());
 				break;
-			case "audience":
-				contentMaturityRating.setAudience(content);
+			case AUDIENCE:
+				contentMaturityRating.setAudience(text.toString());
 				break;
 			default:
 				break;
 		}
 	}
 	
-	private void setAttributesForSequence(String qName) {
-		switch (qName) {
-			case "id":
-				sequence.setId(content);
+	private void setAttributesForSequence(CompositionPlaylistElement element) {
+		switch (element) {
+			case ID:
+				sequence.setId(text.toString());
 				break;
-			case "trackid":
-				sequence.setTrackId(content);
+			case TRACKID:
+				sequence.setTrackId(text.toString());
 				break;
 			default:
 				break;
 		}
 	}
 	
-	private void setAttributesForTrackFileResource(String qName, TrackFileResource resource) {
-		setAttributesForBaseResource(qName, resource);
-		switch (qName) {
-			case "sourceencoding":
-				resource.setSourceEncoding(content);
+	private void setAttributesForTrackFileResource(CompositionPlaylistElement element, TrackFileResource resource) {
+		setAttributesForBaseResource(element, resource);
+		switch (element) {
+			case SOURCEENCODING:
+				resource.setSourceEncoding(text.toString());
 				break;
-			case "trackfileid":
-				resource.setTrackFileId(content);
+			case TRACKFILEID:
+				resource.setTrackFileId(text.toString());
 				break;
-			case "keyid":
-				resource.setKeyId(content);
+			case KEYID:
+				resource.setKeyId(text.toString());
 				break;
-			case "hash":
-				resource.setHash(content);
+			case HASH:
+				resource.setHash(text.toString());
 				break;
 			default:
 				break;
 		}
 	}
 	
-	private void setAttributesForBaseResource(String qName, BaseResource resource) {
-		switch (qName) {
-			case "id":
-				resource.setId(content);
+	private void setAttributesForBaseResource(CompositionPlaylistElement element, BaseResource resource) {
+		switch (element) {
+			case ID:
+				resource.setId(text.toString());
 				break;
-			case "annotation":
-				resource.setAnnotation(content);
+			case ANNOTATION:
+				resource.setAnnotation(text.toString());
 				break;
-			case "editrate":
-				resource.setEditRate(content);
+			case EDITRATE:
+				resource.setEditRate(text.toString());
 				break;
-			case "intrinsicduration":
-				resource.setIntrinsicDuration(Long.valueOf(content));
+			case INTRINSICDURATION:
+				resource.setIntrinsicDuration(Long.valueOf(text.toString()));
 				break;
-			case "entrypoint":
-				resource.setEntryPoint(Long.valueOf(content));
+			case ENTRYPOINT:
+				resource.setEntryPoint(Long.valueOf(text.toString()));
 				break;
-			case "sourceduration":
-				resource.setSourceDuration(Long.valueOf(content));
+			case SOURCEDURATION:
+				resource.setSourceDuration(Long.valueOf(text.toString()));
 				break;
-			case "repeatcount":
-				resource.setRepeatCount(Long.valueOf(content));
+			case REPEATCOUNT:
+				resource.setRepeatCount(Long.valueOf(text.toString()));
 				break;
 			default:
 				break;
@@ -612,7 +735,57 @@ public class SaxCompositionPlaylistHandler extends DefaultHandler {
 	
 	@Override
 	public void characters(char[] ch, int start, int length) throws SAXException {
-		content = String.copyValueOf(ch, start, length).trim();
+		if (skipDepth == 0) {
+			text.append(ch, start, length);
+		}
+	}
+	
+	@Override
+	public void setDocumentLocator(Locator locator) {
+		this.locator = locator;
+	}
+	
+	@Override
+	public void startPrefixMapping(String prefix, String uri) throws SAXException {
+		prefixMappings.add(prefix);
+		prefixMappings.add(uri);
+	}
+	
+	@Override
+	public void endPrefixMapping(String prefix) throws SAXException {
+		for (int i = prefixMappings.size() - 2; i >= 0; i -= 2) {
+			if (prefixMappings.get(i).equals(prefix)) {
+				prefixMappings.remove(i + 1);
+				prefixMappings.remove(i);
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Create span of an element starting at the current location
+	 */
+	private ElementSpan newSpan(String qName, Attributes attributes) {
+		ElementSpan span = new ElementSpan();
+		span.setQName(qName);
+		Map<String, String> namespaces = new LinkedHashMap<String, String>();
+		for (int i = 0; i < prefixMappings.size(); i += 2) {
+			namespaces.put(prefixMappings.get(i), prefixMappings.get(i + 1));
+		}
+		span.setNamespaces(namespaces);
+		Map<String, String> attributeValues = new LinkedHashMap<String, String>();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			attributeValues.put(attributes.getQName(i), attributes.getValue(i));
+		}
+		span.setAttributes(attributeValues);
+		if (locator != null) {
+			span.setSystemId(locator.getSystemId());
+			span.setStart(locator.getLineNumber(), locator.getColumnNumber());
+			if (locator instanceof Locator2) {
+				span.setEncoding(((Locator2) locator).getEncoding());
+			}
+		}
+		return span;
 	}
 	
 	/**
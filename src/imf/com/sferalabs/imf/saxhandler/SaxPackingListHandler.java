@@ -33,7 +33,9 @@
 package com.sferalabs.imf.saxhandler;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -51,23 +53,55 @@ public class SaxPackingListHandler extends DefaultHandler {
 		ROOT, PACKINGLIST, ASSET
 	}
 	
+	/**
+	 * Elements handled by the parser, looked up by local name
+	 */
+	enum PackingListElement {
+		PACKINGLIST("PackingList"), ASSETLIST("AssetList"), ASSET("Asset"), ID("Id"),
+		ANNOTATIONTEXT("AnnotationText"), ICONID("IconId"), ISSUEDATE("IssueDate"),
+		ISSUER("Issuer"), CREATOR("Creator"), GROUPID("GroupId"), HASH("Hash"),
+		SIZE("Size"), TYPE("Type"), ORIGINALFILENAME("OriginalFileName"), OTHER(null);
+		
+		private static final Map<String, PackingListElement> elements = new HashMap<String, PackingListElement>();
+		
+		static {
+			for (PackingListElement element : values()) {
+				if (element.localName != null) {
+					elements.put(element.localName, element);
+				}
+			}
+		}
+		
+		private final String localName;
+		
+		private PackingListElement(String localName) {
+			this.localName = localName;
+		}
+		
+		static PackingListElement forName(String localName, String qName) {
+			PackingListElement element = elements.get(XmlNames.localName(localName, qName));
+			return element == null ? OTHER : element;
+		}
+	}
+	
 	private boolean isPackingListInitialized;
 	private PackingListXmlNode node = PackingListXmlNode.ROOT;
 	private PackingList packingList;
 	private List<PackingAsset> assetList;
 	private PackingAsset asset;
 	
-	private String content;
+	private final ElementText text = new ElementText();
 	
 	@Override
 	public void characters(char[] ch, int start, int length) throws SAXException {
-		content = String.copyValueOf(ch, start, length).trim();
+		text.append(ch, start, length);
 	}
 	
 	@Override
 	public void startElement(String uri, String localName, String qName, Attributes attributes)
 			throws SAXException {
-		qName = qName.toLowerCase();
+		PackingListElement element = PackingListElement.forName(localName, qName);
+		text.clear();
 		
 		//Check that there's only one PackingList node in the xml document
 		if (isPackingListInitialized) {
@@ -76,20 +110,20 @@ public class SaxPackingListHandler extends DefaultHandler {
 		
 		if (node == PackingListXmlNode.ROOT) {
 			//first element of schema should be PackingList
-			if (!qName.equals("packinglist")) {
+			if (element != PackingListElement.PACKINGLIST) {
 				throw new SAXException("Invalid xml file, PackingList should be the first node");
 			}
 		}
 		
-		switch (qName) {
-			case "packinglist":
+		switch (element) {
+			case PACKINGLIST:
 				packingList = new PackingList();
 				node = PackingListXmlNode.PACKINGLIST;
 				break;
-			case "assetlist":
+			case ASSETLIST:
 				assetList = new ArrayList<PackingAsset>();
 				break;
-			case "asset":
+			case ASSET:
 				asset = new PackingAsset();
 				node = PackingListXmlNode.ASSET;
 				break;
@@ -101,17 +135,17 @@ public class SaxPackingListHandler extends DefaultHandler {
 	@Override
 	public void endElement(String uri, String localName, String qName)
 			throws SAXException {
-		qName = qName.toLowerCase();
-		switch (qName) {
-			case "packinglist":
+		PackingListElement element = PackingListElement.forName(localName, qName);
+		switch (element) {
+			case PACKINGLIST:
 				isPackingListInitialized = true;
 				break;
-			case "assetlist":
+			case ASSETLIST:
 				if (assetList != null)
 					packingList.setAssetList(assetList);
 				assetList = null;
 				break;
-			case "asset":
+			case ASSET:
 				if (asset != null)
 					assetList.add(asset);
 				asset = null;
@@ -119,51 +153,51 @@ public class SaxPackingListHandler extends DefaultHandler {
 			default:
 				switch (node) {
 					case PACKINGLIST:
-						switch (qName) {
-							case "id":
-								packingList.setUuid(content);
+						switch (element) {
+							case ID:
+								packingList.setUuid(text.toString());
 								break;
-							case "annotationtext":
-								packingList.setAnnotation(content);
+							case ANNOTATIONTEXT:
+								packingList.setAnnotation(text.toString());
 								break;
-							case "iconid":
-								packingList.setIconId(content);
+							case ICONID:
+								packingList.setIconId(text.toString());
 								break;
-							case "issuedate":
-								packingList.setIssueDate(content);
+							case ISSUEDATE:
+								packingList.setIssueDate(text.toString());
 								break;
-							case "issuer":
-								packingList.setIssuer(content);
+							case ISSUER:
+								packingList.setIssuer(text.toString());
 								break;
-							case "creator":
-								packingList.setCreator(content);
+							case CREATOR:
+								packingList.setCreator(text.toString());
 								break;
-							case "groupid":
-								packingList.setGroupId(content);
+							case GROUPID:
+								packingList.setGroupId(text.toString());
 								break;
 							default:
 								break;
 						}
 						break;
 					case ASSET:
-						switch (qName) {
-							case "id":
-								asset.setUuid(content);
+						switch (element) {
+							case ID:
+								asset.setUuid(text.toString());
 								break;
-							case "annotationtext":
-								asset.setAnnotation(content);
+							case ANNOTATIONTEXT:
+								asset.setAnnotation(text.toString());
 								break;
-							case "hash":
-								asset.setHash(content);
+							case HASH:
+								asset.setHash(text.toString());
 								break;
-							case "size":
-								asset.setSize(Long.valueOf(content));
+							case SIZE:
+								asset.setSize(Long.valueOf(text.toString()));
 								break;
-							case "type":
-								asset.setType(content);
+							case TYPE:
+								asset.setType(text.toString());
 								break;
-							case "originalfileName":
-								asset.setFilename(content);
+							case ORIGINALFILENAME:
+								asset.setFilename(text.toString());
 								break;
 							default:
 								break;
@@ -174,6 +208,7 @@ public class SaxPackingListHandler extends DefaultHandler {
 				}
 				break;
 		}
+		text.clear();
 	}
 	
 	/**
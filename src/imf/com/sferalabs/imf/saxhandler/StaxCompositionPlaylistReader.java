@@ -0,0 +1,549 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.saxhandler;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import com.sferalabs.imf.exception.ImfXmlException;
+import com.sferalabs.imf.model.compositionplaylist.BaseResource;
+import com.sferalabs.imf.model.compositionplaylist.CompositionPlaylist;
+import com.sferalabs.imf.model.compositionplaylist.CompositionTimecode;
+import com.sferalabs.imf.model.compositionplaylist.ContentKind;
+import com.sferalabs.imf.model.compositionplaylist.ElementSpan;
+import com.sferalabs.imf.model.compositionplaylist.EssenceDescriptor;
+import com.sferalabs.imf.model.compositionplaylist.Marker;
+import com.sferalabs.imf.model.compositionplaylist.MarkerResource;
+import com.sferalabs.imf.model.compositionplaylist.Segment;
+import com.sferalabs.imf.model.compositionplaylist.Sequence;
+import com.sferalabs.imf.model.compositionplaylist.SequenceType;
+import com.sferalabs.imf.model.compositionplaylist.StereoImageTrackFileResource;
+import com.sferalabs.imf.model.compositionplaylist.TrackFileResource;
+import com.sferalabs.imf.saxhandler.SaxCompositionPlaylistHandler.CompositionPlaylistElement;
+import com.sferalabs.imf.saxhandler.SaxCompositionPlaylistHandler.ResourceType;
+
+/**
+ * StaxCompositionPlaylistReader class reads a CPL with StAX and passes segments, sequences
+ * and resources to a listener as soon as they are read, without building the whole model.
+ * Memory use does not depend on the size of the CPL. LocaleList, ContentVersionList and
+ * ExtensionProperties are not read.
+ */
+public class StaxCompositionPlaylistReader {
+	
+	private static final String PARSER_MESSAGE_PREFIX = "Message: ";
+	
+	private final CompositionPlaylistListener listener;
+	private final ElementText text = new ElementText();
+	private String systemId;
+	
+	public StaxCompositionPlaylistReader(CompositionPlaylistListener listener) {
+		this.listener = listener;
+	}
+	
+	/**
+	 * Read given CPL
+	 * @param filePath CPL file
+	 * @throws IOException
+	 * @throws SAXException if the document is malformed
+	 * @throws ImfXmlException if the listener fails
+	 */
+	public void read(String filePath) throws IOException, SAXException, ImfXmlException {
+		XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		systemId = new File(filePath).toURI().toString();
+		try (InputStream inputStream = new BufferedInputStream(new FileInputStream(filePath))) {
+			XMLStreamReader reader = inputFactory.createXMLStreamReader(systemId, inputStream);
+			try {
+				if (!nextChild(reader) || element(reader) != CompositionPlaylistElement.COMPOSITIONPLAYLIST) {
+					Location location = reader.getLocation();
+					throw new SAXParseException("Invalid xml file, CompositionPlaylist should be the first node",
+							null, systemId, location.getLineNumber(), location.getColumnNumber());
+				}
+				readCompositionPlaylist(reader);
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException e) {
+			//message of the parser without the location prefix added by XMLStreamException
+			String message = e.getMessage();
+			int messageStart = message == null ? -1 : message.indexOf(PARSER_MESSAGE_PREFIX);
+			if (messageStart >= 0) {
+				message = message.substring(messageStart + PARSER_MESSAGE_PREFIX.length());
+			}
+			Location location = e.getLocation();
+			if (location == null) {
+				throw new SAXParseException(message, null, systemId, -1, -1);
+			}
+			throw new SAXParseException(message, null, systemId,
+					location.getLineNumber(), location.getColumnNumber());
+		}
+	}
+	
+	private void readCompositionPlaylist(XMLStreamReader reader) throws XMLStreamException, ImfXmlException {
+		CompositionPlaylist compositionPlaylist = new CompositionPlaylist();
+		Map<String, String> namespaces = new LinkedHashMap<String, String>();
+		putNamespaces(reader, namespaces);
+		boolean isReported = false;
+		while (nextChild(reader)) {
+			switch (element(reader)) {
+				case ID:
+					compositionPlaylist.setUuid(readText(reader));
+					break;
+				case ANNOTATION:
+					compositionPlaylist.setAnnotation(readText(reader));
+					break;
+				case ISSUEDATE:
+					compositionPlaylist.setIssueDate(readText(reader));
+					break;
+				case ISSUER:
+					compositionPlaylist.setIssuer(readText(reader));
+					break;
+				case CREATOR:
+					compositionPlaylist.setCreator(readText(reader));
+					break;
+				case CONTENTORIGINATOR:
+					compositionPlaylist.setContentOriginator(readText(reader));
+					break;
+				case CONTENTTITLE:
+					compositionPlaylist.setContentTitle(readText(reader));
+					break;
+				case CONTENTKIND:
+					ContentKind contentKind = new ContentKind();
+					String scope = reader.getAttributeValue(null, "scope");
+					if (scope != null) {
+						contentKind.setScope(scope.toLowerCase());
+					}
+					contentKind.setValue(readText(reader));
+					compositionPlaylist.setContentKind(contentKind);
+					break;
+				case ESSENCEDESCRIPTORLIST:
+					compositionPlaylist.setEssenceDescriptorList(readEssenceDescriptorList(reader, namespaces));
+					break;
+				case COMPOSITIONTIMECODE:
+					compositionPlaylist.setCompositionTimecode(readCompositionTimecode(reader));
+					break;
+				case EDITRATE:
+					compositionPlaylist.setEditRate(readText(reader));
+					break;
+				case TOTALRUNNINGTIME:
+					compositionPlaylist.setTotalRunningTime(readText(reader));
+					break;
+				case SEGMENTLIST:
+					listener.compositionPlaylist(compositionPlaylist);
+					isReported = true;
+					readSegmentList(reader);
+					break;
+				default:
+					skipElement(reader);
+					break;
+			}
+		}
+		if (!isReported) {
+			listener.compositionPlaylist(compositionPlaylist);
+		}
+	}
+	
+	private List<EssenceDescriptor> readEssenceDescriptorList(XMLStreamReader reader,
+			Map<String, String> parentNamespaces) throws XMLStreamException {
+		List<EssenceDescriptor> essenceDescriptors = new ArrayList<EssenceDescriptor>();
+		Map<String, String> listNamespaces = new LinkedHashMap<String, String>(parentNamespaces);
+		putNamespaces(reader, listNamespaces);
+		while (nextChild(reader)) {
+			if (element(reader) != CompositionPlaylistElement.ESSENCEDESCRIPTOR) {
+				skipElement(reader);
+				continue;
+			}
+			//only Id is kept, descriptor sets are skipped and read from the span when needed
+			EssenceDescriptor essenceDescriptor = new EssenceDescriptor();
+			ElementSpan span = newSpan(reader, listNamespaces);
+			essenceDescriptor.setSpan(span);
+			while (nextChild(reader)) {
+				if (element(reader) == CompositionPlaylistElement.ID) {
+					essenceDescriptor.setId(readText(reader));
+				} else {
+					skipElement(reader);
+				}
+			}
+			Location location = reader.getLocation();
+			span.setEnd(location.getLineNumber(), location.getColumnNumber());
+			essenceDescriptors.add(essenceDescriptor);
+		}
+		return essenceDescriptors;
+	}
+	
+	/**
+	 * Create span of the current element, starting after its start tag
+	 */
+	private ElementSpan newSpan(XMLStreamReader reader, Map<String, String> parentNamespaces) {
+		ElementSpan span = new ElementSpan();
+		span.setSystemId(systemId);
+		span.setEncoding(reader.getEncoding());
+		String prefix = reader.getPrefix();
+		span.setQName(prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName());
+		Map<String, String> namespaces = new LinkedHashMap<String, String>(parentNamespaces);
+		putNamespaces(reader, namespaces);
+		span.setNamespaces(namespaces);
+		Map<String, String> attributes = new LinkedHashMap<String, String>();
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			String attributePrefix = reader.getAttributePrefix(i);
+			String localName = reader.getAttributeLocalName(i);
+			attributes.put(attributePrefix == null || attributePrefix.isEmpty() ? localName : attributePrefix + ":" + localName,
+					reader.getAttributeValue(i));
+		}
+		span.setAttributes(attributes);
+		Location location = reader.getLocation();
+		span.setStart(location.getLineNumber(), location.getColumnNumber());
+		return span;
+	}
+	
+	/**
+	 * Add namespaces declared on the current element, the default namespace has an empty prefix
+	 */
+	private static void putNamespaces(XMLStreamReader reader, Map<String, String> namespaces) {
+		for (int i = 0; i < reader.getNamespaceCount(); i++) {
+			String prefix = reader.getNamespacePrefix(i);
+			String uri = reader.getNamespaceURI(i);
+			namespaces.put(prefix == null ? "" : prefix, uri == null ? "" : uri);
+		}
+	}
+	
+	private CompositionTimecode readCompositionTimecode(XMLStreamReader reader) throws XMLStreamException {
+		CompositionTimecode compositionTimecode = new CompositionTimecode();
+		while (nextChild(reader)) {
+			switch (element(reader)) {
+				case TIMECODEDROPFRAME:
+					compositionTimecode.setTimecodeDropFrame(Boolean.valueOf(readText(reader)));
+					break;
+				case TIMECODERATE:
+					compositionTimecode.setTimecodeRate(Long.valueOf(readText(reader)));
+					break;
+				case TIMECODESTARTADDRESS:
+					compositionTimecode.setTimecodeStartAddress(readText(reader));
+					break;
+				default:
+					skipElement(reader);
+					break;
+			}
+		}
+		return compositionTimecode;
+	}
+	
+	private void readSegmentList(XMLStreamReader reader) throws XMLStreamException, ImfXmlException {
+		while (nextChild(reader)) {
+			if (element(reader) == CompositionPlaylistElement.SEGMENT) {
+				readSegment(reader);
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+	
+	private void readSegment(XMLStreamReader reader) throws XMLStreamException, ImfXmlException {
+		Segment segment = new Segment();
+		boolean isReported = false;
+		while (nextChild(reader)) {
+			switch (element(reader)) {
+				case ID:
+					segment.setId(readText(reader));
+					break;
+				case ANNOTATION:
+					segment.setAnnotation(readText(reader));
+					break;
+				case SEQUENCELIST:
+					listener.segment(segment);
+					isReported = true;
+					segment.setSequenceList(readSequenceList(reader));
+					break;
+				default:
+					skipElement(reader);
+					break;
+			}
+		}
+		if (!isReported) {
+			listener.segment(segment);
+		}
+		listener.endSegment(segment);
+	}
+	
+	private List<Sequence> readSequenceList(XMLStreamReader reader) throws XMLStreamException, ImfXmlException {
+		List<Sequence> sequences = new ArrayList<Sequence>();
+		while (nextChild(reader)) {
+			SequenceType type = sequenceType(element(reader));
+			if (type == null) {
+				skipElement(reader);
+			} else {
+				sequences.add(readSequence(reader, type));
+			}
+		}
+		return sequences;
+	}
+	
+	private Sequence readSequence(XMLStreamReader reader, SequenceType type) throws XMLStreamException, ImfXmlException {
+		Sequence sequence = new Sequence();
+		sequence.setType(type);
+		boolean isReported = false;
+		while (nextChild(reader)) {
+			switch (element(reader)) {
+				case ID:
+					sequence.setId(readText(reader));
+					break;
+				case TRACKID:
+					sequence.setTrackId(readText(reader));
+					break;
+				case RESOURCELIST:
+					listener.sequence(sequence);
+					isReported = true;
+					readResourceList(reader);
+					break;
+				default:
+					skipElement(reader);
+					break;
+			}
+		}
+		if (!isReported) {
+			listener.sequence(sequence);
+		}
+		return sequence;
+	}
+	
+	private void readResourceList(XMLStreamReader reader) throws XMLStreamException, ImfXmlException {
+		while (nextChild(reader)) {
+			if (element(reader) == CompositionPlaylistElement.RESOURCE) {
+				listener.resource(readResource(reader));
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+	
+	private BaseResource readResource(XMLStreamReader reader) throws XMLStreamException {
+		String type = reader.getAttributeValue(XmlNames.XSI_NAMESPACE, "type");
+		BaseResource resource;
+		switch (type == null ? ResourceType.OTHER : ResourceType.forName(type)) {
+			case TRACKFILERESOURCETYPE:
+				resource = new TrackFileResource();
+				break;
+			case MARKERRESOURCETYPE:
+				resource = new MarkerResource();
+				((MarkerResource) resource).setMarkers(new ArrayList<Marker>());
+				break;
+			case STEREOIMAGETRACKFILERESOURCETYPE:
+				resource = new StereoImageTrackFileResource();
+				break;
+			default:
+				resource = new BaseResource();
+				break;
+		}
+		readResourceElements(reader, resource);
+		return resource;
+	}
+	
+	/**
+	 * Read child elements of a resource, elements of LeftEye and RightEye
+	 * of stereoscopic resources are read as elements of the resource
+	 */
+	private void readResourceElements(XMLStreamReader reader, BaseResource resource) throws XMLStreamException {
+		while (nextChild(reader)) {
+			CompositionPlaylistElement element = element(reader);
+			switch (element) {
+				case ID:
+					resource.setId(readText(reader));
+					break;
+				case ANNOTATION:
+					resource.setAnnotation(readText(reader));
+					break;
+				case EDITRATE:
+					resource.setEditRate(readText(reader));
+					break;
+				case INTRINSICDURATION:
+					resource.setIntrinsicDuration(Long.valueOf(readText(reader)));
+					break;
+				case ENTRYPOINT:
+					resource.setEntryPoint(Long.valueOf(readText(reader)));
+					break;
+				case SOURCEDURATION:
+					resource.setSourceDuration(Long.valueOf(readText(reader)));
+					break;
+				case REPEATCOUNT:
+					resource.setRepeatCount(Long.valueOf(readText(reader)));
+					break;
+				case SOURCEENCODING:
+				case TRACKFILEID:
+				case KEYID:
+				case HASH:
+					String value = readText(reader);
+					if (resource instanceof TrackFileResource) {
+						setTrackFileElement((TrackFileResource) resource, element, value);
+					}
+					break;
+				case MARKER:
+					if (resource instanceof MarkerResource) {
+						((MarkerResource) resource).getMarkers().add(new Marker());
+					}
+					skipElement(reader);
+					break;
+				default:
+					readResourceElements(reader, resource);
+					break;
+			}
+		}
+	}
+	
+	private static void setTrackFileElement(TrackFileResource resource, CompositionPlaylistElement element, String value) {
+		switch (element) {
+			case SOURCEENCODING:
+				resource.setSourceEncoding(value);
+				break;
+			case TRACKFILEID:
+				resource.setTrackFileId(value);
+				break;
+			case KEYID:
+				resource.setKeyId(value);
+				break;
+			case HASH:
+				resource.setHash(value);
+				break;
+			default:
+				break;
+		}
+	}
+	
+	private static SequenceType sequenceType(CompositionPlaylistElement element) {
+		switch (element) {
+			case MARKERSEQUENCE:
+				return SequenceType.MARKERSEQUENCE;
+			case MAINIMAGESEQUENCE:
+				return SequenceType.MAINIMAGESEQUENCE;
+			case MAINAUDIOSEQUENCE:
+				return SequenceType.MAINAUDIOSEQUENCE;
+			case SUBTITLESSEQUENCE:
+				return SequenceType.SUBTILESSEQUENCE;
+			case HEARINGIMPAIREDCAPTIONSSEQUENCE:
+				return SequenceType.HEARINGIMPAIREDCAPTIONSSEQUENCE;
+			case VISUALLYIMPAIREDTEXTSEQUENCE:
+				return SequenceType.VISUALLYIMPAIREDTEXTSEQUENCE;
+			case COMMENTARYSEQUENCE:
+				return SequenceType.COMMENTARYSEQUENCE;
+			case KARAOKESEQUENCE:
+				return SequenceType.KARAOKESEQUENCE;
+			default:
+				return null;
+		}
+	}
+	
+	private static CompositionPlaylistElement element(XMLStreamReader reader) {
+		return CompositionPlaylistElement.forName(reader.getLocalName(), "");
+	}
+	
+	/**
+	 * Move to the next child of the current element
+	 * @return true on the start of a child, false on the end of the current element
+	 */
+	private static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					return true;
+				case XMLStreamConstants.END_ELEMENT:
+					return false;
+				default:
+					break;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Move to the end of the current element
+	 */
+	private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					depth--;
+					break;
+				default:
+					break;
+			}
+		}
+	}
+	
+	/**
+	 * Read text of the current element and move to its end, text of child elements is ignored
+	 * @return trimmed text
+	 */
+	private String readText(XMLStreamReader reader) throws XMLStreamException {
+		text.clear();
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					depth--;
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					if (depth == 1) {
+						text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+					}
+					break;
+				default:
+					break;
+			}
+		}
+		return text.toString();
+	}
+}
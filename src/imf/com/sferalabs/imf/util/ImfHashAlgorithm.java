@@ -33,5 +33,45 @@
 package com.sferalabs.imf.util;
 
 public enum ImfHashAlgorithm {
-	SHA1, SHA256
+	SHA1("SHA-1", 20),
+	SHA256("SHA-256", 32),
+	CRC32(null, 4);
+	
+	private final String digestName;
+	private final int hashLength;
+	
+	private ImfHashAlgorithm(String digestName, int hashLength) {
+		this.digestName = digestName;
+		this.hashLength = hashLength;
+	}
+	
+	/**
+	 * Get MessageDigest algorithm name
+	 * @return digestName, null value for checksums not provided by MessageDigest
+	 */
+	public String getDigestName() {
+		return digestName;
+	}
+	
+	/**
+	 * Get length of hash value in bytes
+	 * @return hashLength
+	 */
+	public int getHashLength() {
+		return hashLength;
+	}
+	
+	/**
+	 * Get digest algorithm producing hash values of given length
+	 * @param hashLength
+	 * @return algorithm, null value if no digest algorithm matches
+	 */
+	public static ImfHashAlgorithm fromHashLength(int hashLength) {
+		for (ImfHashAlgorithm algo : values()) {
+			if (algo.digestName != null && algo.hashLength == hashLength) {
+				return algo;
+			}
+		}
+		return null;
+	}
 }
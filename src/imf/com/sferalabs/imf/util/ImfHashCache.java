@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ImfHashCache class keeps previously calculated file digests in a local store.
+ * An entry is valid as long as absolute path, size, modification time and file key
+ * of the file are unchanged. Least recently used entries are evicted once the
+ * maximal number of entries is exceeded.
+ */
+public class ImfHashCache {
+	
+	public static final int DEFAULT_MAX_ENTRIES = 100000;
+	
+	private static final String CACHE_FILENAME = "imf-hash-cache.tsv";
+	private static final String FIELD_SEPARATOR = "\t";
+	private static final String HASH_SEPARATOR = ",";
+	private static final String NO_FILE_KEY = "-";
+	
+	private static class CacheEntry {
+		private final long size;
+		private final long modifiedTime;
+		private final String fileKey;
+		private final Map<ImfHashAlgorithm, String> hashes = new EnumMap<ImfHashAlgorithm, String>(ImfHashAlgorithm.class);
+		
+		private CacheEntry(long size, long modifiedTime, String fileKey) {
+			this.size = size;
+			this.modifiedTime = modifiedTime;
+			this.fileKey = fileKey;
+		}
+		
+		private boolean matches(BasicFileAttributes attributes) {
+			return size == attributes.size()
+					&& modifiedTime == attributes.lastModifiedTime().toMillis()
+					&& fileKey.equals(getFileKey(attributes));
+		}
+	}
+	
+	private final Path cacheFile;
+	private final LinkedHashMap<String, CacheEntry> entries;
+	
+	public ImfHashCache(String directory) {
+		this(directory, DEFAULT_MAX_ENTRIES);
+	}
+	
+	public ImfHashCache(String directory, final int maxEntries) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("Maximal number of hash cache entries should be positive");
+		}
+		cacheFile = new File(directory, CACHE_FILENAME).toPath();
+		entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+	
+	/**
+	 * Get cached digests of given file
+	 * @param filepath
+	 * @param attributes current attributes of the file
+	 * @param hashAlgos
+	 * @return fingerprint holding all selected hash values, null value if any of them is not cached or the file was changed
+	 */
+	public synchronized ImfFileFingerprint get(String filepath, BasicFileAttributes attributes, Set<ImfHashAlgorithm> hashAlgos) {
+		String key = getKey(filepath);
+		CacheEntry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (!entry.matches(attributes)) {
+			entries.remove(key);
+			return null;
+		}
+		Map<ImfHashAlgorithm, String> hashes = new EnumMap<ImfHashAlgorithm, String>(ImfHashAlgorithm.class);
+		for (ImfHashAlgorithm hashAlgo : hashAlgos) {
+			String hash = entry.hashes.get(hashAlgo);
+			if (hash == null) {
+				return null;
+			}
+			hashes.put(hashAlgo, hash);
+		}
+		return new ImfFileFingerprint(entry.size, hashes);
+	}
+	
+	/**
+	 * Store digests of given file
+	 * @param filepath
+	 * @param attributes attributes of the file read before the digests were calculated
+	 * @param fingerprint
+	 */
+	public synchronized void put(String filepath, BasicFileAttributes attributes, ImfFileFingerprint fingerprint) {
+		String key = getKey(filepath);
+		if (key.contains(FIELD_SEPARATOR) || key.contains("\n") || key.contains("\r")
+				|| fingerprint.getSize() != attributes.size()) {
+			return;
+		}
+		CacheEntry entry = entries.get(key);
+		if (entry == null || !entry.matches(attributes)) {
+			entry = new CacheEntry(attributes.size(), attributes.lastModifiedTime().toMillis(), getFileKey(attributes));
+			entries.put(key, entry);
+		}
+		entry.hashes.putAll(fingerprint.getBase64Hashes());
+	}
+	
+	/**
+	 * Get number of cached files
+	 * @return size
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Load cached digests from the cache directory, malformed lines are skipped
+	 * @throws IOException
+	 */
+	public synchronized void load() throws IOException {
+		if (!Files.exists(cacheFile)) {
+			return;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split(FIELD_SEPARATOR);
+				if (fields.length != 5) {
+					continue;
+				}
+				try {
+					CacheEntry entry = new CacheEntry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]);
+					for (String hash : fields[4].split(HASH_SEPARATOR)) {
+						int index = hash.indexOf('=');
+						entry.hashes.put(ImfHashAlgorithm.valueOf(hash.substring(0, index)), hash.substring(index + 1));
+					}
+					entries.put(fields[0], entry);
+				} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+					continue;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Save cached digests into the cache directory, least recently used entries are written first
+	 * @throws IOException
+	 */
+	public synchronized void save() throws IOException {
+		Files.createDirectories(cacheFile.getParent());
+		Path tempFile = Files.createTempFile(cacheFile.getParent(), CACHE_FILENAME, ".tmp");
+		try {
+			try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+				for (Map.Entry<String, CacheEntry> item : entries.entrySet()) {
+					CacheEntry entry = item.getValue();
+					if (entry.hashes.isEmpty()) {
+						continue;
+					}
+					writer.write(item.getKey());
+					writer.write(FIELD_SEPARATOR);
+					writer.write(Long.toString(entry.size));
+					writer.write(FIELD_SEPARATOR);
+					writer.write(Long.toString(entry.modifiedTime));
+					writer.write(FIELD_SEPARATOR);
+					writer.write(entry.fileKey);
+					writer.write(FIELD_SEPARATOR);
+					String separator = "";
+					for (Map.Entry<ImfHashAlgorithm, String> hash : entry.hashes.entrySet()) {
+						writer.write(separator);
+						writer.write(hash.getKey().name());
+						writer.write('=');
+						writer.write(hash.getValue());
+						separator = HASH_SEPARATOR;
+					}
+					writer.newLine();
+				}
+			}
+			try {
+				Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+	
+	private static String getKey(String filepath) {
+		return new File(filepath).getAbsolutePath();
+	}
+	
+	private static String getFileKey(BasicFileAttributes attributes) {
+		Object fileKey = attributes.fileKey();
+		if (fileKey == null) {
+			return NO_FILE_KEY;
+		}
+		return fileKey.toString().replace(FIELD_SEPARATOR, " ");
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ImfHashEngine class to calculate file hashes on a bounded pool of worker threads
+ */
+public class ImfHashEngine {
+
+	private static final String THREAD_NAME_FMT = "imf-hash-%d";
+
+	private final ExecutorService executor;
+	private final int threadCount;
+
+	public ImfHashEngine(int threadCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("Number of hash threads should be positive");
+		}
+		this.threadCount = threadCount;
+		executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, String.format(THREAD_NAME_FMT, threadNumber.getAndIncrement()));
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Get default number of hash threads
+	 * @return number of available processors
+	 */
+	public static int getDefaultThreadCount() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Get number of hash threads
+	 * @return threadCount
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Schedule single pass calculation of all selected hash values and size of given file
+	 * @param filepath
+	 * @param hashAlgos
+	 * @return future holding the file fingerprint, null value if the file cannot be read
+	 */
+	public Future<ImfFileFingerprint> submit(String filepath, Set<ImfHashAlgorithm> hashAlgos) {
+		return submit(filepath, hashAlgos, null);
+	}
+
+	/**
+	 * Schedule single pass calculation of all selected hash values and size of given file,
+	 * the file is read only if the hash cache has no valid entry for it
+	 * @param filepath
+	 * @param hashAlgos
+	 * @param hashCache cache to consult and update, can be null
+	 * @return future holding the file fingerprint, null value if the file cannot be read
+	 */
+	public Future<ImfFileFingerprint> submit(final String filepath, final Set<ImfHashAlgorithm> hashAlgos,
+			final ImfHashCache hashCache) {
+		return executor.submit(new Callable<ImfFileFingerprint>() {
+			@Override
+			public ImfFileFingerprint call() {
+				if (hashCache == null) {
+					return ImfHelper.getInstance().getFileFingerprint(filepath, hashAlgos);
+				}
+				BasicFileAttributes attributes;
+				try {
+					attributes = Files.readAttributes(new File(filepath).toPath(), BasicFileAttributes.class);
+				} catch (IOException e) {
+					return null;
+				}
+				ImfFileFingerprint fingerprint = hashCache.get(filepath, attributes, hashAlgos);
+				if (fingerprint == null) {
+					fingerprint = ImfHelper.getInstance().getFileFingerprint(filepath, hashAlgos);
+					if (fingerprint != null) {
+						hashCache.put(filepath, attributes, fingerprint);
+					}
+				}
+				return fingerprint;
+			}
+		});
+	}
+
+	/**
+	 * Stop all worker threads, pending hash calculations are discarded
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+}
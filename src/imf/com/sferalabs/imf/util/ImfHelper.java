@@ -33,21 +33,31 @@
 package com.sferalabs.imf.util;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
 
 import javax.xml.bind.DatatypeConverter;
 
 import com.sferalabs.imf.exception.ImfXmlException;
 import com.sferalabs.imf.validation.ValidationResult;
 import com.sferalabs.imf.validation.ValidationResultList;
+import com.sferalabs.imf.validation.ValidationRule;
 
 /**
  * ImfHelper singleton class
@@ -60,8 +70,32 @@ public class ImfHelper {
 	private static class Messages{
 		public static final String NOT_UNIQUE_ID = "UUID %s is not unique";
 		public static final String UNIQUE_ID = "UUID %s is unique";
+		public static final String HASH_INTERRUPTED_MSG = "Hash calculation was interrupted";
 	}
 	
+	/** Files up to this size are hashed through a single read-only mapping */
+	private static final long MAPPED_HASH_LIMIT = 256L * 1024 * 1024;
+	
+	/** Size of the direct buffer used to stream larger files through the digest */
+	private static final int HASH_BUFFER_SIZE = 4 * 1024 * 1024;
+	
+	/** Size of the chunk handed to every digest, small enough to stay in cache while all digests consume it */
+	private static final int HASH_CHUNK_SIZE = 64 * 1024;
+	
+	private static final ThreadLocal<ByteBuffer> hashBuffer = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+		}
+	};
+	
+	private static final ThreadLocal<byte[]> hashChunk = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[HASH_CHUNK_SIZE];
+		}
+	};
+	
 	private final static List<String> PERMITTED_CONTENT_KIND_VALUES =
 			Collections.unmodifiableList(Arrays.asList("advertisement", "feature", "psa", "rating", "short", "teaser",
 					"test", "trailer", "transitional", "episode", "highlights", "event"));
@@ -88,24 +122,95 @@ public class ImfHelper {
 	 * @return calculated hash value
 	 */
 	public String getBase64FileHash(String filepath, ImfHashAlgorithm hashAlgo) {
-		try (FileInputStream inputStream = new FileInputStream(filepath)) {
-			MessageDigest digest;
-			if (hashAlgo == ImfHashAlgorithm.SHA256)
-				digest = MessageDigest.getInstance("SHA-256");
-			else
-				digest = MessageDigest.getInstance("SHA-1");
+		ImfFileFingerprint fingerprint = getFileFingerprint(filepath, EnumSet.of(hashAlgo));
+		return fingerprint == null ? null : fingerprint.getBase64Hash(hashAlgo);
+	}
+	
+	/**
+	 * Read given file once and calculate all selected hash values and the number of bytes read
+	 * @param filepath
+	 * @param hashAlgos
+	 * @return fingerprint of the file, null value if the file cannot be read
+	 */
+	public ImfFileFingerprint getFileFingerprint(String filepath, Set<ImfHashAlgorithm> hashAlgos) {
+		try (FileChannel channel = FileChannel.open(new File(filepath).toPath(), StandardOpenOption.READ)) {
+			Map<ImfHashAlgorithm, MessageDigest> digests = new EnumMap<ImfHashAlgorithm, MessageDigest>(ImfHashAlgorithm.class);
+			CRC32 crc = null;
+			for (ImfHashAlgorithm hashAlgo : hashAlgos) {
+				if (hashAlgo == ImfHashAlgorithm.CRC32)
+					crc = new CRC32();
+				else
+					digests.put(hashAlgo, MessageDigest.getInstance(hashAlgo.getDigestName()));
+			}
 			
-			byte[] bytesBuffer = new byte[1024];
-			int bytesRead = -1;
-			while ((bytesRead = inputStream.read(bytesBuffer)) != -1) {
-				digest.update(bytesBuffer, 0, bytesRead);
+			long size;
+			if (hashAlgos.isEmpty()) {
+				size = channel.size();
+			} else if (channel.size() <= MAPPED_HASH_LIMIT) {
+				ByteBuffer mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+				size = mapped.remaining();
+				updateFingerprint(mapped, digests.values(), crc);
+			} else {
+				size = updateFingerprint(channel, digests.values(), crc);
 			}
-			byte[] hashedBytes = digest.digest();
-			return DatatypeConverter.printBase64Binary(hashedBytes);
+			
+			Map<ImfHashAlgorithm, String> hashes = new EnumMap<ImfHashAlgorithm, String>(ImfHashAlgorithm.class);
+			for (Map.Entry<ImfHashAlgorithm, MessageDigest> entry : digests.entrySet()) {
+				hashes.put(entry.getKey(), DatatypeConverter.printBase64Binary(entry.getValue().digest()));
+			}
+			if (crc != null) {
+				byte[] crcBytes = ByteBuffer.allocate(ImfHashAlgorithm.CRC32.getHashLength()).putInt((int) crc.getValue()).array();
+				hashes.put(ImfHashAlgorithm.CRC32, DatatypeConverter.printBase64Binary(crcBytes));
+			}
+			return new ImfFileFingerprint(size, hashes);
 		} catch (NoSuchAlgorithmException | IOException ex) {
 			return null;
 		}
 	}
+	
+	/**
+	 * Feed the whole channel into digests through the per-thread direct buffer.
+	 * Large essence files are streamed rather than mapped, so that hashing a
+	 * package does not pin hundreds of gigabytes of mappings until they are
+	 * collected.
+	 * @param channel
+	 * @param digests
+	 * @param crc
+	 * @return number of bytes read
+	 * @throws IOException
+	 */
+	private long updateFingerprint(FileChannel channel, Collection<MessageDigest> digests, CRC32 crc) throws IOException {
+		ByteBuffer buffer = hashBuffer.get();
+		long size = 0;
+		buffer.clear();
+		int bytesRead;
+		while ((bytesRead = channel.read(buffer)) != -1) {
+			size += bytesRead;
+			buffer.flip();
+			updateFingerprint(buffer, digests, crc);
+			buffer.clear();
+		}
+		return size;
+	}
+	
+	private void updateFingerprint(ByteBuffer buffer, Collection<MessageDigest> digests, CRC32 crc)
+			throws InterruptedIOException {
+		byte[] chunk = hashChunk.get();
+		while (buffer.hasRemaining()) {
+			//reads of mapped files cannot be interrupted, cancellation is checked between chunks
+			if (Thread.currentThread().isInterrupted()) {
+				throw new InterruptedIOException(Messages.HASH_INTERRUPTED_MSG);
+			}
+			int length = Math.min(chunk.length, buffer.remaining());
+			buffer.get(chunk, 0, length);
+			for (MessageDigest digest : digests) {
+				digest.update(chunk, 0, length);
+			}
+			if (crc != null) {
+				crc.update(chunk, 0, length);
+			}
+		}
+	}
 	 
 	/**
 	 * Get file size 
@@ -164,20 +269,34 @@ public class ImfHelper {
 	 */
 	public ValidationResultList checkUuidsUnique(List<String> uuids) throws ImfXmlException {
 		ValidationResultList result= new ValidationResultList();
-		HashSet<String> uniqueLists = new HashSet<String>();
+		ImfUuidSet uniqueLists = new ImfUuidSet();
 		for (int i=0; i<uuids.size(); i++) {
-			String uuid = uuids.get(i);
-			if (!uniqueLists.add(uuid)) {
-				ValidationResult res = new ValidationResult(true, String.format(Messages.NOT_UNIQUE_ID, uuid));
+			ValidationResult res = checkUuidUnique(uuids.get(i), uniqueLists);
+			if (res != null) {
 				result.add(res);
-				ImfLogger.getLogger().logError(String.format(Messages.NOT_UNIQUE_ID, uuid));
-			} else {
-				ImfLogger.getLogger().logDebug(String.format(Messages.UNIQUE_ID, uuid));
 			}
 		}
 		return  result;
 	}
 	
+	/**
+	 * Check that given uuid is not one of the uuids found before, so that uuids
+	 * of a document can be checked as they are read
+	 * @param uuid
+	 * @param uuids uuids found before, uuid is added to it
+	 * @return error result if uuid was found before, otherwise null
+	 */
+	public ValidationResult checkUuidUnique(String uuid, ImfUuidSet uuids) {
+		if (!uuids.add(uuid)) {
+			ValidationResult res = new ValidationResult(true, String.format(Messages.NOT_UNIQUE_ID, uuid), ValidationRule.UUID_UNIQUE);
+			res.setAssetUuid(uuid);
+			ImfLogger.getLogger().logError(Messages.NOT_UNIQUE_ID, uuid);
+			return res;
+		}
+		ImfLogger.getLogger().logDebug(Messages.UNIQUE_ID, uuid);
+		return null;
+	}
+	
 	/**
 	 * Check if given content kind is permitted
 	 * @param contentKind
@@ -32,17 +32,35 @@
  */
 package com.sferalabs.imf.util;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
 /**
- * ImfLogger class
+ * ImfLogger class. Messages can be given as a format and arguments, formatted only when the
+ * message is printed.
  */
 public class ImfLogger {
 	
 	private static ImfLogger instance;
-	private static boolean enableDebugLog;
-	private static boolean errorOccured;
-	private static boolean warningOccured;
+	private static volatile boolean enableDebugLog;
+	private static volatile boolean errorOccured;
+	private static volatile boolean warningOccured;
 	private static Object mutex = new Object();
 	
+	/** Output of the current thread while it is captured, null value when printed directly */
+	private static final ThreadLocal<StringBuilder> capturedOutput = new ThreadLocal<StringBuilder>();
+	
+	/** Text and flush requests waiting for the output thread, null value when printed synchronously.
+	 * Items are added while holding outputMutex, so that nothing is queued after END_OF_OUTPUT */
+	private static BlockingQueue<Object> asyncOutput;
+	/** Output thread, kept until it has printed everything queued before it was stopped */
+	private static Thread asyncOutputThread;
+	private static final Object outputMutex = new Object();
+	private static final Object END_OF_OUTPUT = new Object();
+	
 	private ImfLogger() {
 		
 	}
@@ -65,7 +83,17 @@ public class ImfLogger {
 	 */
 	public void logDebug(String msg) {
 		if (enableDebugLog)
-			System.out.println("[D]: " + msg);
+			print("[D]: " + msg);
+	}
+	
+	/**
+	 * Log debug message, formatted only if debug log is enabled
+	 * @param format
+	 * @param args
+	 */
+	public void logDebug(String format, Object... args) {
+		if (enableDebugLog)
+			print("[D]: " + String.format(format, args));
 	}
 	
 	/**
@@ -73,7 +101,16 @@ public class ImfLogger {
 	 * @param msg
 	 */
 	public void logInfo(String msg) {
-		System.out.println("[I]: " + msg);
+		print("[I]: " + msg);
+	}
+	
+	/**
+	 * Log info message
+	 * @param format
+	 * @param args
+	 */
+	public void logInfo(String format, Object... args) {
+		print("[I]: " + String.format(format, args));
 	}
 	
 	/**
@@ -82,7 +119,17 @@ public class ImfLogger {
 	 */
 	public void logError(String msg) {
 		errorOccured = true;
-		System.out.println("[E]: " + msg);
+		print("[E]: " + msg);
+	}
+	
+	/**
+	 * Log error message
+	 * @param format
+	 * @param args
+	 */
+	public void logError(String format, Object... args) {
+		errorOccured = true;
+		print("[E]: " + String.format(format, args));
 	}
 	
 	/**
@@ -90,7 +137,24 @@ public class ImfLogger {
 	 * @param msg
 	 */
 	public void logWarning(String msg) {
-		System.out.println("[W]: " + msg);
+		print("[W]: " + msg);
+	}
+	
+	/**
+	 * Log warning message
+	 * @param format
+	 * @param args
+	 */
+	public void logWarning(String format, Object... args) {
+		print("[W]: " + String.format(format, args));
+	}
+	
+	/**
+	 * Check if debug log is enabled, to skip building debug messages
+	 * @return true if debug messages are printed
+	 */
+	public boolean isDebugEnabled() {
+		return enableDebugLog;
 	}
 	
 	/**
@@ -130,4 +194,188 @@ public class ImfLogger {
 		errorOccured = false;
 		warningOccured = false;
 	}
+	
+	/**
+	 * Print an empty line
+	 */
+	public void logNewLine() {
+		print("");
+	}
+	
+	/**
+	 * Start capturing log output of the current thread instead of printing it
+	 */
+	public void startCapture() {
+		capturedOutput.set(new StringBuilder());
+	}
+	
+	/**
+	 * Stop capturing log output of the current thread
+	 * @return output captured since startCapture was called
+	 */
+	public String stopCapture() {
+		StringBuilder output = capturedOutput.get();
+		capturedOutput.remove();
+		return output == null ? "" : output.toString();
+	}
+	
+	/**
+	 * Print output captured by another thread
+	 * @param output
+	 */
+	public void logCapturedOutput(String output) {
+		write(output);
+	}
+	
+	/**
+	 * Print log output from a background thread, in batches. Captured output is not affected.
+	 * Call stopAsyncOutput once logging threads are done.
+	 */
+	public void startAsyncOutput() {
+		synchronized (outputMutex) {
+			if (asyncOutput != null) {
+				return;
+			}
+			final BlockingQueue<Object> queue = new LinkedBlockingQueue<Object>();
+			asyncOutputThread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					writeOutput(queue);
+				}
+			}, "imf-log");
+			asyncOutputThread.setDaemon(true);
+			asyncOutputThread.start();
+			asyncOutput = queue;
+		}
+	}
+	
+	/**
+	 * Print pending output and go back to synchronous printing
+	 */
+	public void stopAsyncOutput() {
+		Thread thread;
+		synchronized (outputMutex) {
+			if (asyncOutput == null) {
+				return;
+			}
+			//the queue is retired with its last item, later output is printed directly
+			asyncOutput.add(END_OF_OUTPUT);
+			asyncOutput = null;
+			thread = asyncOutputThread;
+		}
+		join(thread);
+		synchronized (outputMutex) {
+			if (asyncOutputThread == thread) {
+				asyncOutputThread = null;
+			}
+		}
+	}
+	
+	/**
+	 * Wait until output logged so far is printed
+	 */
+	public void flush() {
+		CountDownLatch flushed = null;
+		Thread stoppingThread = null;
+		synchronized (outputMutex) {
+			if (asyncOutput != null) {
+				flushed = new CountDownLatch(1);
+				asyncOutput.add(flushed);
+			} else {
+				stoppingThread = asyncOutputThread;
+			}
+		}
+		if (flushed == null) {
+			//output being stopped is printed once the output thread ends
+			if (stoppingThread != null) {
+				join(stoppingThread);
+			}
+			System.out.flush();
+			return;
+		}
+		boolean interrupted = false;
+		while (flushed.getCount() > 0) {
+			try {
+				flushed.await();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	
+	private void print(String line) {
+		write(line + System.lineSeparator());
+	}
+	
+	private void write(String text) {
+		StringBuilder output = capturedOutput.get();
+		if (output != null) {
+			output.append(text);
+			return;
+		}
+		synchronized (outputMutex) {
+			if (asyncOutput != null) {
+				asyncOutput.add(text);
+				return;
+			}
+		}
+		System.out.print(text);
+	}
+	
+	private static void join(Thread thread) {
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Output thread loop, everything queued at once is printed with a single write
+	 */
+	private static void writeOutput(BlockingQueue<Object> queue) {
+		List<Object> items = new ArrayList<Object>();
+		StringBuilder text = new StringBuilder();
+		boolean isRunning = true;
+		while (isRunning) {
+			try {
+				items.add(queue.take());
+			} catch (InterruptedException e) {
+				continue;
+			}
+			queue.drainTo(items);
+			for (Object item : items) {
+				if (item instanceof String) {
+					text.append((String) item);
+					continue;
+				}
+				printText(text);
+				if (item == END_OF_OUTPUT) {
+					isRunning = false;
+				} else {
+					((CountDownLatch) item).countDown();
+				}
+			}
+			items.clear();
+			printText(text);
+		}
+	}
+	
+	private static void printText(StringBuilder text) {
+		if (text.length() > 0) {
+			System.out.print(text);
+			text.setLength(0);
+		}
+		System.out.flush();
+	}
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.util;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.SAXException;
+
+/**
+ * ImfSaxParserPool class hands out namespace aware SAX parsers. Every thread keeps the parser
+ * it released last, so the factory lookup and parser configuration happen once per thread.
+ * A released parser is reset and holds no reference to the handlers of its last parse.
+ */
+public final class ImfSaxParserPool {
+	
+	/** Factories are not required to be thread-safe, parsers are created under its lock */
+	private static final SAXParserFactory parserFactory = newParserFactory();
+	private static final ThreadLocal<SAXParser> idleParser = new ThreadLocal<SAXParser>();
+	
+	private ImfSaxParserPool() {
+	}
+	
+	/**
+	 * Get a parser for the current thread, it should be released once the document is parsed
+	 * @return namespace aware parser
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 */
+	public static SAXParser acquire() throws ParserConfigurationException, SAXException {
+		SAXParser parser = idleParser.get();
+		if (parser != null) {
+			idleParser.set(null);
+			return parser;
+		}
+		synchronized (parserFactory) {
+			return parserFactory.newSAXParser();
+		}
+	}
+	
+	/**
+	 * Reset given parser and keep it for the next parse of the current thread
+	 * @param parser parser returned by {@link #acquire()}
+	 */
+	public static void release(SAXParser parser) {
+		try {
+			parser.reset();
+		} catch (UnsupportedOperationException e) {
+			//parser can't be reused
+			return;
+		}
+		idleParser.set(parser);
+	}
+	
+	private static SAXParserFactory newParserFactory() {
+		SAXParserFactory factory = SAXParserFactory.newInstance();
+		factory.setNamespaceAware(true);
+		return factory;
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * ImfUuidSet class holds uuids found in a document to check their uniqueness. Lower case
+ * urn:uuid: values are stored as two longs in open addressing tables, about 32 bytes per uuid
+ * instead of about 130 for a HashSet of strings. Other values are kept as strings, values
+ * are compared exactly like strings.
+ */
+public class ImfUuidSet {
+	
+	private static final String URN_PREFIX = "urn:uuid:";
+	private static final int UUID_LENGTH = 36;
+	
+	private long[] highs = new long[1024];
+	private long[] lows = new long[1024];
+	private int count;
+	private boolean hasNilUuid;
+	private Set<String> others;
+	
+	/**
+	 * Add a uuid
+	 * @param uuid
+	 * @return false if the uuid was already added
+	 */
+	public boolean add(String uuid) {
+		if (uuid.length() != URN_PREFIX.length() + UUID_LENGTH || !uuid.startsWith(URN_PREFIX)) {
+			return addOther(uuid);
+		}
+		long high = 0;
+		long low = 0;
+		for (int i = 0; i < UUID_LENGTH; i++) {
+			char c = uuid.charAt(URN_PREFIX.length() + i);
+			if (i == 8 || i == 13 || i == 18 || i == 23) {
+				if (c != '-') {
+					return addOther(uuid);
+				}
+				continue;
+			}
+			int digit;
+			if (c >= '0' && c <= '9') {
+				digit = c - '0';
+			} else if (c >= 'a' && c <= 'f') {
+				digit = c - 'a' + 10;
+			} else {
+				return addOther(uuid);
+			}
+			if (i < 18) {
+				high = (high << 4) | digit;
+			} else {
+				low = (low << 4) | digit;
+			}
+		}
+		if (high == 0 && low == 0) {
+			boolean isAdded = !hasNilUuid;
+			hasNilUuid = true;
+			return isAdded;
+		}
+		if (!insert(highs, lows, high, low)) {
+			return false;
+		}
+		if (++count * 2 > highs.length) {
+			grow();
+		}
+		return true;
+	}
+	
+	/**
+	 * Get number of uuids added
+	 * @return size
+	 */
+	public int size() {
+		return count + (hasNilUuid ? 1 : 0) + (others == null ? 0 : others.size());
+	}
+	
+	private boolean addOther(String uuid) {
+		if (others == null) {
+			others = new HashSet<String>();
+		}
+		return others.add(uuid);
+	}
+	
+	private void grow() {
+		long[] newHighs = new long[highs.length * 2];
+		long[] newLows = new long[lows.length * 2];
+		for (int i = 0; i < highs.length; i++) {
+			if (highs[i] != 0 || lows[i] != 0) {
+				insert(newHighs, newLows, highs[i], lows[i]);
+			}
+		}
+		highs = newHighs;
+		lows = newLows;
+	}
+	
+	/**
+	 * Insert with linear probing, an empty slot holds zero in both tables
+	 * @return false if the value is already in the tables
+	 */
+	private static boolean insert(long[] highs, long[] lows, long high, long low) {
+		int mask = highs.length - 1;
+		int slot = hash(high, low) & mask;
+		while (highs[slot] != 0 || lows[slot] != 0) {
+			if (highs[slot] == high && lows[slot] == low) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		highs[slot] = high;
+		lows[slot] = low;
+		return true;
+	}
+	
+	private static int hash(long high, long low) {
+		long h = high * 0x9E3779B97F4A7C15L ^ low;
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+}
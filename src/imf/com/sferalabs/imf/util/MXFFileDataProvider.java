@@ -1,49 +1,132 @@
 package com.sferalabs.imf.util;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.netflix.imflibrary.utils.ByteProvider;
 
+/**
+ * ByteProvider reading a range of an MXF file through a pooled direct read-ahead buffer.
+ * An instance serves a single parser and is not thread-safe, use {@link #synchronizedProvider}
+ * to share one between threads. Instances should be closed to return the buffer to the pool.
+ */
 public class MXFFileDataProvider implements ByteProvider {
 
-    private final InputStream inputStream;
+    /** Size of the read-ahead buffer, large enough to hold many header metadata sets */
+    private static final int READ_AHEAD_SIZE = 64 * 1024;
+
+    /** Maximal number of idle buffers kept in the pool */
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    private static final Queue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<ByteBuffer>();
+    private static final AtomicInteger pooledBufferCount = new AtomicInteger();
+
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final long rangeEnd;
+    private long position;
+
+    private ByteBuffer buffer;
+    /** File offset of the first byte held by buffer */
+    private long bufferStart;
 
     /**
-     * Instantiates a new MXF InputStream data provider.
+     * Instantiates a new MXF data provider reading the whole file.
      *
      * @param file the input file
      */
     public MXFFileDataProvider(File file) throws IOException
     {
-        this.inputStream = new FileInputStream(file);
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.ownsChannel = true;
+        this.position = 0;
+        this.rangeEnd = this.channel.size();
+    }
+
+    /**
+     * Instantiates a new MXF data provider reading a range of an open channel with positional reads.
+     * The channel is shared, it is not closed by this provider.
+     *
+     * @param channel the channel of the MXF file
+     * @param rangeStart offset of the first byte of the range
+     * @param rangeEnd offset following the last byte of the range
+     */
+    public MXFFileDataProvider(FileChannel channel, long rangeStart, long rangeEnd)
+    {
+        this.channel = channel;
+        this.ownsChannel = false;
+        this.position = rangeStart;
+        this.rangeEnd = rangeEnd;
+    }
+
+    /**
+     * Get a thread-safe view of given provider
+     *
+     * @param provider the provider to share
+     * @return provider whose methods are synchronized
+     */
+    public static ByteProvider synchronizedProvider(final MXFFileDataProvider provider)
+    {
+        return new ByteProvider() {
+            @Override
+            public synchronized byte[] getBytes(int totalNumBytesToRead) throws IOException
+            {
+                return provider.getBytes(totalNumBytesToRead);
+            }
+
+            @Override
+            public synchronized void skipBytes(long totalNumBytesToSkip) throws IOException
+            {
+                provider.skipBytes(totalNumBytesToSkip);
+            }
+        };
     }
 
     /**
      * Get bytes.
      *
      * @param totalNumBytesToRead the total num bytes to read
-     * @return byte[] containing next totalNumBytesToRead
+     * @return byte[] containing next totalNumBytesToRead, bytes beyond the end of the range are zero
      * @throws java.io.IOException the iO exception
      */
-    public synchronized byte[] getBytes(int totalNumBytesToRead) throws IOException
+    public byte[] getBytes(int totalNumBytesToRead) throws IOException
     {
         if(totalNumBytesToRead < 0){
             throw new IOException(String.format("Cannot read %d bytes, should be non-negative and non-zero", totalNumBytesToRead));
         }
         byte[] bytes = new byte[totalNumBytesToRead];
-        Integer bytesRead = 0;
-        Integer totalBytesRead = 0;
-        while(bytesRead != -1
-                && bytesRead < totalNumBytesToRead) {
-            bytesRead = this.inputStream.read(bytes, totalBytesRead, totalNumBytesToRead);
-            if(bytesRead != -1){
-                totalBytesRead += bytesRead;
-                totalNumBytesToRead -= bytesRead;
+        int length = (int) Math.min(totalNumBytesToRead, Math.max(0, this.rangeEnd - this.position));
+        if (length >= READ_AHEAD_SIZE) {
+            //large values are read straight into the result
+            ByteBuffer target = ByteBuffer.wrap(bytes, 0, length);
+            while (target.hasRemaining()) {
+                if (this.channel.read(target, this.position + target.position()) == -1) {
+                    break;
+                }
+            }
+        } else {
+            int copied = 0;
+            while (copied < length) {
+                long offset = this.position + copied;
+                if (this.buffer == null || offset < this.bufferStart || offset >= this.bufferStart + this.buffer.limit()) {
+                    if (!fill(offset)) {
+                        break;
+                    }
+                }
+                int bufferOffset = (int) (offset - this.bufferStart);
+                int count = Math.min(length - copied, this.buffer.limit() - bufferOffset);
+                this.buffer.position(bufferOffset);
+                this.buffer.get(bytes, copied, count);
+                copied += count;
             }
         }
+        this.position += totalNumBytesToRead;
         return bytes;
     }
 
@@ -53,15 +136,62 @@ public class MXFFileDataProvider implements ByteProvider {
      * @param totalNumBytesToSkip the total num bytes to skip
      * @throws java.io.IOException the iO exception
      */
-    public synchronized void skipBytes(long totalNumBytesToSkip) throws IOException
+    public void skipBytes(long totalNumBytesToSkip) throws IOException
     {
-        long bytesSkipped = this.inputStream.skip(totalNumBytesToSkip);
-        if(bytesSkipped != totalNumBytesToSkip){
+        if(totalNumBytesToSkip < 0){
             throw new IOException(String.format("Could not skip %d bytes of data, possible truncated data", totalNumBytesToSkip));
         }
+        this.position += totalNumBytesToSkip;
     }
-    
+
     public void close() throws IOException {
-    	inputStream.close();
+        if (this.buffer != null) {
+            releaseBuffer(this.buffer);
+            this.buffer = null;
+        }
+        if (this.ownsChannel) {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Read bytes of the range starting at given offset into the read-ahead buffer
+     *
+     * @return false if no byte can be read at offset
+     */
+    private boolean fill(long offset) throws IOException
+    {
+        if (this.buffer == null) {
+            this.buffer = acquireBuffer();
+        }
+        this.buffer.clear();
+        this.buffer.limit((int) Math.min(this.buffer.capacity(), this.rangeEnd - offset));
+        this.bufferStart = offset;
+        while (this.buffer.hasRemaining()) {
+            if (this.channel.read(this.buffer, offset + this.buffer.position()) == -1) {
+                break;
+            }
+        }
+        this.buffer.flip();
+        return this.buffer.hasRemaining();
+    }
+
+    private static ByteBuffer acquireBuffer()
+    {
+        ByteBuffer pooled = bufferPool.poll();
+        if (pooled == null) {
+            return ByteBuffer.allocateDirect(READ_AHEAD_SIZE);
+        }
+        pooledBufferCount.decrementAndGet();
+        return pooled;
+    }
+
+    private static void releaseBuffer(ByteBuffer released)
+    {
+        if (pooledBufferCount.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            bufferPool.offer(released);
+        } else {
+            pooledBufferCount.decrementAndGet();
+        }
     }
 }
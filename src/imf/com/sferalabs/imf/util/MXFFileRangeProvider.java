@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MXFFileRangeProvider class gives access to byte ranges of an MXF file through positional
+ * reads of a single FileChannel, no temporary files are written
+ */
+public class MXFFileRangeProvider implements Closeable {
+	
+	private static class Messages {
+		public static final String INVALID_RANGE_FMT = "Range of bytes [%d, %d] is invalid for resource of size %d";
+		public static final String TRUNCATED_RANGE_FMT = "Could not read range of bytes [%d, %d], possible truncated data";
+	}
+	
+	private final FileChannel channel;
+	private final long resourceSize;
+	
+	public MXFFileRangeProvider(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		resourceSize = channel.size();
+	}
+	
+	/**
+	 * Get size of the MXF file
+	 * @return resourceSize
+	 */
+	public long getResourceSize() {
+		return resourceSize;
+	}
+	
+	/**
+	 * Read given range of bytes
+	 * @param rangeStart offset of the first byte
+	 * @param rangeEnd offset of the last byte, inclusive
+	 * @return bytes of the range
+	 * @throws IOException if the range is invalid or cannot be read
+	 */
+	public byte[] getByteRangeAsBytes(long rangeStart, long rangeEnd) throws IOException {
+		checkRange(rangeStart, rangeEnd);
+		if (rangeEnd - rangeStart + 1 > Integer.MAX_VALUE) {
+			throw new IOException(String.format(Messages.INVALID_RANGE_FMT, rangeStart, rangeEnd, resourceSize));
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) (rangeEnd - rangeStart + 1));
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, rangeStart + buffer.position()) == -1) {
+				throw new IOException(String.format(Messages.TRUNCATED_RANGE_FMT, rangeStart, rangeEnd));
+			}
+		}
+		return buffer.array();
+	}
+	
+	/**
+	 * Get data provider reading given range of bytes
+	 * @param rangeStart offset of the first byte
+	 * @param rangeEnd offset of the last byte, inclusive
+	 * @return data provider, it should be closed to release its read-ahead buffer
+	 * @throws IOException if the range is invalid
+	 */
+	public MXFFileDataProvider getByteProvider(long rangeStart, long rangeEnd) throws IOException {
+		checkRange(rangeStart, rangeEnd);
+		return new MXFFileDataProvider(channel, rangeStart, rangeEnd + 1);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+	
+	private void checkRange(long rangeStart, long rangeEnd) throws IOException {
+		if (rangeStart < 0 || rangeEnd < rangeStart || rangeEnd >= resourceSize) {
+			throw new IOException(String.format(Messages.INVALID_RANGE_FMT, rangeStart, rangeEnd, resourceSize));
+		}
+	}
+}
@@ -33,12 +33,9 @@
 package com.sferalabs.imf.validation;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 
 import org.xml.sax.SAXException;
 
@@ -76,11 +73,8 @@ public class AssetMapValidator extends XmlResourceValidator {
 
 	@Override
 	public ValidationResult parse() throws IOException, ParserConfigurationException, SAXException {
-		ValidationResult result = validateXsd();
-		SAXParserFactory parserFactor = SAXParserFactory.newInstance();
-		SAXParser parser = parserFactor.newSAXParser();
 		SaxAssetMapHandler handler = new SaxAssetMapHandler();
-		parser.parse(new FileInputStream(filePath), handler);
+		ValidationResult result = parseWithXsd(handler);
 		assetMap = handler.getAssetMap();
 		assetMap.setImfPackage(imfPackage);
 		return result;
@@ -95,16 +89,20 @@ public class AssetMapValidator extends XmlResourceValidator {
 	public ValidationResultList validate() throws ImfXmlException {
 		// check if uuid is unique
 		ImfLogger.getLogger().logDebug(Messages.CHECK_ELEMENT_UNIQUENESS_MSG);
-		ValidationResultList result = ImfHelper.getInstance().checkUuidsUnique(assetMap.getAllUuids());
+		ValidationResultList result = newResultList();
+		result.addAll(ImfHelper.getInstance().checkUuidsUnique(assetMap.getAllUuids()));
 
 		// check if paths exist
 		ImfLogger.getLogger().logDebug(Messages.CHECKING_PRESENCE_MSG);
 		for (Asset asset : assetMap.getAssetList()) {
 			if (assetMap.getAssetResourcePath(asset.getUuid())==null) {
-				result.add(new ValidationResult(true, String.format(Messages.ASSET_NOT_FOUND_FMT, asset.getUuid())));
-				ImfLogger.getLogger().logError(String.format(Messages.ASSET_NOT_FOUND_FMT, asset.getUuid()));
+				ValidationResult notFound = new ValidationResult(true,
+						String.format(Messages.ASSET_NOT_FOUND_FMT, asset.getUuid()), ValidationRule.ASSET_PRESENT);
+				notFound.setAssetUuid(asset.getUuid());
+				result.add(notFound);
+				ImfLogger.getLogger().logError(Messages.ASSET_NOT_FOUND_FMT, asset.getUuid());
 			} else {
-				ImfLogger.getLogger().logDebug(String.format(Messages.ASSET_FOUND_FMT, asset.getUuid()));
+				ImfLogger.getLogger().logDebug(Messages.ASSET_FOUND_FMT, asset.getUuid());
 			}
 		}
 		return result;
@@ -33,36 +33,39 @@
 package com.sferalabs.imf.validation;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 
 import org.xml.sax.SAXException;
 
 import com.netflix.imflibrary.exceptions.MXFException;
-import com.netflix.imflibrary.utils.FileByteRangeProvider;
-import com.netflix.imflibrary.utils.ResourceByteRangeProvider;
 import com.sferalabs.imf.exception.ImfXmlException;
 import com.sferalabs.imf.model.assetmap.Asset;
 import com.sferalabs.imf.model.assetmap.AssetMap;
 import com.sferalabs.imf.model.compositionplaylist.BaseResource;
 import com.sferalabs.imf.model.compositionplaylist.CompositionPlaylist;
 import com.sferalabs.imf.model.compositionplaylist.ContentKind;
+import com.sferalabs.imf.model.compositionplaylist.EssenceDescriptor;
 import com.sferalabs.imf.model.compositionplaylist.Segment;
 import com.sferalabs.imf.model.compositionplaylist.Sequence;
 import com.sferalabs.imf.model.compositionplaylist.TrackFileResource;
 import com.sferalabs.imf.model.packinglist.PackingAsset;
 import com.sferalabs.imf.model.packinglist.PackingList;
+import com.sferalabs.imf.saxhandler.CompositionPlaylistListener;
 import com.sferalabs.imf.saxhandler.SaxCompositionPlaylistHandler;
+import com.sferalabs.imf.saxhandler.StaxCompositionPlaylistReader;
 import com.sferalabs.imf.util.ImfHelper;
 import com.sferalabs.imf.util.ImfLogger;
+import com.sferalabs.imf.util.ImfUuidSet;
+import com.sferalabs.imf.util.MXFFileRangeProvider;
 import com.sferalabs.imf.xsd.ImfXsds;
 
 /**
@@ -99,6 +102,7 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 		public static final String VALIDATING_MXF_FILE_FMT = "Validating MXF File %s format";
 		public static final String VALID_MXF_FILE_FMT = "MXF File %s format is valid";
 		public static final String INVALID_MXF_FILE_FMT = "MXF File %s format is invalid";
+		public static final String MXF_PARSING_CANCELLED_FMT = "Parsing of MXF File %s was cancelled";
 		public static final String VALIDATING_ESSENCE_EXIST = "Validating essence %s exist in IMF package";
 		public static final String REFERRENCED_ESSENCE_EXIST = "Essence %s exists in IMF package";
 		public static final String REFERRENCED_ESSENCE_NOT_EXIST = "Essence %s does not exist in IMF package";
@@ -108,21 +112,20 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 	private CompositionPlaylist compositionPlaylist;
 	private AssetMap assetMap;
 	private PackingList packingList;
+	private MXFValidationCache mxfValidationCache;
 
 	public static final String SMPTE_CONTENTKING_URL = "http://www.smpte-ra.org/schemas/2067-3/2013#content-kind";
 	
 	public CompositionPlaylistValidator(String path) {
 		super(path);
 		resourcePath = ImfXsds.CORE_CONSTRAINTS_XSD;
+		mxfValidationCache = new MXFValidationCache();
 	}
 
 	@Override
 	public ValidationResult parse() throws IOException, ParserConfigurationException, SAXException {
-		ValidationResult result = validateXsd();
-		SAXParserFactory parserFactor = SAXParserFactory.newInstance();
-		SAXParser parser = parserFactor.newSAXParser();
 		SaxCompositionPlaylistHandler handler = new SaxCompositionPlaylistHandler();
-		parser.parse(new FileInputStream(filePath), handler);
+		ValidationResult result = parseWithXsd(handler);
 		compositionPlaylist = handler.getCompositionPlaylist();
 		return result;
 	}
@@ -135,35 +138,13 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 
 		//check if uuid is unique
 		ImfLogger.getLogger().logDebug(Messages.VALIDATING_UUID_MSG);
-		ValidationResultList results = ImfHelper.getInstance().checkUuidsUnique(compositionPlaylist.getAllUuids());
+		ValidationResultList results = newResultList();
+		results.addAll(ImfHelper.getInstance().checkUuidsUnique(compositionPlaylist.getAllUuids()));
 		
-		//check if cpl uuid is in assetmap
-		ImfLogger.getLogger().logDebug(String.format(Messages.VALIDATING_CPL_UUID_MSG, "AssetMap"));
-		if (!assetMap.getAllUuids().contains(compositionPlaylist.getUuid())) {
-			String msg = String.format(
-					Messages.CPL_ID_NOT_FOUND_FMT, compositionPlaylist.getUuid(), "AssetMap");
-			results.add(new ValidationResult(true, msg));
-			ImfLogger.getLogger().logError(msg);
-		} else {
-			ImfLogger.getLogger().logDebug(String.format(
-					Messages.CPL_ID_FOUND_FMT, compositionPlaylist.getUuid(), "AssetMap"));
-		}
-		
-		//check if cpl uuid is in packinglist
-		if (packingList != null) {
-			ImfLogger.getLogger().logDebug(String.format(Messages.VALIDATING_CPL_UUID_MSG, "PackageList"));
-			if (!packingList.getAllUuids().contains(compositionPlaylist.getUuid())) {
-				String msg = String.format(Messages.CPL_ID_NOT_FOUND_FMT, compositionPlaylist.getUuid(), "PackageList");
-				results.add(new ValidationResult(true, msg));
-				ImfLogger.getLogger().logError(msg);
-			} else {
-				ImfLogger.getLogger().logDebug(String.format(
-						Messages.CPL_ID_FOUND_FMT, compositionPlaylist.getUuid(), "PackingList"));
-			}
-		}
+		validateCompositionPlaylistId(compositionPlaylist.getUuid(), results);
 		
 		//validate ContentKind value
-		ValidationResult contentKindValidationResult = validateContentKind();
+		ValidationResult contentKindValidationResult = validateContentKind(compositionPlaylist.getContentKind());
 		if(contentKindValidationResult.hasError()){
 			results.add(contentKindValidationResult);
 		}
@@ -174,7 +155,7 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 			for(Segment segment : segments) {
 				List<Sequence> sequences = segment.getSequenceList();
 				//validate sequences
-				ValidationResultList sequenceValidationResult = validateExtensionSequence(sequences);
+				ValidationResultList sequenceValidationResult = validateSequenceUniqueness(sequences);
 				results.addAll(sequenceValidationResult);
 
 				if (sequences != null) {
@@ -182,36 +163,10 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 						List<BaseResource> resources = sequence.getResourceList();
 						if (resources != null) {
 							for (BaseResource resource : resources) {
-								//validate SourceDuration
-								ValidationResult durationValidation= validateSourceDuration(resource);
-								if(durationValidation.hasError()){
-									results.add(durationValidation);
-								}
-								//validate TrackFileResource
-								if (resource instanceof TrackFileResource) {
-									ValidationResult resourceValidation = validateTrackFileResource((TrackFileResource) resource);
-									if(resourceValidation.hasError()){
-										results.add(resourceValidation);
-									} else {
-										//validate Track file have valid MFX format
-										String trackFileId = ((TrackFileResource) resource).getTrackFileId();
-										ImfLogger.getLogger().logDebug(String.format(Messages.VALIDATING_ESSENCE_EXIST,  trackFileId));
-										String filePath = assetMap.getAssetResourcePath(trackFileId);
-										//validate that essence referenced by CPL exists
-										if (filePath != null) {
-											ImfLogger.getLogger().logDebug(String.format(Messages.REFERRENCED_ESSENCE_EXIST,  trackFileId));
-											String fileName = assetMap.getAssetByUuid(trackFileId).getChunkList().get(0).getPath();
-											ValidationResult mfxValidation = validateMFXResourceFile(fileName, filePath);
-											if (mfxValidation.hasError()) {
-												results.add(mfxValidation);
-											}
-										} else {
-											String msg = String.format(Messages.REFERRENCED_ESSENCE_NOT_EXIST, trackFileId);
-											results.add(new ValidationResult(true, msg));
-											ImfLogger.getLogger().logError(msg);
-										}
-									}
+								if (isCancelled()) {
+									return results;
 								}
+								validateResource(resource, results);
 							}
 						}
 					}
@@ -220,37 +175,180 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 		}
 		return results;
 	}
-
-	private ValidationResultList validateExtensionSequence(List<Sequence> sequences) throws ImfXmlException {
-		//validate uniqueness of Id and trackId
-		ValidationResultList results = new ValidationResultList();
-		for (int i = 0; i < sequences.size(); i++) {
-			Sequence seq = sequences.get(i);
-			for (int j = i+1; j < sequences.size(); j++) {
-				Sequence other_seq = sequences.get(j);
-				ImfLogger.getLogger().logDebug(String.format(Messages.VALIDATING_SEQUENCE_UUID_FMT,  seq.getId()));
-				if (other_seq.getId().equals(seq.getId())) {
-					String msg = String.format(Messages.SEQUENCE_NOT_UNIQUE_UUID_FMT, seq.getId());
-					results.add(new ValidationResult(true, msg));
-					ImfLogger.getLogger().logError(msg);
-				} else {
-					ImfLogger.getLogger().logDebug(String.format(Messages.VALIDATING_TRACK_ID_FMT,  seq.getTrackId()));
+	
+	/**
+	 * Validate the CPL while it is read with StAX, without building the CompositionPlaylist model.
+	 * Each resource is validated as soon as it is read, only uuids are kept to check their uniqueness.
+	 * The xsd is not checked, use {@link #validateXsd()} which also streams the document.
+	 * @return list of performed validations
+	 * @throws IOException
+	 * @throws SAXException if the CPL is malformed
+	 * @throws ImfXmlException
+	 */
+	public ValidationResultList validateStreaming() throws IOException, SAXException, ImfXmlException {
+		if (assetMap == null) {
+			throw new ImfXmlException(Messages.ASSET_MAP_UNSET_MSG);
+		}
+		
+		ImfLogger.getLogger().logDebug(Messages.VALIDATING_UUID_MSG);
+		final ValidationResultList results = newResultList();
+		final ImfUuidSet uuids = new ImfUuidSet();
+		StaxCompositionPlaylistReader reader = new StaxCompositionPlaylistReader(new CompositionPlaylistListener() {
+			@Override
+			public void compositionPlaylist(CompositionPlaylist compositionPlaylist) {
+				checkUuidUnique(compositionPlaylist.getUuid());
+				if (compositionPlaylist.getEssenceDescriptorList() != null) {
+					for (EssenceDescriptor essenceDescriptor : compositionPlaylist.getEssenceDescriptorList()) {
+						checkUuidUnique(essenceDescriptor.getId());
+					}
+				}
+				validateCompositionPlaylistId(compositionPlaylist.getUuid(), results);
+				ValidationResult contentKindValidationResult = validateContentKind(compositionPlaylist.getContentKind());
+				if (contentKindValidationResult.hasError()) {
+					results.add(contentKindValidationResult);
+				}
+			}
+			
+			@Override
+			public void segment(Segment segment) {
+				checkUuidUnique(segment.getId());
+			}
+			
+			@Override
+			public void sequence(Sequence sequence) {
+				checkUuidUnique(sequence.getId());
+			}
+			
+			@Override
+			public void resource(BaseResource resource) throws ImfXmlException {
+				if (isCancelled()) {
+					return;
+				}
+				checkUuidUnique(resource.getId());
+				validateResource(resource, results);
+			}
+			
+			@Override
+			public void endSegment(Segment segment) {
+				results.addAll(validateSequenceUniqueness(segment.getSequenceList()));
+			}
+			
+			private void checkUuidUnique(String uuid) {
+				if (uuid != null) {
+					ValidationResult result = ImfHelper.getInstance().checkUuidUnique(uuid, uuids);
+					if (result != null) {
+						results.add(result);
+					}
 				}
-				
-				if (other_seq.getTrackId().equals(seq.getTrackId())) {
-					String msg = String.format(Messages.TRACK_NOT_UNIQUE_UUID_FMT, seq.getTrackId());
-					results.add(new ValidationResult(true, msg));
+			}
+		});
+		reader.read(filePath);
+		return results;
+	}
+	
+	private void validateCompositionPlaylistId(String cplUuid, ValidationResultList results) {
+		//check if cpl uuid is in assetmap
+		ImfLogger.getLogger().logDebug(Messages.VALIDATING_CPL_UUID_MSG, "AssetMap");
+		if (!assetMap.containsUuid(cplUuid)) {
+			String msg = String.format(Messages.CPL_ID_NOT_FOUND_FMT, cplUuid, "AssetMap");
+			results.add(newCplIdResult(cplUuid, msg));
+			ImfLogger.getLogger().logError(msg);
+		} else {
+			ImfLogger.getLogger().logDebug(Messages.CPL_ID_FOUND_FMT, cplUuid, "AssetMap");
+		}
+		
+		//check if cpl uuid is in packinglist
+		if (packingList != null) {
+			ImfLogger.getLogger().logDebug(Messages.VALIDATING_CPL_UUID_MSG, "PackageList");
+			if (!packingList.containsUuid(cplUuid)) {
+				String msg = String.format(Messages.CPL_ID_NOT_FOUND_FMT, cplUuid, "PackageList");
+				results.add(newCplIdResult(cplUuid, msg));
+				ImfLogger.getLogger().logError(msg);
+			} else {
+				ImfLogger.getLogger().logDebug(Messages.CPL_ID_FOUND_FMT, cplUuid, "PackingList");
+			}
+		}
+	}
+	
+	private void validateResource(BaseResource resource, ValidationResultList results) throws ImfXmlException {
+		//validate SourceDuration
+		ValidationResult durationValidation= validateSourceDuration(resource);
+		if(durationValidation.hasError()){
+			results.add(durationValidation);
+		}
+		//validate TrackFileResource
+		if (resource instanceof TrackFileResource) {
+			ValidationResult resourceValidation = validateTrackFileResource((TrackFileResource) resource);
+			if(resourceValidation.hasError()){
+				results.add(resourceValidation);
+			} else {
+				//validate Track file have valid MFX format
+				String trackFileId = ((TrackFileResource) resource).getTrackFileId();
+				ImfLogger.getLogger().logDebug(Messages.VALIDATING_ESSENCE_EXIST,  trackFileId);
+				String filePath = assetMap.getAssetResourcePath(trackFileId);
+				//validate that essence referenced by CPL exists
+				if (filePath != null) {
+					ImfLogger.getLogger().logDebug(Messages.REFERRENCED_ESSENCE_EXIST,  trackFileId);
+					String fileName = assetMap.getAssetByUuid(trackFileId).getChunkList().get(0).getPath();
+					ValidationResult mfxValidation = validateMFXResourceFile(fileName, filePath);
+					if (isCancelled()) {
+						return;
+					}
+					if (mfxValidation.hasError()) {
+						mfxValidation.setAssetUuid(trackFileId);
+						results.add(mfxValidation);
+					}
+				} else {
+					String msg = String.format(Messages.REFERRENCED_ESSENCE_NOT_EXIST, trackFileId);
+					ValidationResult result = new ValidationResult(true, msg, ValidationRule.CPL_ESSENCE_PRESENT);
+					result.setAssetUuid(trackFileId);
+					results.add(result);
 					ImfLogger.getLogger().logError(msg);
 				}
 			}
 		}
-		return  results;
+	}
+
+	/**
+	 * Validate uniqueness of Id and TrackId of the sequences of a segment in a single pass
+	 * 
+	 * @param sequences sequences of a segment, may be null
+	 * @return one error per sequence reusing an Id or TrackId of a previous sequence
+	 */
+	public static ValidationResultList validateSequenceUniqueness(List<Sequence> sequences) {
+		ValidationResultList results = new ValidationResultList();
+		if (sequences == null) {
+			return results;
+		}
+		Set<String> ids = new HashSet<String>();
+		Set<String> trackIds = new HashSet<String>();
+		for (Sequence seq : sequences) {
+			ImfLogger.getLogger().logDebug(Messages.VALIDATING_SEQUENCE_UUID_FMT, seq.getId());
+			if (seq.getId() != null && !ids.add(seq.getId())) {
+				String msg = String.format(Messages.SEQUENCE_NOT_UNIQUE_UUID_FMT, seq.getId());
+				results.add(new ValidationResult(true, msg, ValidationRule.CPL_SEQUENCE_UNIQUE));
+				ImfLogger.getLogger().logError(msg);
+			}
+			ImfLogger.getLogger().logDebug(Messages.VALIDATING_TRACK_ID_FMT, seq.getTrackId());
+			if (seq.getTrackId() != null && !trackIds.add(seq.getTrackId())) {
+				String msg = String.format(Messages.TRACK_NOT_UNIQUE_UUID_FMT, seq.getTrackId());
+				results.add(new ValidationResult(true, msg, ValidationRule.CPL_SEQUENCE_UNIQUE));
+				ImfLogger.getLogger().logError(msg);
+			}
+		}
+		return results;
+	}
+	
+	private ValidationResult newCplIdResult(String cplUuid, String msg) {
+		ValidationResult result = new ValidationResult(true, msg, ValidationRule.CPL_ID_LISTED);
+		result.setAssetUuid(cplUuid);
+		return result;
 	}
 	
-	private ValidationResult validateContentKind() {
+	private ValidationResult validateContentKind(ContentKind contentKind) {
 		ValidationResult result = new ValidationResult();
+		result.setRule(ValidationRule.CPL_CONTENT_KIND);
 		ImfLogger.getLogger().logDebug(Messages.VALIDATING_CONTENTKING_MSG);
-		ContentKind contentKind = compositionPlaylist.getContentKind();
 		if (contentKind != null) {
 			if ((contentKind.getScope() == null) ||
 					(contentKind.getScope().equals(SMPTE_CONTENTKING_URL))) {
@@ -270,48 +368,70 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 		return  result;
 	}
 	
-	private ValidationResult validateMFXResourceFile(String fileName, String filePath) {
+	private ValidationResult validateMFXResourceFile(String fileName, final String filePath) {
+		ImfLogger.getLogger().logDebug(Messages.VALIDATING_MXF_FILE_FMT, fileName);
+		ValidationResult result = mxfValidationCache.getValidationResult(filePath, new Callable<ValidationResult>() {
+			@Override
+			public ValidationResult call() {
+				if (cancellation == null) {
+					return parseMFXResourceFile(filePath);
+				}
+				//parsing is registered so that cancelling the package validation interrupts its reads
+				FutureTask<ValidationResult> parsing = new FutureTask<ValidationResult>(new Callable<ValidationResult>() {
+					@Override
+					public ValidationResult call() {
+						return parseMFXResourceFile(filePath);
+					}
+				});
+				cancellation.register(parsing);
+				parsing.run();
+				try {
+					return parsing.get();
+				} catch (CancellationException | InterruptedException | ExecutionException e) {
+					return new ValidationResult(true, String.format(Messages.MXF_PARSING_CANCELLED_FMT, filePath));
+				}
+			}
+		});
+		if (isCancelled()) {
+			//the interrupt was meant for the cancelled parsing, the outcome is not reported
+			Thread.interrupted();
+			return result;
+		}
+		if (result.hasError()) {
+			result.setRule(ValidationRule.MXF_FORMAT);
+			result.setFilePath(filePath);
+			ImfLogger.getLogger().logError(Messages.INVALID_MXF_FILE_FMT, fileName);
+			ImfLogger.getLogger().logError(result.getMessage());
+		} else {
+			ImfLogger.getLogger().logDebug(Messages.VALID_MXF_FILE_FMT, fileName);
+		}
+		return result;
+	}
+	
+	private ValidationResult parseMFXResourceFile(String filePath) {
 		ValidationResult result = new ValidationResult();
-		File inputFile = new File(filePath);
-		File workingDirectory = null;
-		ImfLogger.getLogger().logDebug(String.format(
-				Messages.VALIDATING_MXF_FILE_FMT, fileName));
-		try {
-			workingDirectory = Files.createTempDirectory("imf_").toFile();
-			ResourceByteRangeProvider resourceByteRangeProvider = new FileByteRangeProvider(inputFile);
-			MXFValidation imfEssenceComponentReader = new MXFValidation(workingDirectory, resourceByteRangeProvider);
-	        imfEssenceComponentReader.parse();
-	        ImfLogger.getLogger().logDebug(String.format(
-					Messages.VALID_MXF_FILE_FMT, fileName));
+		try (MXFFileRangeProvider rangeProvider = new MXFFileRangeProvider(new File(filePath))) {
+			MXFValidation imfEssenceComponentReader = new MXFValidation(rangeProvider);
+			imfEssenceComponentReader.parse();
 		} catch (MXFException e) {
-			ImfLogger.getLogger().logError(String.format(
-						Messages.INVALID_MXF_FILE_FMT, fileName));
 			result.setHasError(true);
 			result.setMessage(e.getMessage());
-			ImfLogger.getLogger().logError(e.getMessage());
 		} catch (IOException e) {
-			ImfLogger.getLogger().logError(String.format(
-					Messages.INVALID_MXF_FILE_FMT, fileName));
 			result.setHasError(true);
 			result.setMessage(e.getMessage());
-			ImfLogger.getLogger().logError(e.getMessage());
-		}
-		if (workingDirectory != null) {
-			try {
-				Path path = FileSystems.getDefault().getPath(workingDirectory.toPath().toString(), "range");
-				Files.deleteIfExists(path);
-				Files.deleteIfExists(workingDirectory.toPath());
-			} catch (IOException e) {
-				System.out.println(e.getMessage());
-			}
+		} catch (RuntimeException e) {
+			//parser may fail on missing header metadata sets instead of reporting them
+			result.setHasError(true);
+			result.setMessage(e.toString());
 		}
 		return result;
 	}
 
 	private ValidationResult validateSourceDuration(BaseResource res) {
 		ValidationResult result = new ValidationResult();
+		result.setRule(ValidationRule.CPL_SOURCE_DURATION);
 
-		ImfLogger.getLogger().logDebug(String.format(Messages.VALIDATING_SOURCEDURARION_FMT, res.getId()));
+		ImfLogger.getLogger().logDebug(Messages.VALIDATING_SOURCEDURARION_FMT, res.getId());
 		long intrinsicDuration = res.getIntrinsicDuration();
 		long entryPoint = res.getEntryPoint();
 		long sourceDuration = res.getSourceDuration();
@@ -342,7 +462,9 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 	private ValidationResult validateTrackFileResource(TrackFileResource res) throws ImfXmlException {
 		ValidationResult result = new ValidationResult();
 		String trackFileId = res.getTrackFileId();
-		ImfLogger.getLogger().logDebug(String.format(Messages.VALIDATING_TRACK_FILE_FMT, trackFileId));
+		result.setRule(ValidationRule.CPL_TRACK_FILE_LISTED);
+		result.setAssetUuid(trackFileId);
+		ImfLogger.getLogger().logDebug(Messages.VALIDATING_TRACK_FILE_FMT, trackFileId);
 		//validate that trackFileId exists in AssetMap
 		Asset asset = assetMap.getAssetByUuid(trackFileId);
 		if (asset == null) {
@@ -352,12 +474,12 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 			ImfLogger.getLogger().logError(msg);
 			return result;
 		} else {
-			ImfLogger.getLogger().logDebug(String.format(Messages.TRACK_FILE_FOUND_FMT, trackFileId, "AssetMap"));
+			ImfLogger.getLogger().logDebug(Messages.TRACK_FILE_FOUND_FMT, trackFileId, "AssetMap");
 		}
 		
 		//validate that Track file shall be application/mfx
 		if (packingList != null) {
-			ImfLogger.getLogger().logDebug(String.format(Messages.VALIDATING_MEDIA_TYPE_FMT, trackFileId));
+			ImfLogger.getLogger().logDebug(Messages.VALIDATING_MEDIA_TYPE_FMT, trackFileId);
 			PackingAsset packingAsset = packingList.getPackingAssetByUuid(trackFileId);
 			if (packingAsset == null) {
 				String msg = String.format(Messages.TRACK_FILE_NOT_FOUND_FMT, trackFileId, "PKL File");
@@ -368,9 +490,10 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 			}
 		
 			String mimeType = packingAsset.getType();
-			ImfLogger.getLogger().logDebug(String.format(Messages.TRACK_FILE_MEDIA_TYPE_FMT, trackFileId, mimeType));
+			ImfLogger.getLogger().logDebug(Messages.TRACK_FILE_MEDIA_TYPE_FMT, trackFileId, mimeType);
 			if (!mimeType.equalsIgnoreCase("application/mxf")) {
 				String msg = String.format(Messages.TRACK_INVALID_MIME_FMT, trackFileId);
+				result.setRule(ValidationRule.CPL_TRACK_FILE_MIME_TYPE);
 				result.setHasError(true);
 				result.setMessage(msg);
 				ImfLogger.getLogger().logWarning(msg);
@@ -379,9 +502,9 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 		
 		//validate repeatCount
 		if (res.getRepeatCount() > 0) {
-			ImfLogger.getLogger().logDebug(String.format(Messages.REPEAT_COUNT_VALUE, res.getRepeatCount()));
+			ImfLogger.getLogger().logDebug(Messages.REPEAT_COUNT_VALUE, res.getRepeatCount());
 		} else {
-			ImfLogger.getLogger().logDebug(String.format(Messages.ABSENT_REPEAT_COUNT_VALUE));
+			ImfLogger.getLogger().logDebug(Messages.ABSENT_REPEAT_COUNT_VALUE);
 		}
 		
 		return  result;
@@ -409,4 +532,12 @@ public class CompositionPlaylistValidator extends XmlResourceValidator {
 	public void setPackingList(PackingList packingList) {
 		this.packingList = packingList;
 	}
+	
+	/**
+	 * Set MXF validation cache shared with other CPL validators of the same run
+	 * @param mxfValidationCache
+	 */
+	public void setMXFValidationCache(MXFValidationCache mxfValidationCache) {
+		this.mxfValidationCache = mxfValidationCache;
+	}
 }
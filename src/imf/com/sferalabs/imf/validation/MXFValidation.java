@@ -1,10 +1,7 @@
 package com.sferalabs.imf.validation;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -21,13 +18,12 @@ import com.netflix.imflibrary.st0377.HeaderPartition;
 import com.netflix.imflibrary.st0377.PartitionPack;
 import com.netflix.imflibrary.st0377.RandomIndexPack;
 import com.netflix.imflibrary.st0377.header.EssenceContainerData;
-import com.netflix.imflibrary.utils.ResourceByteRangeProvider;
 import com.sferalabs.imf.util.MXFFileDataProvider;
+import com.sferalabs.imf.util.MXFFileRangeProvider;
 
 public class MXFValidation {
 
-	private final File workingDirectory;
-	private final ResourceByteRangeProvider resourceByteRangeProvider;
+	private final MXFFileRangeProvider rangeProvider;
 	private RandomIndexPack randomIndexPack;
 	private List<PartitionPack> partitionPacks;
 	private List<PartitionPack> referencedPartitionPacks;
@@ -36,13 +32,11 @@ public class MXFValidation {
 
 	/**
 	 * Lazily creates a model instance corresponding to a st2067-5 compliant MXF file
-	 * @param workingDirectory the working directory
-	 * @param resourceByteRangeProvider the MXF file represented as a {@link imflibrary.utils.ResourceByteRangeProvider}
+	 * @param rangeProvider the MXF file represented as a {@link com.sferalabs.imf.util.MXFFileRangeProvider}
 	 */
-	public MXFValidation(File workingDirectory, ResourceByteRangeProvider resourceByteRangeProvider)
+	public MXFValidation(MXFFileRangeProvider rangeProvider)
 	{
-		this.workingDirectory = workingDirectory;
-		this.resourceByteRangeProvider = resourceByteRangeProvider;
+		this.rangeProvider = rangeProvider;
 		this.imfErrorLogger = new IMFErrorLoggerImpl();
 	}
 
@@ -67,8 +61,7 @@ public class MXFValidation {
 
     private void setHeaderPartitionIMF(long inclusiveRangeStart, long inclusiveRangeEnd, IMFErrorLogger imfErrorLogger) throws IOException
     {
-        File fileWithHeaderPartition = this.resourceByteRangeProvider.getByteRange(inclusiveRangeStart, inclusiveRangeEnd, this.workingDirectory);
-        MXFFileDataProvider byteProvider = this.getByteProvider(fileWithHeaderPartition);
+        MXFFileDataProvider byteProvider = this.rangeProvider.getByteProvider(inclusiveRangeStart, inclusiveRangeEnd);
         try {
         	HeaderPartition headerPartition = new HeaderPartition(byteProvider, inclusiveRangeStart, inclusiveRangeEnd - inclusiveRangeStart + 1, imfErrorLogger);
         	//validate header partition
@@ -166,7 +159,7 @@ public class MXFValidation {
     
     private PartitionPack getPartitionPack(long resourceOffset) throws IOException
     {
-        long archiveFileSize = this.resourceByteRangeProvider.getResourceSize();
+        long archiveFileSize = this.rangeProvider.getResourceSize();
         KLVPacket.Header header;
         {//logic to provide as an input stream the portion of the archive that contains PartitionPack KLVPacker Header
             long rangeStart = resourceOffset;
@@ -174,8 +167,7 @@ public class MXFValidation {
                     (KLVPacket.KEY_FIELD_SIZE + KLVPacket.LENGTH_FIELD_SUFFIX_MAX_SIZE) -1;
             rangeEnd = rangeEnd < (archiveFileSize - 1) ? rangeEnd : (archiveFileSize - 1);
 
-            File fileWithPartitionPackKLVPacketHeader = this.resourceByteRangeProvider.getByteRange(rangeStart, rangeEnd, this.workingDirectory);
-            MXFFileDataProvider byteProvider = this.getByteProvider(fileWithPartitionPackKLVPacketHeader);
+            MXFFileDataProvider byteProvider = this.rangeProvider.getByteProvider(rangeStart, rangeEnd);
             try {
             	header = new KLVPacket.Header(byteProvider, resourceOffset);
             } finally {
@@ -193,8 +185,7 @@ public class MXFValidation {
                     -1;
             rangeEnd = rangeEnd < (archiveFileSize - 1) ? rangeEnd : (archiveFileSize - 1);
 
-            File fileWithPartitionPack = this.resourceByteRangeProvider.getByteRange(rangeStart, rangeEnd, this.workingDirectory);
-            MXFFileDataProvider byteProvider = this.getByteProvider(fileWithPartitionPack);
+            MXFFileDataProvider byteProvider = this.rangeProvider.getByteProvider(rangeStart, rangeEnd);
             try {
             	partitionPack = new PartitionPack(byteProvider, resourceOffset, true);
             } finally {
@@ -223,14 +214,13 @@ public class MXFValidation {
     private void setRandomIndexPack() throws IOException
     {
 
-        long archiveFileSize = this.resourceByteRangeProvider.getResourceSize();
+        long archiveFileSize = this.rangeProvider.getResourceSize();
         long randomIndexPackSize;
         {//logic to provide as an input stream the portion of the archive that contains randomIndexPack size
             long rangeEnd = archiveFileSize - 1;
             long rangeStart = archiveFileSize - 4;
 
-            File fileWithRandomIndexPackSize = this.resourceByteRangeProvider.getByteRange(rangeStart, rangeEnd, this.workingDirectory);
-            byte[] bytes = Files.readAllBytes(Paths.get(fileWithRandomIndexPackSize.toURI()));
+            byte[] bytes = this.rangeProvider.getByteRangeAsBytes(rangeStart, rangeEnd);
             randomIndexPackSize = (long)(ByteBuffer.wrap(bytes).getInt());
             if (randomIndexPackSize <= 0)
             {
@@ -249,8 +239,7 @@ public class MXFValidation {
                         randomIndexPackSize, archiveFileSize));
             }
 
-            File fileWithRandomIndexPack = this.resourceByteRangeProvider.getByteRange(rangeStart, rangeEnd, this.workingDirectory);
-            MXFFileDataProvider byteProvider = this.getByteProvider(fileWithRandomIndexPack);
+            MXFFileDataProvider byteProvider = this.rangeProvider.getByteProvider(rangeStart, rangeEnd);
             try {
             	randomIndexPack = new RandomIndexPack(byteProvider, rangeStart, randomIndexPackSize);
             } finally {
@@ -262,16 +251,6 @@ public class MXFValidation {
 
     }
 
-    private MXFFileDataProvider getByteProvider(File file) throws IOException {
-    	MXFFileDataProvider byteProvider;
-        Long size = file.length();
-        if(size <= 0){
-            throw new IOException(String.format("Range of bytes (%d) has to be +ve and non-zero", size));
-        }
-        byteProvider = new MXFFileDataProvider(file);
-        return byteProvider;
-    }
-
     /**
      * Parse the MFX File and perform validation
      * @throws MXFException if there's any error
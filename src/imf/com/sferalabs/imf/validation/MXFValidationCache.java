@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.validation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * MXFValidationCache class keeps MXF validation outcomes of a validation run, so that every
+ * essence file is parsed once however many resources and CPLs reference it. Entries are keyed
+ * by resolved file path, size and modification time. The cache can be shared by validators
+ * running concurrently, a file being parsed by one validator is awaited by the others.
+ * Least recently used entries are evicted once the maximal number of entries is exceeded.
+ */
+public class MXFValidationCache {
+	
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+	
+	private static class Messages {
+		public static final String VALIDATION_INTERRUPTED_FMT = "MXF validation of %s was interrupted";
+	}
+	
+	/**
+	 * Validation run remembering whether its thread was interrupted, reads of a cancelled
+	 * validation fail so its outcome can not be shared
+	 */
+	private static class ValidationTask extends FutureTask<ValidationResult> {
+		
+		private volatile boolean isInterrupted;
+		
+		public ValidationTask(Callable<ValidationResult> validation) {
+			super(validation);
+		}
+		
+		@Override
+		protected void set(ValidationResult result) {
+			//flag is published before the waiting threads are released
+			isInterrupted = Thread.currentThread().isInterrupted();
+			super.set(result);
+		}
+	}
+	
+	private final LinkedHashMap<String, ValidationTask> results;
+	
+	public MXFValidationCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+	
+	public MXFValidationCache(final int maxEntries) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("Maximal number of MXF validation cache entries should be positive");
+		}
+		results = new LinkedHashMap<String, ValidationTask>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ValidationTask> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+	
+	/**
+	 * Get validation result of given MXF file, validation is performed only if the file was not validated before
+	 * @param filePath resolved file path
+	 * @param validation validation of the file
+	 * @return copy of the validation result
+	 */
+	public ValidationResult getValidationResult(String filePath, Callable<ValidationResult> validation) {
+		String key = getKey(filePath);
+		try {
+			while (true) {
+				ValidationTask task = new ValidationTask(validation);
+				ValidationTask result = key == null ? null : putIfAbsent(key, task);
+				if (result == null) {
+					task.run();
+					result = task;
+				}
+				
+				ValidationResult cachedResult = result.get();
+				if (result.isInterrupted) {
+					//the outcome of a cancelled validation is not kept
+					if (key != null) {
+						remove(key, result);
+					}
+					if (result == task) {
+						return new ValidationResult(true, String.format(Messages.VALIDATION_INTERRUPTED_FMT, filePath));
+					}
+					//validation run by another thread was interrupted, validate again
+					continue;
+				}
+				ValidationResult copy = new ValidationResult(cachedResult.hasError(), cachedResult.getMessage());
+				copy.setCriticalError(cachedResult.isCriticalError());
+				return copy;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new ValidationResult(true, String.format(Messages.VALIDATION_INTERRUPTED_FMT, filePath));
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+	
+	/**
+	 * Get number of validated files
+	 * @return size
+	 */
+	public int size() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+	
+	private ValidationTask putIfAbsent(String key, ValidationTask task) {
+		synchronized (results) {
+			ValidationTask result = results.get(key);
+			if (result == null) {
+				results.put(key, task);
+			}
+			return result;
+		}
+	}
+	
+	private void remove(String key, ValidationTask task) {
+		synchronized (results) {
+			if (results.get(key) == task) {
+				results.remove(key);
+			}
+		}
+	}
+	
+	private static String getKey(String filePath) {
+		File file = new File(filePath);
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			return file.getAbsolutePath() + "|" + attributes.size() + "|" + attributes.lastModifiedTime().toMillis();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+}
@@ -32,12 +32,17 @@
  */
 package com.sferalabs.imf.validation;
 
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import javax.xml.bind.DatatypeConverter;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 
 import org.xml.sax.SAXException;
 
@@ -47,7 +52,10 @@ import com.sferalabs.imf.model.assetmap.AssetMap;
 import com.sferalabs.imf.model.packinglist.PackingAsset;
 import com.sferalabs.imf.model.packinglist.PackingList;
 import com.sferalabs.imf.saxhandler.SaxPackingListHandler;
+import com.sferalabs.imf.util.ImfFileFingerprint;
 import com.sferalabs.imf.util.ImfHashAlgorithm;
+import com.sferalabs.imf.util.ImfHashCache;
+import com.sferalabs.imf.util.ImfHashEngine;
 import com.sferalabs.imf.util.ImfHelper;
 import com.sferalabs.imf.util.ImfLogger;
 import com.sferalabs.imf.xsd.ImfXsds;
@@ -63,7 +71,10 @@ public class PackingListValidator extends XmlResourceValidator {
 		public final static String UUID_NOT_FOUND_FMT =			"%s is not found in AssetMap";
 		public final static String UUID_FOUND_FMT =				"%s is found in AssetMap";
 		public final static String FILE_HASH_VALUE_FMT =		"File %s hash value is %s";
+		public final static String FILE_EXTRA_HASH_VALUE_FMT =	"File %s %s value is %s";
 		public final static String HASH_MISMATCH_FMT =			"File %s hash value (%s) does not match expected value (%s)";
+		public final static String HASH_FAILED_FMT =			"Unable to calculate hash value of file %s";
+		public final static String HASH_INTERRUPTED_MSG =		"Hash calculation was interrupted";
 		public final static String FILE_SIZE_FMT =				"File %s size is %d";
 		public final static String FILE_SIZE_MISMATCH_FMT =		"File %s size value (%s) does not match expected value (%s)";
 		public final static String MIME_TYPE_FMT =				"File %s mime type is %s";
@@ -72,21 +83,24 @@ public class PackingListValidator extends XmlResourceValidator {
 	private PackingList packingList;
 	private AssetMap assetMap;
 	private ImfHashAlgorithm hashAlgo;
+	private Set<ImfHashAlgorithm> extraHashAlgos;
 	private boolean skipHashChecking;
+	private int hashThreadCount;
+	private ImfHashEngine hashEngine;
+	private ImfHashCache hashCache;
 	
 	public PackingListValidator(String path) {
 		super(path);
 		resourcePath = ImfXsds.PACKAGING_LIST_XSD;
 		hashAlgo = ImfHashAlgorithm.SHA1;
+		extraHashAlgos = EnumSet.noneOf(ImfHashAlgorithm.class);
+		hashThreadCount = ImfHashEngine.getDefaultThreadCount();
 	}
 
 	@Override
 	public ValidationResult parse() throws IOException, ParserConfigurationException, SAXException {
-		ValidationResult result = validateXsd();
-		SAXParserFactory parserFactor = SAXParserFactory.newInstance();
-		SAXParser parser = parserFactor.newSAXParser();
 		SaxPackingListHandler handler = new SaxPackingListHandler();
-		parser.parse(new FileInputStream(filePath), handler);
+		ValidationResult result = parseWithXsd(handler);
 		packingList = handler.getPackingList();
 		return result;
 	}
@@ -99,58 +113,165 @@ public class PackingListValidator extends XmlResourceValidator {
 		
 		//check if uuid is unique
 		ImfLogger.getLogger().logDebug(Messages.CHECKING_UNIQUENESS_MSG);
-		ValidationResultList results = ImfHelper.getInstance().checkUuidsUnique(packingList.getAllUuids());
+		ValidationResultList results = newResultList();
+		results.addAll(ImfHelper.getInstance().checkUuidsUnique(packingList.getAllUuids()));
 		
+		ImfHashEngine engine = null;
+		boolean isEngineOwned = false;
+		try {
+			//schedule single pass fingerprint of all assets, results are collected below in PackingList order
+			Map<PackingAsset, Future<ImfFileFingerprint>> hashResults = new HashMap<PackingAsset, Future<ImfFileFingerprint>>();
+			if (!skipHashChecking) {
+				for (PackingAsset packingAsset : packingList.getAssetList()) {
+					if (packingAsset.getUuid() == null || assetMap.getAssetByUuid(packingAsset.getUuid()) == null) {
+						continue;
+					}
+					String assetPath = assetMap.getAssetResourcePath(packingAsset.getUuid());
+					if (assetPath != null) {
+						if (engine == null) {
+							engine = hashEngine;
+							if (engine == null) {
+								engine = new ImfHashEngine(hashThreadCount);
+								isEngineOwned = true;
+							}
+						}
+						Set<ImfHashAlgorithm> hashAlgos = EnumSet.noneOf(ImfHashAlgorithm.class);
+						hashAlgos.addAll(extraHashAlgos);
+						hashAlgos.add(getExpectedHashAlgorithm(packingAsset));
+						Future<ImfFileFingerprint> hashResult = engine.submit(assetPath, hashAlgos, hashCache);
+						if (cancellation != null) {
+							cancellation.register(hashResult);
+						}
+						hashResults.put(packingAsset, hashResult);
+					}
+				}
+			}
+			validateAssets(hashResults, results);
+		} finally {
+			if (isEngineOwned) {
+				engine.shutdown();
+			}
+		}
+		return results;
+	}
+	
+	private void validateAssets(Map<PackingAsset, Future<ImfFileFingerprint>> hashResults, ValidationResultList results)
+			throws ImfXmlException {
 		for (PackingAsset packingAsset : packingList.getAssetList()) {
+			if (isCancelled()) {
+				//outstanding hash calculations were cancelled with the validation
+				return;
+			}
 			if (packingAsset.getUuid()!=null) {
 				//check if uuid is found in AssetMap
 				Asset asset = assetMap.getAssetByUuid(packingAsset.getUuid());
 				if (asset==null) {
 					String msg = String.format(Messages.UUID_NOT_FOUND_FMT, packingAsset.getUuid());
-					results.add(new ValidationResult(true, msg));
+					results.add(newAssetResult(msg, ValidationRule.PKL_ASSET_IN_ASSETMAP, packingAsset, null));
 					ImfLogger.getLogger().logError(msg);
 				} else {
-					ImfLogger.getLogger().logDebug(String.format(Messages.UUID_FOUND_FMT, packingAsset.getUuid()));
+					ImfLogger.getLogger().logDebug(Messages.UUID_FOUND_FMT, packingAsset.getUuid());
 					String assetPath = assetMap.getAssetResourcePath(packingAsset.getUuid());
 					
 					//check if assetPath exists
 					if (assetPath != null) {
 						//check hash value
+						ImfFileFingerprint fingerprint = null;
 						if (!skipHashChecking) {
-							String hashValue = ImfHelper.getInstance().getBase64FileHash(assetPath, hashAlgo);
-							ImfLogger.getLogger().logDebug(String.format(Messages.FILE_HASH_VALUE_FMT, assetPath, hashValue));
-							if (!hashValue.equals(packingAsset.getHash())) {
+							fingerprint = waitForHash(hashResults.get(packingAsset));
+							if (isCancelled()) {
+								return;
+							}
+							ImfHashAlgorithm expectedHashAlgo = getExpectedHashAlgorithm(packingAsset);
+							String hashValue = fingerprint == null ? null : fingerprint.getBase64Hash(expectedHashAlgo);
+							ImfLogger.getLogger().logDebug(Messages.FILE_HASH_VALUE_FMT, assetPath, hashValue);
+							if (fingerprint != null && ImfLogger.getLogger().isDebugEnabled()) {
+								for (Map.Entry<ImfHashAlgorithm, String> entry : fingerprint.getBase64Hashes().entrySet()) {
+									if (entry.getKey() != expectedHashAlgo) {
+										ImfLogger.getLogger().logDebug(Messages.FILE_EXTRA_HASH_VALUE_FMT,
+												assetPath, entry.getKey(), entry.getValue());
+									}
+								}
+							}
+							if (hashValue == null) {
+								String msg = String.format(Messages.HASH_FAILED_FMT, assetPath);
+								ValidationResult result = newAssetResult(msg, ValidationRule.PKL_HASH, packingAsset, assetPath);
+								result.setSeverity(ValidationSeverity.ERROR);
+								results.add(result);
+								ImfLogger.getLogger().logError(msg);
+							} else if (!hashValue.equals(packingAsset.getHash())) {
 								String msg = String.format(Messages.HASH_MISMATCH_FMT,
 										assetPath, hashValue, packingAsset.getHash());
-								results.add(new ValidationResult(true, msg));
+								results.add(newAssetResult(msg, ValidationRule.PKL_HASH, packingAsset, assetPath));
 								ImfLogger.getLogger().logWarning(msg);
 							}
 						}
 
-						//check file size
-						long size = ImfHelper.getInstance().getFileSize(assetPath);
-						ImfLogger.getLogger().logDebug(String.format(Messages.FILE_SIZE_FMT, assetPath, size));
+						//check file size, counted during the hash pass when available
+						long size = fingerprint == null ? ImfHelper.getInstance().getFileSize(assetPath) : fingerprint.getSize();
+						ImfLogger.getLogger().logDebug(Messages.FILE_SIZE_FMT, assetPath, size);
 						if (size!=packingAsset.getSize()) {
 							String msg = String.format(Messages.FILE_SIZE_MISMATCH_FMT,
 									assetPath, size, packingAsset.getSize());
-							results.add(new ValidationResult(true, msg));
+							results.add(newAssetResult(msg, ValidationRule.PKL_SIZE, packingAsset, assetPath));
 							ImfLogger.getLogger().logWarning(msg);
 						}
 						
 						//check mime file type
 						String mimeType = ImfHelper.getInstance().getMimeFileType(assetPath);
-						ImfLogger.getLogger().logDebug(String.format(Messages.MIME_TYPE_FMT, assetPath, mimeType));
+						ImfLogger.getLogger().logDebug(Messages.MIME_TYPE_FMT, assetPath, mimeType);
 						if (!mimeType.equals(packingAsset.getType())) {
 							String msg = String.format(Messages.MIME_TYPE_MISMATCH_FMT,
 									assetPath, mimeType, packingAsset.getType());
-							results.add(new ValidationResult(true, msg));
+							results.add(newAssetResult(msg, ValidationRule.PKL_MIME_TYPE, packingAsset, assetPath));
 							ImfLogger.getLogger().logWarning(msg);
 						}
 					}
 				}
 			}
 		}
-		return results;
+	}
+	
+	private static ValidationResult newAssetResult(String msg, ValidationRule rule, PackingAsset packingAsset, String assetPath) {
+		ValidationResult result = new ValidationResult(true, msg, rule);
+		result.setAssetUuid(packingAsset.getUuid());
+		result.setFilePath(assetPath);
+		return result;
+	}
+	
+	/**
+	 * Get algorithm of the PackingList hash value, PKL schema does not carry the
+	 * algorithm so it is inferred from the decoded length
+	 * @param packingAsset
+	 * @return algorithm matching the hash length, configured algorithm if it cannot be inferred
+	 */
+	private ImfHashAlgorithm getExpectedHashAlgorithm(PackingAsset packingAsset) {
+		if (packingAsset.getHash() == null) {
+			return hashAlgo;
+		}
+		try {
+			ImfHashAlgorithm algo = ImfHashAlgorithm.fromHashLength(
+					DatatypeConverter.parseBase64Binary(packingAsset.getHash()).length);
+			return algo == null ? hashAlgo : algo;
+		} catch (IllegalArgumentException e) {
+			return hashAlgo;
+		}
+	}
+	
+	private ImfFileFingerprint waitForHash(Future<ImfFileFingerprint> hashResult) throws ImfXmlException {
+		if (hashResult == null) {
+			return null;
+		}
+		try {
+			return hashResult.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ImfXmlException(Messages.HASH_INTERRUPTED_MSG);
+		} catch (ExecutionException e) {
+			return null;
+		} catch (CancellationException e) {
+			return null;
+		}
 	}
 	
 	/**
@@ -170,12 +291,21 @@ public class PackingListValidator extends XmlResourceValidator {
 	}
 	
 	/**
-	 * Set algorithm to use to hash the file
+	 * Set algorithm to use to hash the file when it cannot be inferred from the PackingList hash value
 	 * @param algo
 	 */
 	public void setHashAlgorithm(ImfHashAlgorithm algo) {
 		hashAlgo = algo;
 	}
+	
+	/**
+	 * Set additional algorithms calculated in the same pass as the checked hash value
+	 * @param algos
+	 */
+	public void setExtraHashAlgorithms(Set<ImfHashAlgorithm> algos) {
+		extraHashAlgos = EnumSet.noneOf(ImfHashAlgorithm.class);
+		extraHashAlgos.addAll(algos);
+	}
 
 	/**
 	 * Check if hask checking is enabled
@@ -192,4 +322,28 @@ public class PackingListValidator extends XmlResourceValidator {
 	public void setSkipHashChecking(boolean skipHashChecking) {
 		this.skipHashChecking = skipHashChecking;
 	}
+
+	/**
+	 * Set number of threads used to calculate hash values of assets
+	 * @param hashThreadCount
+	 */
+	public void setHashThreadCount(int hashThreadCount) {
+		this.hashThreadCount = hashThreadCount;
+	}
+
+	/**
+	 * Set shared hash engine, a private engine is created during validation if unset
+	 * @param hashEngine
+	 */
+	public void setHashEngine(ImfHashEngine hashEngine) {
+		this.hashEngine = hashEngine;
+	}
+
+	/**
+	 * Set hash cache consulted before an asset is read, unchanged assets are not rehashed
+	 * @param hashCache
+	 */
+	public void setHashCache(ImfHashCache hashCache) {
+		this.hashCache = hashCache;
+	}
 }
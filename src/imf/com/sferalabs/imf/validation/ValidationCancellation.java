@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.validation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts results of a package validation and cancels the validation once its stop condition is met.
+ * Validators check {@link #isCancelled()} between steps, work running on other threads (hashing,
+ * CPL validation) is registered to be cancelled with an interrupt, which closes the file channels
+ * it is reading. Results are forwarded to a listener, such as a report writer.
+ */
+public class ValidationCancellation implements ValidationResultListener {
+	
+	private final ValidationStopCondition condition;
+	private final ValidationResultListener listener;
+	private final AtomicInteger errorCount = new AtomicInteger();
+	private final Queue<Future<?>> registeredWork = new ConcurrentLinkedQueue<Future<?>>();
+	private volatile boolean isCancelled;
+	
+	/**
+	 * Instantiates a cancellation of a package validation
+	 * @param condition condition cancelling the validation
+	 * @param listener listener receiving all results, may be null
+	 */
+	public ValidationCancellation(ValidationStopCondition condition, ValidationResultListener listener) {
+		this.condition = condition;
+		this.listener = listener;
+	}
+	
+	@Override
+	public void resultAdded(ValidationResult result) {
+		if (listener != null) {
+			listener.resultAdded(result);
+		}
+		if (condition.matches(result) && errorCount.incrementAndGet() == condition.getErrorCount()) {
+			cancel();
+		}
+	}
+	
+	/**
+	 * Cancel the validation, registered work still running is interrupted
+	 */
+	public void cancel() {
+		isCancelled = true;
+		Future<?> work;
+		while ((work = registeredWork.poll()) != null) {
+			work.cancel(true);
+		}
+	}
+	
+	/**
+	 * Register work to cancel with the validation, it is cancelled at once if the validation already is
+	 * @param work
+	 */
+	public void register(Future<?> work) {
+		registeredWork.add(work);
+		if (isCancelled) {
+			cancel();
+		}
+	}
+	
+	/**
+	 * Check if the validation was cancelled
+	 * @return isCancelled
+	 */
+	public boolean isCancelled() {
+		return isCancelled;
+	}
+	
+	/**
+	 * Get condition cancelling the validation
+	 * @return condition
+	 */
+	public ValidationStopCondition getCondition() {
+		return condition;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.validation;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import com.sferalabs.imf.util.ImfLogger;
+
+/**
+ * Writes validation results as newline delimited JSON while validation runs. Each result
+ * is written and flushed when it is received, so the report can be read from a pipe or
+ * tailed. Results without error and without message are skipped. Closing the writer adds
+ * a summary line with the count of results by severity.
+ */
+public class ValidationReportWriter implements ValidationResultListener, Closeable {
+	
+	private static class Messages {
+		public static final String WRITE_FAILED_FMT = "Unable to write validation report: %s";
+	}
+	
+	private final Writer writer;
+	private final long startTime = System.currentTimeMillis();
+	private final SimpleDateFormat dateFormat;
+	private final Map<ValidationSeverity, Integer> counts = new EnumMap<ValidationSeverity, Integer>(ValidationSeverity.class);
+	private String packagePath;
+	private boolean hasFailed;
+	
+	/**
+	 * Instantiates a report writer to the given file or named pipe
+	 * @param path
+	 * @throws IOException
+	 */
+	public ValidationReportWriter(String path) throws IOException {
+		this(new FileOutputStream(path));
+	}
+	
+	/**
+	 * Instantiates a report writer to the given stream, closed with the writer
+	 * @param outputStream
+	 */
+	public ValidationReportWriter(OutputStream outputStream) {
+		writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+		dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+		for (ValidationSeverity severity : ValidationSeverity.values()) {
+			counts.put(severity, 0);
+		}
+	}
+	
+	/**
+	 * Set path of the validated package, written in the summary
+	 * @param packagePath
+	 */
+	public synchronized void setPackagePath(String packagePath) {
+		this.packagePath = packagePath;
+	}
+	
+	@Override
+	public synchronized void resultAdded(ValidationResult result) {
+		if (!result.hasError() && (result.getMessage() == null || result.getMessage().isEmpty())) {
+			return;
+		}
+		ValidationSeverity severity = result.getSeverity();
+		counts.put(severity, counts.get(severity) + 1);
+		
+		StringBuilder line = new StringBuilder(256);
+		line.append("{\"type\":\"result\"");
+		appendField(line, "timestamp", dateFormat.format(new Date(result.getTimestamp())));
+		line.append(",\"elapsedMs\":").append(result.getTimestamp() - startTime);
+		appendField(line, "ruleId", result.getRule() == null ? null : result.getRule().name());
+		appendField(line, "severity", severity.name());
+		appendField(line, "assetUuid", result.getAssetUuid());
+		appendField(line, "file", result.getFilePath());
+		appendField(line, "message", result.getMessage());
+		line.append('}');
+		writeLine(line);
+	}
+	
+	/**
+	 * Write summary line and close the report
+	 * @throws IOException
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		long endTime = System.currentTimeMillis();
+		StringBuilder line = new StringBuilder(256);
+		line.append("{\"type\":\"summary\"");
+		appendField(line, "timestamp", dateFormat.format(new Date(endTime)));
+		line.append(",\"elapsedMs\":").append(endTime - startTime);
+		appendField(line, "package", packagePath);
+		for (Map.Entry<ValidationSeverity, Integer> entry : counts.entrySet()) {
+			line.append(",\"").append(entry.getKey().name().toLowerCase()).append("\":").append(entry.getValue());
+		}
+		line.append('}');
+		writeLine(line);
+		writer.close();
+	}
+	
+	private void writeLine(StringBuilder line) {
+		if (hasFailed) {
+			return;
+		}
+		try {
+			writer.write(line.append('\n').toString());
+			writer.flush();
+		} catch (IOException e) {
+			//a closed pipe should not stop validation, the error is logged once
+			hasFailed = true;
+			ImfLogger.getLogger().logWarning(Messages.WRITE_FAILED_FMT, e.getMessage());
+		}
+	}
+	
+	private static void appendField(StringBuilder line, String name, String value) {
+		line.append(",\"").append(name).append("\":");
+		appendJsonString(line, value);
+	}
+	
+	/**
+	 * Append a value as a quoted JSON string
+	 * @param line
+	 * @param value null is appended as JSON null
+	 */
+	public static void appendJsonString(StringBuilder line, String value) {
+		if (value == null) {
+			line.append("null");
+			return;
+		}
+		line.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					line.append("\\\"");
+					break;
+				case '\\':
+					line.append("\\\\");
+					break;
+				case '\n':
+					line.append("\\n");
+					break;
+				case '\r':
+					line.append("\\r");
+					break;
+				case '\t':
+					line.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						line.append(String.format("\\u%04x", (int) c));
+					} else {
+						line.append(c);
+					}
+					break;
+			}
+		}
+		line.append('"');
+	}
+}
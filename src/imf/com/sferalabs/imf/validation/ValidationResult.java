@@ -49,6 +49,27 @@ public class ValidationResult {
 
     private boolean isErrorCritical;
 
+    private ValidationRule rule;
+
+    private ValidationSeverity severity;
+
+    /**
+     * Uuid of the asset the result is about, null if not related to an asset
+     */
+    private String assetUuid;
+
+    /**
+     * Path of the validated file
+     */
+    private String filePath;
+
+    /**
+     * Creation time in milliseconds since epoch
+     */
+    private final long timestamp = System.currentTimeMillis();
+
+    private boolean isReported;
+
     public ValidationResult(){
         this.message = "";
     }
@@ -58,6 +79,12 @@ public class ValidationResult {
         this.message = message;
     }
 
+    public ValidationResult(boolean hasError, String message, ValidationRule rule) {
+        this.hasErr = hasError;
+        this.message = message;
+        this.rule = rule;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -82,4 +109,67 @@ public class ValidationResult {
     {
         isErrorCritical = critical;
     }
+
+    public ValidationRule getRule() {
+        return rule;
+    }
+
+    public void setRule(ValidationRule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * Get severity, set explicitly or derived from error status and rule
+     *
+     * @return severity
+     */
+    public ValidationSeverity getSeverity() {
+        if (severity != null) {
+            return severity;
+        }
+        if (isErrorCritical) {
+            return ValidationSeverity.CRITICAL;
+        }
+        if (!hasErr) {
+            return ValidationSeverity.INFO;
+        }
+        return rule == null ? ValidationSeverity.ERROR : rule.getSeverity();
+    }
+
+    public void setSeverity(ValidationSeverity severity) {
+        this.severity = severity;
+    }
+
+    public String getAssetUuid() {
+        return assetUuid;
+    }
+
+    public void setAssetUuid(String assetUuid) {
+        this.assetUuid = assetUuid;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Mark result as delivered to listeners
+     *
+     * @return false if it was already delivered
+     */
+    synchronized boolean markReported() {
+        if (isReported) {
+            return false;
+        }
+        isReported = true;
+        return true;
+    }
 }
@@ -33,6 +33,9 @@
 package com.sferalabs.imf.validation;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * ValidationResultList represents collection of ValidationResult
@@ -45,8 +48,147 @@ public class ValidationResultList extends ArrayList<ValidationResult> {
 	 */
 	private static final long serialVersionUID = 1L;
 
+	private transient ValidationResultListener listener;
+
+	/**
+	 * File path set on added results having none
+	 */
+	private String defaultFilePath;
+
+	/**
+	 * Added results are kept, otherwise they are only delivered to the listener and counted
+	 */
+	private boolean isRetainingResults = true;
+	private final Map<ValidationSeverity, Integer> droppedCounts = newSeverityCounts();
+	private boolean hasDroppedError;
+	private boolean hasDroppedCriticalError;
+
+	public ValidationResultList()
+	{
+	}
+
+	/**
+	 * Instantiates a list delivering added results to the given listener
+	 *
+	 * @param listener listener, may be null
+	 */
+	public ValidationResultList(ValidationResultListener listener)
+	{
+		this.listener = listener;
+	}
+
+	public ValidationResultListener getListener()
+	{
+		return listener;
+	}
+
+	public void setListener(ValidationResultListener listener)
+	{
+		this.listener = listener;
+	}
+
+	public void setDefaultFilePath(String defaultFilePath)
+	{
+		this.defaultFilePath = defaultFilePath;
+	}
+
+	/**
+	 * Set whether added results are kept. When they are not, results are delivered to the listener
+	 * and only counted, so that {@link #containsError()}, {@link #containsCriticalError()} and
+	 * {@link #getSeverityCounts()} still cover them while the list stays empty
+	 *
+	 * @param isRetainingResults false when the listener already records every result
+	 */
+	public void setRetainingResults(boolean isRetainingResults)
+	{
+		this.isRetainingResults = isRetainingResults;
+	}
+
+	@Override
+	public boolean add(ValidationResult result)
+	{
+		if (!isRetainingResults) {
+			resultDropped(result);
+			return true;
+		}
+		boolean isAdded = super.add(result);
+		resultAdded(result);
+		return isAdded;
+	}
+
+	@Override
+	public void add(int index, ValidationResult result)
+	{
+		if (!isRetainingResults) {
+			resultDropped(result);
+			return;
+		}
+		super.add(index, result);
+		resultAdded(result);
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends ValidationResult> results)
+	{
+		if (!isRetainingResults) {
+			for (ValidationResult result : results) {
+				resultDropped(result);
+			}
+			return !results.isEmpty();
+		}
+		boolean isChanged = super.addAll(results);
+		for (ValidationResult result : results) {
+			resultAdded(result);
+		}
+		return isChanged;
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends ValidationResult> results)
+	{
+		if (!isRetainingResults) {
+			return addAll(results);
+		}
+		boolean isChanged = super.addAll(index, results);
+		for (ValidationResult result : results) {
+			resultAdded(result);
+		}
+		return isChanged;
+	}
+
+	private void resultDropped(ValidationResult result)
+	{
+		if (result == null) {
+			return;
+		}
+		resultAdded(result);
+		if (result.hasError()) {
+			hasDroppedError = true;
+		}
+		if (result.isCriticalError()) {
+			hasDroppedCriticalError = true;
+		}
+		countResult(droppedCounts, result);
+	}
+
+	private void resultAdded(ValidationResult result)
+	{
+		if (result == null) {
+			return;
+		}
+		if (defaultFilePath != null && result.getFilePath() == null) {
+			result.setFilePath(defaultFilePath);
+		}
+		if (listener != null && result.markReported()) {
+			listener.resultAdded(result);
+		}
+	}
+
 	public boolean containsCriticalError()
     {
+        if (hasDroppedCriticalError) {
+            return true;
+        }
         for (ValidationResult result: this)
         {
             if(result.isCriticalError()) {
@@ -57,6 +199,9 @@ public class ValidationResultList extends ArrayList<ValidationResult> {
     }
     public boolean containsError()
     {
+        if (hasDroppedError) {
+            return true;
+        }
         for (ValidationResult result: this)
         {
             if(result.hasError()) {
@@ -65,4 +210,34 @@ public class ValidationResultList extends ArrayList<ValidationResult> {
         }
         return false;
     }
+
+    /**
+     * Count results by severity, results without error and without message are not counted
+     * @return count of every severity
+     */
+    public Map<ValidationSeverity, Integer> getSeverityCounts()
+    {
+        Map<ValidationSeverity, Integer> counts = new EnumMap<ValidationSeverity, Integer>(droppedCounts);
+        for (ValidationResult result: this)
+        {
+            countResult(counts, result);
+        }
+        return counts;
+    }
+
+    private static Map<ValidationSeverity, Integer> newSeverityCounts()
+    {
+        Map<ValidationSeverity, Integer> counts = new EnumMap<ValidationSeverity, Integer>(ValidationSeverity.class);
+        for (ValidationSeverity severity : ValidationSeverity.values()) {
+            counts.put(severity, 0);
+        }
+        return counts;
+    }
+
+    private static void countResult(Map<ValidationSeverity, Integer> counts, ValidationResult result)
+    {
+        if (result.hasError() || (result.getMessage() != null && !result.getMessage().isEmpty())) {
+            counts.put(result.getSeverity(), counts.get(result.getSeverity()) + 1);
+        }
+    }
 }
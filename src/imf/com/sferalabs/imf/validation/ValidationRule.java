@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.validation;
+
+/**
+ * Validation rules reported in validation results, with the severity of a failure
+ */
+public enum ValidationRule {
+	/** Document does not follow its xsd schema or cannot be parsed */
+	XSD(ValidationSeverity.ERROR),
+	/** Uuid is used more than once in a document */
+	UUID_UNIQUE(ValidationSeverity.ERROR),
+	/** Asset listed in ASSETMAP is missing from the packages */
+	ASSET_PRESENT(ValidationSeverity.CRITICAL),
+	/** PackingList asset is not listed in ASSETMAP */
+	PKL_ASSET_IN_ASSETMAP(ValidationSeverity.ERROR),
+	/** File hash differs from PackingList */
+	PKL_HASH(ValidationSeverity.WARNING),
+	/** File size differs from PackingList */
+	PKL_SIZE(ValidationSeverity.WARNING),
+	/** File media type differs from PackingList */
+	PKL_MIME_TYPE(ValidationSeverity.WARNING),
+	/** CPL Id is not listed in ASSETMAP or PackingList */
+	CPL_ID_LISTED(ValidationSeverity.ERROR),
+	/** ContentKind value is not permitted */
+	CPL_CONTENT_KIND(ValidationSeverity.WARNING),
+	/** Sequence Id or TrackId is used more than once in a segment */
+	CPL_SEQUENCE_UNIQUE(ValidationSeverity.ERROR),
+	/** Resource durations are inconsistent */
+	CPL_SOURCE_DURATION(ValidationSeverity.WARNING),
+	/** Track file is not listed in ASSETMAP or PackingList */
+	CPL_TRACK_FILE_LISTED(ValidationSeverity.ERROR),
+	/** Track file media type is not application/mxf */
+	CPL_TRACK_FILE_MIME_TYPE(ValidationSeverity.WARNING),
+	/** Track file referenced by CPL is missing from the packages */
+	CPL_ESSENCE_PRESENT(ValidationSeverity.CRITICAL),
+	/** Track file is not a valid MXF file */
+	MXF_FORMAT(ValidationSeverity.ERROR);
+	
+	private final ValidationSeverity severity;
+	
+	private ValidationRule(ValidationSeverity severity) {
+		this.severity = severity;
+	}
+	
+	/**
+	 * Get severity of a failure of the rule
+	 * @return severity
+	 */
+	public ValidationSeverity getSeverity() {
+		return severity;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.validation;
+
+/**
+ * Condition stopping the validation of a package early: a number of errors of at least a given severity
+ */
+public final class ValidationStopCondition {
+	
+	public static final ValidationStopCondition FIRST_ERROR = new ValidationStopCondition(ValidationSeverity.ERROR, 1);
+	public static final ValidationStopCondition FIRST_CRITICAL = new ValidationStopCondition(ValidationSeverity.CRITICAL, 1);
+	
+	private final ValidationSeverity severity;
+	private final int errorCount;
+	
+	public ValidationStopCondition(ValidationSeverity severity, int errorCount) {
+		if (errorCount < 1) {
+			throw new IllegalArgumentException("Number of errors should be positive");
+		}
+		this.severity = severity;
+		this.errorCount = errorCount;
+	}
+	
+	/**
+	 * Parse a condition given on the command line
+	 * @param value first-error, first-critical or a number of errors
+	 * @return condition, null if the value is invalid
+	 */
+	public static ValidationStopCondition parse(String value) {
+		switch (value.trim().toLowerCase()) {
+			case "first-error":
+				return FIRST_ERROR;
+			case "first-critical":
+				return FIRST_CRITICAL;
+			default:
+				try {
+					int errorCount = Integer.parseInt(value.trim());
+					return errorCount < 1 ? null : new ValidationStopCondition(ValidationSeverity.ERROR, errorCount);
+				} catch (NumberFormatException e) {
+					return null;
+				}
+		}
+	}
+	
+	/**
+	 * Check if a result counts toward the condition
+	 * @param result
+	 * @return true if the result is an error of the severity of the condition or above
+	 */
+	public boolean matches(ValidationResult result) {
+		return result.hasError() && result.getSeverity().compareTo(severity) >= 0;
+	}
+	
+	/**
+	 * Get lowest severity of counted errors
+	 * @return severity
+	 */
+	public ValidationSeverity getSeverity() {
+		return severity;
+	}
+	
+	/**
+	 * Get number of counted errors stopping the validation
+	 * @return errorCount
+	 */
+	public int getErrorCount() {
+		return errorCount;
+	}
+	
+	@Override
+	public String toString() {
+		String kind = severity == ValidationSeverity.CRITICAL ? "critical error" : "error";
+		return errorCount == 1 ? "first " + kind : errorCount + " " + kind + "s";
+	}
+}
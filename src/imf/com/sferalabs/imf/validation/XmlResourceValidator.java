@@ -33,17 +33,26 @@
 package com.sferalabs.imf.validation;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.validation.ValidatorHandler;
 
+import org.xml.sax.ContentHandler;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
 
 import com.sferalabs.imf.exception.ImfXmlException;
 import com.sferalabs.imf.util.ImfLogger;
+import com.sferalabs.imf.util.ImfSaxParserPool;
 import com.sferalabs.imf.xsd.ImfXsds;
 
 /**
@@ -58,9 +67,35 @@ public abstract class XmlResourceValidator {
 		public static final String NOT_FOLLOW_XSD_FMT = "%s does not follow xsd schema";
 		public static final String FILE_NOT_EXIST_FMT = "%s does not exist";
 	}
+	
+	/**
+	 * Records the first xsd violation and lets parsing continue, so that the model is
+	 * still built from an invalid document. Malformed xml stops parsing.
+	 */
+	private static class XsdErrorHandler implements ErrorHandler {
+		private SAXException firstError;
+		
+		@Override
+		public void warning(SAXParseException exception) {
+		}
+		
+		@Override
+		public void error(SAXParseException exception) {
+			if (firstError == null) {
+				firstError = exception;
+			}
+		}
+		
+		@Override
+		public void fatalError(SAXParseException exception) throws SAXException {
+			throw exception;
+		}
+	}
 
 	protected String filePath;
 	protected String resourcePath; 
+	protected ValidationResultListener resultListener;
+	protected ValidationCancellation cancellation;
 	
 	public XmlResourceValidator(String path) {
 		filePath = path;
@@ -83,6 +118,41 @@ public abstract class XmlResourceValidator {
 		resourcePath = filePath;
 	}
 	
+	/**
+	 * Set listener receiving validation results as soon as they are found
+	 * @param resultListener listener, null to disable
+	 */
+	public void setResultListener(ValidationResultListener resultListener) {
+		this.resultListener = resultListener;
+	}
+	
+	/**
+	 * Set cancellation of the package validation, validation stops early once it is cancelled
+	 * @param cancellation cancellation, null if validation is never cancelled
+	 */
+	public void setCancellation(ValidationCancellation cancellation) {
+		this.cancellation = cancellation;
+	}
+	
+	/**
+	 * Check if the package validation was cancelled
+	 * @return true if remaining checks should be skipped
+	 */
+	protected boolean isCancelled() {
+		return cancellation != null && cancellation.isCancelled();
+	}
+	
+	/**
+	 * Create a result list delivering results to the listener, results
+	 * without file path are reported for the validated xml file
+	 * @return empty list
+	 */
+	protected ValidationResultList newResultList() {
+		ValidationResultList results = new ValidationResultList(resultListener);
+		results.setDefaultFilePath(filePath);
+		return results;
+	}
+	
 	/**
 	 * Validate xml file with given xsd file
 	 * @throws SAXException
@@ -90,35 +160,97 @@ public abstract class XmlResourceValidator {
 	 */
 	public ValidationResult validateXsd() throws IOException {
 		ValidationResult result = new ValidationResult();
+		checkXmlResource();
+		ImfLogger.getLogger().logDebug(Messages.VERIFYING_XSD_FMT, filePath);
+		try {
+			ImfXsds.getInstance().validateXmlAgainsXsdResource(filePath, resourcePath);
+		} catch (SAXException e) {
+			reportXsdError(e, result);
+			return result;
+		}
+		ImfLogger.getLogger().logDebug(Messages.FOLLOW_XSD_FMT, filePath);
+		return result;
+	}
+	
+	/**
+	 * Parse xml file in a single pass, parser events are validated against xsd
+	 * and passed on to the given handler
+	 * @param handler model building handler
+	 * @return result of xsd validation
+	 * @throws IOException
+	 * @throws ParserConfigurationException
+	 * @throws SAXException if xml file is malformed or handler fails
+	 */
+	protected ValidationResult parseWithXsd(ContentHandler handler)
+			throws IOException, ParserConfigurationException, SAXException {
+		ValidationResult result = new ValidationResult();
+		checkXmlResource();
+		ImfLogger.getLogger().logDebug(Messages.VERIFYING_XSD_FMT, filePath);
 		
-		if (resourcePath == null) {
-			ImfLogger.getLogger().logError(Messages.XSD_NOT_PROVIDED_MSG);
-			throw new IOException(Messages.XSD_NOT_PROVIDED_MSG);
+		XsdErrorHandler errorHandler = new XsdErrorHandler();
+		ContentHandler contentHandler = handler;
+		try {
+			ValidatorHandler validatorHandler = ImfXsds.getInstance().getSchema(resourcePath).newValidatorHandler();
+			validatorHandler.setErrorHandler(errorHandler);
+			validatorHandler.setContentHandler(handler);
+			contentHandler = validatorHandler;
+		} catch (SAXException e) {
+			//xsd cannot be compiled, the model is still built without validation
+			errorHandler.firstError = e;
 		}
 		
-		if (exists()) {
-			ImfLogger.getLogger().logDebug(String.format(Messages.VERIFYING_XSD_FMT, filePath));
-			try {
-				ImfXsds.getInstance().validateXmlAgainsXsdResource(filePath, resourcePath);
-			} catch (SAXException e) {
-				ImfLogger.getLogger().logError(String.format(Messages.NOT_FOLLOW_XSD_FMT, filePath));
-				result.setHasError(true);
-				result.setMessage(String.format(Messages.VERIFYING_XSD_FMT, filePath));
-				SAXParseException spe = (SAXParseException) e;
-				if (spe != null) {
-					String message = "Line: " + spe.getLineNumber() + " Col: " + spe.getColumnNumber() + " " + spe.getMessage();
-					ImfLogger.getLogger().logError(message);
-				}
-				return result;
+		SAXParser parser = ImfSaxParserPool.acquire();
+		XMLReader reader = parser.getXMLReader();
+		reader.setContentHandler(contentHandler);
+		reader.setErrorHandler(errorHandler);
+		try (InputStream inputStream = new FileInputStream(filePath)) {
+			InputSource source = new InputSource(inputStream);
+			source.setSystemId(new File(filePath).toURI().toString());
+			reader.parse(source);
+		} catch (SAXException | RuntimeException e) {
+			//report xsd violation found before the parser or the handler gave up
+			if (errorHandler.firstError != null) {
+				reportXsdError(errorHandler.firstError, result);
+			} else if (e instanceof SAXException) {
+				reportXsdError((SAXException) e, result);
 			}
-			ImfLogger.getLogger().logDebug(String.format(Messages.FOLLOW_XSD_FMT, filePath));
+			throw e;
+		} finally {
+			ImfSaxParserPool.release(parser);
+		}
+		
+		if (errorHandler.firstError != null) {
+			reportXsdError(errorHandler.firstError, result);
 		} else {
-			ImfLogger.getLogger().logError(String.format(Messages.FILE_NOT_EXIST_FMT, filePath));
-			throw new IOException(String.format(Messages.FILE_NOT_EXIST_FMT, filePath));
+			ImfLogger.getLogger().logDebug(Messages.FOLLOW_XSD_FMT, filePath);
 		}
 		return result;
 	}
 	
+	private void checkXmlResource() throws IOException {
+		if (resourcePath == null) {
+			ImfLogger.getLogger().logError(Messages.XSD_NOT_PROVIDED_MSG);
+			throw new IOException(Messages.XSD_NOT_PROVIDED_MSG);
+		}
+		if (!exists()) {
+			ImfLogger.getLogger().logError(Messages.FILE_NOT_EXIST_FMT, filePath);
+			throw new IOException(String.format(Messages.FILE_NOT_EXIST_FMT, filePath));
+		}
+	}
+	
+	private void reportXsdError(SAXException e, ValidationResult result) {
+		ImfLogger.getLogger().logError(Messages.NOT_FOLLOW_XSD_FMT, filePath);
+		result.setHasError(true);
+		result.setMessage(String.format(Messages.VERIFYING_XSD_FMT, filePath));
+		result.setRule(ValidationRule.XSD);
+		result.setFilePath(filePath);
+		if (e instanceof SAXParseException) {
+			SAXParseException spe = (SAXParseException) e;
+			String message = "Line: " + spe.getLineNumber() + " Col: " + spe.getColumnNumber() + " " + spe.getMessage();
+			ImfLogger.getLogger().logError(message);
+		}
+	}
+	
 	/**
 	 * Parse the given xml file
 	 * @throws SAXException
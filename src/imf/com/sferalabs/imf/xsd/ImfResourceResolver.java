@@ -90,12 +90,13 @@ public class ImfResourceResolver implements LSResourceResolver {
 	}
 	
 	/**
-	 * Set cached resource of schemaLocation
+	 * Set cached resource of schemaLocation, compiled schemas are discarded
 	 * @param schemaLocation
 	 * @param cachedResource
 	 */
 	public void setResource(String schemaLocation, String cachedResource) {
 		nmap.put(schemaLocation, cachedResource);
+		ImfXsds.getInstance().clearSchemas();
 	}
 	
 	@Override
@@ -38,6 +38,8 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.XMLConstants;
 import javax.xml.transform.Source;
@@ -65,6 +67,9 @@ public final class ImfXsds {
 	private static ImfXsds instance;
 	private static Object mutex = new Object();
 	
+	/** Compiled schemas keyed by xsd resource path, Schema objects are immutable and thread-safe */
+	private final ConcurrentMap<String, Schema> schemas = new ConcurrentHashMap<String, Schema>();
+	
 	public static ImfXsds getInstance() {
 		if (instance == null) {
 			synchronized (mutex) {
@@ -100,24 +105,69 @@ public final class ImfXsds {
 	}
 
 	/**
-	 * Validate given xml file again specified xsd resource
-	 * @param xmlFilePath xml file path
+	 * Get compiled schema of specified xsd resource, the schema is compiled on first use
 	 * @param xsd_resource_path xsd resource
-	 * @throws SAXException if xmlFile is not followed xsd
-	 * @throws IOException if file path is invalid
+	 * @return compiled schema
+	 * @throws SAXException if xsd resource is invalid
+	 * @throws IOException if xsd resource does not exist
 	 */
-	public void validateXmlAgainsXsdResource(String xmlFilePath, String xsd_resource_path) throws SAXException, IOException {
-		Source xmlFile = new StreamSource(new File(xmlFilePath));
+	public Schema getSchema(String xsd_resource_path) throws SAXException, IOException {
+		Schema schema = schemas.get(xsd_resource_path);
+		if (schema == null) {
+			synchronized (schemas) {
+				schema = schemas.get(xsd_resource_path);
+				if (schema == null) {
+					schema = compileSchema(xsd_resource_path);
+					schemas.put(xsd_resource_path, schema);
+				}
+			}
+		}
+		return schema;
+	}
+	
+	/**
+	 * Compile schemas of all embedded xsd resources used by validators
+	 * @throws SAXException if xsd resource is invalid
+	 * @throws IOException if xsd resource does not exist
+	 */
+	public void preloadSchemas() throws SAXException, IOException {
+		getSchema(ASSET_MAP_XSD);
+		getSchema(PACKAGING_LIST_XSD);
+		getSchema(CORE_CONSTRAINTS_XSD);
+	}
+	
+	/**
+	 * Remove all compiled schemas, they are compiled again on next use
+	 */
+	public void clearSchemas() {
+		schemas.clear();
+	}
+	
+	private Schema compileSchema(String xsd_resource_path) throws SAXException, IOException {
 		SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
 		LSResourceResolver resourceResolver = (LSResourceResolver) ImfResourceResolver.getInstance();
 		schemaFactory.setResourceResolver(resourceResolver);
 		InputStream xsd_source = loadXsdResource(xsd_resource_path);
-		if (xsd_source != null) {
-			Schema schema = schemaFactory.newSchema(new StreamSource(xsd_source));
-			Validator validator = schema.newValidator();
-			validator.validate(xmlFile);
-		} else {
+		if (xsd_source == null) {
 			throw new IOException(xsd_resource_path + " does not exists");
 		}
+		try {
+			return schemaFactory.newSchema(new StreamSource(xsd_source));
+		} finally {
+			xsd_source.close();
+		}
+	}
+
+	/**
+	 * Validate given xml file again specified xsd resource
+	 * @param xmlFilePath xml file path
+	 * @param xsd_resource_path xsd resource
+	 * @throws SAXException if xmlFile is not followed xsd
+	 * @throws IOException if file path is invalid
+	 */
+	public void validateXmlAgainsXsdResource(String xmlFilePath, String xsd_resource_path) throws SAXException, IOException {
+		Source xmlFile = new StreamSource(new File(xmlFilePath));
+		Validator validator = getSchema(xsd_resource_path).newValidator();
+		validator.validate(xmlFile);
 	}
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sferalabs.imf.model.assetmap.Asset;
+import com.sferalabs.imf.model.assetmap.AssetMap;
+
+/**
+ * Resolves every asset of an ASSETMAP by uuid, as CPL validation does for each track file
+ * resource, with the AssetMap index and with the former linear scan. The time of the scan
+ * grows with the square of assetCount, the indexed lookup linearly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AssetLookupBenchmark {
+	
+	@Param({"100", "1000", "10000"})
+	public int assetCount;
+	
+	private AssetMap assetMap;
+	private List<String> lookups;
+	
+	@Setup
+	public void createAssetMap() {
+		List<Asset> assets = new ArrayList<Asset>();
+		lookups = new ArrayList<String>();
+		for (int i = 0; i < assetCount; i++) {
+			Asset asset = new Asset();
+			asset.setUuid("urn:uuid:" + UUID.randomUUID());
+			assets.add(asset);
+			//copy the uuid as parsed CPL strings are not the AssetMap instances
+			lookups.add(new String(asset.getUuid()));
+		}
+		Collections.shuffle(lookups, new Random(assetCount));
+		assetMap = new AssetMap();
+		assetMap.setAssetList(assets);
+	}
+	
+	@Benchmark
+	public int indexedLookup() {
+		int found = 0;
+		for (String uuid : lookups) {
+			if (assetMap.getAssetByUuid(uuid) != null) {
+				found++;
+			}
+		}
+		return found;
+	}
+	
+	@Benchmark
+	public int linearLookup() {
+		int found = 0;
+		for (String uuid : lookups) {
+			if (scanAssetByUuid(uuid) != null) {
+				found++;
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * Baseline: AssetMap.getAssetByUuid before the index
+	 */
+	private Asset scanAssetByUuid(String uuid) {
+		for (Asset asset : assetMap.getAssetList()) {
+			if (asset.getUuid() != null) {
+				if (uuid.equals(asset.getUuid()))
+					return asset;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+import com.sferalabs.imf.model.compositionplaylist.CompositionPlaylist;
+import com.sferalabs.imf.saxhandler.SaxCompositionPlaylistHandler;
+import com.sferalabs.imf.util.ImfLogger;
+import com.sferalabs.imf.validation.CompositionPlaylistValidator;
+import com.sferalabs.imf.validation.ValidationResult;
+
+/**
+ * Parsing of small and huge CPLs: SaxCompositionPlaylistHandler alone, and the validator
+ * parse building the model while the core constraints xsd is checked in the same pass.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CplParsingBenchmark {
+	
+	@Param({"1", "5000"})
+	public int segmentCount;
+	
+	private File file;
+	private SAXParserFactory parserFactory;
+	
+	@Setup(Level.Trial)
+	public void createCpl() throws IOException {
+		file = SyntheticCpl.create(segmentCount);
+		parserFactory = SAXParserFactory.newInstance();
+		parserFactory.setNamespaceAware(true);
+		ImfLogger.getLogger().disableDebugLog();
+	}
+	
+	@TearDown(Level.Trial)
+	public void deleteCpl() throws IOException {
+		SyntheticCpl.delete(file);
+	}
+	
+	@Benchmark
+	public CompositionPlaylist saxHandler() throws IOException, ParserConfigurationException, SAXException {
+		SAXParser parser = parserFactory.newSAXParser();
+		SaxCompositionPlaylistHandler handler = new SaxCompositionPlaylistHandler();
+		parser.parse(file, handler);
+		return handler.getCompositionPlaylist();
+	}
+	
+	@Benchmark
+	public ValidationResult validatorParse() throws IOException, ParserConfigurationException, SAXException {
+		CompositionPlaylistValidator validator = new CompositionPlaylistValidator(file.getAbsolutePath());
+		return validator.parse();
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sferalabs.imf.util.ImfHashAlgorithm;
+import com.sferalabs.imf.util.ImfHelper;
+
+/**
+ * File hashing throughput of ImfHelper compared with the former 1 KB stream loop.
+ * The "megabytes" counter reports MB/s. The file is read from the page cache after
+ * the first invocation, so the numbers show per-byte overhead rather than disk speed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImfHashBenchmark {
+	
+	@Param({"1", "16", "512"})
+	public int fileSizeMb;
+	
+	@Param({"SHA1", "SHA256"})
+	public ImfHashAlgorithm hashAlgorithm;
+	
+	private File file;
+	
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Throughput {
+		public long megabytes;
+		
+		@Setup(Level.Iteration)
+		public void reset() {
+			megabytes = 0;
+		}
+	}
+	
+	@Setup(Level.Trial)
+	public void createFile() throws IOException {
+		file = File.createTempFile("imf-hash-", ".mxf");
+		byte[] chunk = new byte[1024 * 1024];
+		new Random(fileSizeMb).nextBytes(chunk);
+		try (FileOutputStream outputStream = new FileOutputStream(file)) {
+			for (int i = 0; i < fileSizeMb; i++) {
+				outputStream.write(chunk);
+			}
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void deleteFile() {
+		file.delete();
+	}
+	
+	@Benchmark
+	public String channelHash(Throughput throughput) {
+		String hash = ImfHelper.getInstance().getBase64FileHash(file.getAbsolutePath(), hashAlgorithm);
+		throughput.megabytes += fileSizeMb;
+		return hash;
+	}
+	
+	@Benchmark
+	public String streamHash(Throughput throughput) throws IOException, NoSuchAlgorithmException {
+		String hash = streamFileHash(file.getAbsolutePath(), hashAlgorithm);
+		throughput.megabytes += fileSizeMb;
+		return hash;
+	}
+	
+	/**
+	 * Baseline: hashing loop used by ImfHelper before the FileChannel backend
+	 * @param filepath
+	 * @param hashAlgo
+	 * @return calculated hash value
+	 */
+	private static String streamFileHash(String filepath, ImfHashAlgorithm hashAlgo) throws IOException, NoSuchAlgorithmException {
+		try (FileInputStream inputStream = new FileInputStream(filepath)) {
+			MessageDigest digest;
+			if (hashAlgo == ImfHashAlgorithm.SHA256)
+				digest = MessageDigest.getInstance("SHA-256");
+			else
+				digest = MessageDigest.getInstance("SHA-1");
+			
+			byte[] bytesBuffer = new byte[1024];
+			int bytesRead = -1;
+			while ((bytesRead = inputStream.read(bytesBuffer)) != -1) {
+				digest.update(bytesBuffer, 0, bytesRead);
+			}
+			return DatatypeConverter.printBase64Binary(digest.digest());
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netflix.imflibrary.KLVPacket;
+import com.netflix.imflibrary.utils.ByteProvider;
+import com.sferalabs.imf.util.MXFFileDataProvider;
+import com.sferalabs.imf.util.MXFFileRangeProvider;
+
+/**
+ * Reads a synthetic header partition made of KLV sets the way Photon parses header metadata:
+ * KLV header through KLVPacket.Header, then the value. Compares MXFFileDataProvider with the
+ * former stream based provider. Run with -Pjmh.args="-prof gc" to see allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MXFFileDataProviderBenchmark {
+	
+	/** Key of a local set with a 4 byte BER length, as written for header metadata sets */
+	private static final byte[] SET_KEY = {
+		0x06, 0x0e, 0x2b, 0x34, 0x02, 0x53, 0x01, 0x01, 0x0d, 0x01, 0x01, 0x01, 0x01, 0x01, 0x2f, 0x00 };
+	
+	@Param({"1000", "10000"})
+	public int setCount;
+	
+	@Param({"96"})
+	public int setValueSize;
+	
+	private File file;
+	private MXFFileRangeProvider rangeProvider;
+	
+	@Setup(Level.Trial)
+	public void createHeaderPartition() throws IOException {
+		file = File.createTempFile("imf-header-", ".mxf");
+		byte[] value = new byte[setValueSize];
+		new Random(setCount).nextBytes(value);
+		ByteBuffer length = ByteBuffer.allocate(4);
+		length.put((byte) 0x83).put((byte) (setValueSize >> 16)).put((byte) (setValueSize >> 8)).put((byte) setValueSize);
+		try (FileOutputStream outputStream = new FileOutputStream(file)) {
+			for (int i = 0; i < setCount; i++) {
+				outputStream.write(SET_KEY);
+				outputStream.write(length.array());
+				outputStream.write(value);
+			}
+		}
+		rangeProvider = new MXFFileRangeProvider(file);
+	}
+	
+	@TearDown(Level.Trial)
+	public void deleteHeaderPartition() throws IOException {
+		rangeProvider.close();
+		file.delete();
+	}
+	
+	@Benchmark
+	public long pooledProvider() throws IOException {
+		MXFFileDataProvider byteProvider = rangeProvider.getByteProvider(0, rangeProvider.getResourceSize() - 1);
+		try {
+			return parseSets(byteProvider);
+		} finally {
+			byteProvider.close();
+		}
+	}
+	
+	@Benchmark
+	public long streamProvider() throws IOException {
+		try (StreamDataProvider byteProvider = new StreamDataProvider(file)) {
+			return parseSets(byteProvider);
+		}
+	}
+	
+	private long parseSets(ByteProvider byteProvider) throws IOException {
+		long offset = 0;
+		long checksum = 0;
+		for (int i = 0; i < setCount; i++) {
+			KLVPacket.Header header = new KLVPacket.Header(byteProvider, offset);
+			byte[] value = byteProvider.getBytes((int) header.getVSize());
+			checksum += value[0];
+			offset += KLVPacket.KEY_FIELD_SIZE + header.getLSize() + header.getVSize();
+		}
+		return checksum;
+	}
+	
+	/**
+	 * Baseline: MXFFileDataProvider before the read-ahead buffer
+	 */
+	private static class StreamDataProvider implements ByteProvider, AutoCloseable {
+		
+		private final InputStream inputStream;
+		
+		private StreamDataProvider(File file) throws IOException {
+			inputStream = new FileInputStream(file);
+		}
+		
+		@Override
+		public synchronized byte[] getBytes(int totalNumBytesToRead) throws IOException {
+			byte[] bytes = new byte[totalNumBytesToRead];
+			Integer bytesRead = 0;
+			Integer totalBytesRead = 0;
+			while (bytesRead != -1 && bytesRead < totalNumBytesToRead) {
+				bytesRead = inputStream.read(bytes, totalBytesRead, totalNumBytesToRead);
+				if (bytesRead != -1) {
+					totalBytesRead += bytesRead;
+					totalNumBytesToRead -= bytesRead;
+				}
+			}
+			return bytes;
+		}
+		
+		@Override
+		public synchronized void skipBytes(long totalNumBytesToSkip) throws IOException {
+			inputStream.skip(totalNumBytesToSkip);
+		}
+		
+		@Override
+		public void close() throws IOException {
+			inputStream.close();
+		}
+	}
+}
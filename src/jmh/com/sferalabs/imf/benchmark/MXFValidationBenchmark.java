@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netflix.imflibrary.st0377.RandomIndexPack;
+import com.sferalabs.imf.util.MXFFileRangeProvider;
+import com.sferalabs.imf.validation.MXFValidation;
+import com.sferalabs.tool.imf.ImfPackageGenerator;
+
+/**
+ * MXFValidation on a minimal OP1A track file written by ImfPackageGenerator: random index pack
+ * alone, and the whole parse reading partition packs and header metadata. The file is valid, so an
+ * MXFException fails the benchmark. Cost should not depend on the essence size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MXFValidationBenchmark {
+	
+	@Param({"0", "1073741824"})
+	public long essenceSize;
+	
+	private File file;
+	
+	@Setup(Level.Trial)
+	public void createMXF() throws IOException {
+		file = File.createTempFile("imf-essence-", ".mxf");
+		ImfPackageGenerator.writeMXF(file, essenceSize, UUID.randomUUID(), false);
+	}
+	
+	@TearDown(Level.Trial)
+	public void deleteMXF() {
+		file.delete();
+	}
+	
+	@Benchmark
+	public RandomIndexPack randomIndexPack() throws IOException {
+		try (MXFFileRangeProvider rangeProvider = new MXFFileRangeProvider(file)) {
+			return new MXFValidation(rangeProvider).getRandomIndexPack();
+		}
+	}
+	
+	@Benchmark
+	public MXFValidation parse() throws IOException {
+		try (MXFFileRangeProvider rangeProvider = new MXFFileRangeProvider(file)) {
+			MXFValidation validation = new MXFValidation(rangeProvider);
+			validation.parse();
+			return validation;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sferalabs.imf.model.compositionplaylist.Sequence;
+import com.sferalabs.imf.util.ImfLogger;
+import com.sferalabs.imf.validation.CompositionPlaylistValidator;
+import com.sferalabs.imf.validation.ValidationResult;
+import com.sferalabs.imf.validation.ValidationResultList;
+
+/**
+ * Uniqueness check of the Id and TrackId of the sequences of a synthetic segment, with the
+ * single pass check of CompositionPlaylistValidator and with the former pairwise comparison.
+ * Debug logging is disabled, as it is by default.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SequenceUniquenessBenchmark {
+	
+	@Param({"500"})
+	public int sequenceCount;
+	
+	private List<Sequence> sequences;
+	
+	@Setup
+	public void createSegment() {
+		ImfLogger.getLogger().disableDebugLog();
+		sequences = new ArrayList<Sequence>();
+		for (int i = 0; i < sequenceCount; i++) {
+			Sequence sequence = new Sequence();
+			sequence.setId("urn:uuid:" + UUID.randomUUID());
+			sequence.setTrackId("urn:uuid:" + UUID.randomUUID());
+			sequences.add(sequence);
+		}
+	}
+	
+	@Benchmark
+	public ValidationResultList singlePass() {
+		return CompositionPlaylistValidator.validateSequenceUniqueness(sequences);
+	}
+	
+	@Benchmark
+	public ValidationResultList pairwise() {
+		return pairwiseUniqueness(sequences);
+	}
+	
+	/**
+	 * Baseline: CompositionPlaylistValidator.validateExtensionSequence before the single pass check
+	 */
+	private static ValidationResultList pairwiseUniqueness(List<Sequence> sequences) {
+		ValidationResultList results = new ValidationResultList();
+		for (int i = 0; i < sequences.size(); i++) {
+			Sequence seq = sequences.get(i);
+			for (int j = i+1; j < sequences.size(); j++) {
+				Sequence other_seq = sequences.get(j);
+				ImfLogger.getLogger().logDebug(String.format("Validating uniqueness of Sequence Id %s in a segment", seq.getId()));
+				if (other_seq.getId().equals(seq.getId())) {
+					results.add(new ValidationResult(true, seq.getId()));
+				} else {
+					ImfLogger.getLogger().logDebug(String.format("Validating uniqueness of Sequence Track Id %s in a segment", seq.getTrackId()));
+				}
+				if (other_seq.getTrackId().equals(seq.getTrackId())) {
+					results.add(new ValidationResult(true, seq.getTrackId()));
+				}
+			}
+		}
+		return results;
+	}
+}
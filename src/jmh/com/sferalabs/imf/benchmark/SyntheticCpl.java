@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sferalabs.imf.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import com.sferalabs.tool.imf.ImfPackageGenerator;
+
+/**
+ * Generates a package with ImfPackageGenerator in a temporary folder and gives its CPL,
+ * with a main image and a main audio sequence in every segment.
+ */
+final class SyntheticCpl {
+	
+	private SyntheticCpl() {
+	}
+	
+	/**
+	 * Generate a package holding one CPL
+	 * @param segmentCount number of segments
+	 * @return the CPL file, to be deleted with {@link #delete}
+	 * @throws IOException
+	 */
+	static File create(int segmentCount) throws IOException {
+		File folder = Files.createTempDirectory("imf-cpl-").toFile();
+		ImfPackageGenerator generator = new ImfPackageGenerator();
+		generator.setSegmentCount(segmentCount);
+		generator.setEssenceSize(0);
+		File packageFolder = new File(generator.generate(folder).get(0));
+		for (File file : packageFolder.listFiles()) {
+			if (file.getName().startsWith("CPL_")) {
+				return file;
+			}
+		}
+		throw new IOException("CPL was not generated in " + packageFolder);
+	}
+	
+	/**
+	 * Delete the package of a CPL
+	 * @param cplFile
+	 * @throws IOException
+	 */
+	static void delete(File cplFile) throws IOException {
+		Files.walkFileTree(cplFile.getParentFile().getParentFile().toPath(), new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+			
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+}
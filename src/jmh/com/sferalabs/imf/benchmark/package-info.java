@@ -0,0 +1,4 @@
+/**
+ * This package contains JMH benchmark classes
+ */
+package com.sferalabs.imf.benchmark;
@@ -39,6 +39,10 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -46,6 +50,9 @@ import org.junit.Test;
 import org.xml.sax.SAXException;
 
 import com.sferalabs.imf.exception.ImfXmlException;
+import com.sferalabs.imf.model.assetmap.Asset;
+import com.sferalabs.imf.model.assetmap.AssetMap;
+import com.sferalabs.imf.model.assetmap.Chunk;
 import com.sferalabs.imf.model.imfpackage.ImfPackage;
 import com.sferalabs.imf.util.ImfLogger;
 import com.sferalabs.imf.validation.AssetMapValidator;
@@ -112,6 +119,60 @@ public class AssetMapValidatorTest {
 		}
 	}
 	
+	@Test
+	public void testAssetResourcePaths() throws IOException {
+		Path folder = Files.createTempDirectory("imf-assetmap");
+		try {
+			Path mainPackage = Files.createDirectories(folder.resolve("SUPPLEMENTAL"));
+			Path dependentPackage = Files.createDirectories(folder.resolve("OV"));
+			Files.createDirectories(mainPackage.resolve("sub"));
+			Files.createFile(mainPackage.resolve("sub").resolve("nested.mxf"));
+			Files.createFile(mainPackage.resolve("shared.mxf"));
+			Files.createFile(dependentPackage.resolve("shared.mxf"));
+			Files.createFile(dependentPackage.resolve("ov.mxf"));
+			
+			ImfPackage pack = new ImfPackage(mainPackage.toString());
+			pack.setDependantPackageList(Arrays.asList(dependentPackage.toString()));
+			AssetMap assetMap = new AssetMap();
+			assetMap.setImfPackage(pack);
+			assetMap.setAssetList(Arrays.asList(createAsset("nested", "sub/nested.mxf"), createAsset("shared", "shared.mxf"),
+					createAsset("ov", "ov.mxf"), createAsset("late", "late.mxf"), createAsset("missing", "missing.mxf")));
+			
+			//the snapshot lists the files of both packages
+			Set<Path> packageFiles = pack.getPackageFiles();
+			assertTrue(packageFiles.contains(mainPackage.resolve("sub").resolve("nested.mxf").toAbsolutePath().normalize()));
+			assertTrue(packageFiles.contains(dependentPackage.resolve("ov.mxf").toAbsolutePath().normalize()));
+			
+			//created after the snapshot, found by probing the file system
+			Files.createFile(mainPackage.resolve("late.mxf"));
+			assertFalse(pack.getPackageFiles().contains(mainPackage.resolve("late.mxf").toAbsolutePath().normalize()));
+			
+			assertEquals(mainPackage.resolve("sub/nested.mxf").toAbsolutePath().toString(), assetMap.getAssetResourcePath("nested"));
+			//the package itself comes before its dependent packages
+			assertEquals(mainPackage.resolve("shared.mxf").toAbsolutePath().toString(), assetMap.getAssetResourcePath("shared"));
+			assertEquals(dependentPackage.resolve("ov.mxf").toAbsolutePath().toString(), assetMap.getAssetResourcePath("ov"));
+			assertEquals(mainPackage.resolve("late.mxf").toAbsolutePath().toString(), assetMap.getAssetResourcePath("late"));
+			assertNull(assetMap.getAssetResourcePath("missing"));
+			assertNull(assetMap.getAssetResourcePath("unknown"));
+			
+			//without dependent packages, assets of the OV are not found
+			assetMap.setImfPackage(new ImfPackage(mainPackage.toString()));
+			assertNull(assetMap.getAssetResourcePath("ov"));
+			assertEquals(mainPackage.resolve("shared.mxf").toAbsolutePath().toString(), assetMap.getAssetResourcePath("shared"));
+		} finally {
+			TestFolders.deleteFolder(folder);
+		}
+	}
+	
+	private static Asset createAsset(String uuid, String path) {
+		Chunk chunk = new Chunk();
+		chunk.setPath(path);
+		Asset asset = new Asset();
+		asset.setUuid(uuid);
+		asset.setChunkList(Arrays.asList(chunk));
+		return asset;
+	}
+	
 	private void performValidityTest(URL folderPath)
 			throws SAXException, IOException, ParserConfigurationException,
 			ImfXmlException, URISyntaxException {
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.sferalabs.imf.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.sferalabs.tool.imf.ImfPackageGenerator;
+import com.sferalabs.tool.imf.ImfValidator;
+
+public class BatchValidationTest {
+	
+	@Test
+	public void testBatchFile() throws IOException {
+		Path folder = Files.createTempDirectory("imf-batch");
+		try {
+			List<String> packagePaths = generatePackages(folder.resolve("packages").toFile());
+			String ov = packagePaths.get(0);
+			String supplemental = packagePaths.get(1);
+			
+			//comments and blank lines are skipped, dependent packages follow the package after tabs
+			File batchFile = folder.resolve("batch.txt").toFile();
+			List<String> lines = Arrays.asList("# supplemental package with its OV", "", supplemental + "\t" + ov + "\t",
+					"  # OV alone", ov, supplemental);
+			Files.write(batchFile.toPath(), lines, StandardCharsets.UTF_8);
+			
+			File reportFolder = folder.resolve("reports").toFile();
+			ImfValidator.main(new String[] {"--batch", batchFile.getPath(), "--report", reportFolder.getPath(), "--cpl-threads", "1"});
+			
+			List<String> summary = readSummary(reportFolder, 3);
+			assertPackageLine(summary.get(0), supplemental, "00001-SUPPLEMENTAL_1.ndjson");
+			assertPackageLine(summary.get(1), ov, "00002-OV.ndjson");
+			assertPackageLine(summary.get(2), supplemental, "00003-SUPPLEMENTAL_1.ndjson");
+			//essences of the supplemental package are found only in its dependent package
+			assertTrue(summary.get(0).contains("\"critical\":0"));
+			assertTrue(summary.get(2).contains("\"status\":\"invalid\""));
+			assertFalse(summary.get(2).contains("\"critical\":0"));
+			assertSummaryLine(summary.get(3), 3);
+		} finally {
+			TestFolders.deleteFolder(folder);
+		}
+	}
+	
+	@Test
+	public void testBatchFolder() throws IOException {
+		Path folder = Files.createTempDirectory("imf-batch");
+		try {
+			List<String> packagePaths = generatePackages(folder.resolve("packages").toFile());
+			
+			//every folder holding an ASSETMAP.xml is a package, in path order
+			File reportFolder = folder.resolve("reports").toFile();
+			ImfValidator.main(new String[] {"--batch", folder.resolve("packages").toString(), "--report", reportFolder.getPath()});
+			
+			List<String> summary = readSummary(reportFolder, 2);
+			assertPackageLine(summary.get(0), packagePaths.get(0), "00001-OV.ndjson");
+			assertPackageLine(summary.get(1), packagePaths.get(1), "00002-SUPPLEMENTAL_1.ndjson");
+			assertSummaryLine(summary.get(2), 2);
+		} finally {
+			TestFolders.deleteFolder(folder);
+		}
+	}
+	
+	private static List<String> generatePackages(File folder) throws IOException {
+		ImfPackageGenerator generator = new ImfPackageGenerator();
+		generator.setSupplementalPackageCount(1);
+		generator.setEssenceSize(0);
+		generator.setSeed(1);
+		List<String> packagePaths = generator.generate(folder);
+		assertEquals(2, packagePaths.size());
+		return packagePaths;
+	}
+	
+	/**
+	 * Read summary.ndjson, each package report should be written next to it
+	 */
+	private static List<String> readSummary(File reportFolder, int packageCount) throws IOException {
+		List<String> summary = Files.readAllLines(new File(reportFolder, "summary.ndjson").toPath(), StandardCharsets.UTF_8);
+		assertEquals(packageCount + 1, summary.size());
+		assertEquals(packageCount + 1, reportFolder.list().length);
+		return summary;
+	}
+	
+	private static void assertPackageLine(String line, String packagePath, String reportName) {
+		assertTrue(line, line.startsWith("{\"type\":\"package\",\"path\":\"" + packagePath + "\",\"report\":\"" + reportName + "\""));
+		assertTrue(line, line.matches(".*\"status\":\"(valid|invalid)\",\"elapsedMs\":\\d+,\"info\":\\d+,\"warning\":\\d+,\"error\":\\d+,\"critical\":\\d+\\}"));
+	}
+	
+	private static void assertSummaryLine(String line, int packageCount) {
+		Matcher matcher = Pattern.compile("\\{\"type\":\"summary\",\"packages\":(\\d+),\"valid\":(\\d+),\"invalid\":(\\d+),\"elapsedMs\":\\d+\\}").matcher(line);
+		assertTrue(line, matcher.matches());
+		assertEquals(packageCount, Integer.parseInt(matcher.group(1)));
+		assertEquals(packageCount, Integer.parseInt(matcher.group(2)) + Integer.parseInt(matcher.group(3)));
+	}
+}
@@ -33,6 +33,10 @@
 
 package com.sferalabs.imf.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -40,9 +44,14 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
 
 import org.junit.Test;
 import org.xml.sax.SAXException;
@@ -50,12 +59,17 @@ import org.xml.sax.SAXException;
 import com.sferalabs.imf.exception.ImfXmlException;
 import com.sferalabs.imf.model.assetmap.Asset;
 import com.sferalabs.imf.model.assetmap.AssetMap;
+import com.sferalabs.imf.model.compositionplaylist.Sequence;
 import com.sferalabs.imf.model.imfpackage.ImfPackage;
 import com.sferalabs.imf.model.packinglist.PackingList;
 import com.sferalabs.imf.util.ImfLogger;
+import com.sferalabs.imf.util.ImfSaxParserPool;
 import com.sferalabs.imf.validation.AssetMapValidator;
 import com.sferalabs.imf.validation.CompositionPlaylistValidator;
+import com.sferalabs.imf.validation.MXFValidationCache;
 import com.sferalabs.imf.validation.PackingListValidator;
+import com.sferalabs.imf.validation.ValidationResult;
+import com.sferalabs.imf.validation.ValidationResultList;
 
 public class CplValidatorTest {
 	
@@ -119,6 +133,178 @@ public class CplValidatorTest {
 		}
 	}
 	
+	@Test
+	public void testMXFValidationCache() {
+		URL filePath = getClass().getResource
+				("/com/sferalabs/imf/test/resources/cpl/ValidCpl/fake_video.mxf");
+		try {
+			final AtomicInteger parseCount = new AtomicInteger();
+			Callable<ValidationResult> validation = new Callable<ValidationResult>() {
+				@Override
+				public ValidationResult call() {
+					parseCount.incrementAndGet();
+					return new ValidationResult(true, "invalid");
+				}
+			};
+			MXFValidationCache cache = new MXFValidationCache();
+			String path = new File(filePath.toURI()).getAbsolutePath();
+			ValidationResult first = cache.getValidationResult(path, validation);
+			ValidationResult second = cache.getValidationResult(path, validation);
+			assertEquals(1, parseCount.get());
+			assertTrue(first.hasError() && second.hasError());
+			assertEquals(first.getMessage(), second.getMessage());
+			assertTrue(first != second);
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+	}
+
+	@Test
+	public void testMXFValidationCacheEviction() {
+		URL videoPath = getClass().getResource
+				("/com/sferalabs/imf/test/resources/cpl/ValidCpl/fake_video.mxf");
+		URL audioPath = getClass().getResource
+				("/com/sferalabs/imf/test/resources/cpl/ValidCpl/fake_audio.mxf");
+		try {
+			final AtomicInteger parseCount = new AtomicInteger();
+			Callable<ValidationResult> validation = new Callable<ValidationResult>() {
+				@Override
+				public ValidationResult call() {
+					parseCount.incrementAndGet();
+					return new ValidationResult(false, "valid");
+				}
+			};
+			MXFValidationCache cache = new MXFValidationCache(1);
+			String video = new File(videoPath.toURI()).getAbsolutePath();
+			String audio = new File(audioPath.toURI()).getAbsolutePath();
+			cache.getValidationResult(video, validation);
+			cache.getValidationResult(video, validation);
+			assertEquals(1, parseCount.get());
+			cache.getValidationResult(audio, validation);
+			assertEquals(1, cache.size());
+			cache.getValidationResult(video, validation);
+			assertEquals(3, parseCount.get());
+			assertEquals(1, cache.size());
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+	}
+
+	@Test
+	public void testSequenceUniqueness() {
+		List<Sequence> sequences = new ArrayList<Sequence>();
+		String[][] ids = {
+				{"urn:uuid:00000000-0000-0000-0000-000000000001", "urn:uuid:00000000-0000-0000-0000-00000000000a"},
+				{"urn:uuid:00000000-0000-0000-0000-000000000002", "urn:uuid:00000000-0000-0000-0000-00000000000b"},
+				{"urn:uuid:00000000-0000-0000-0000-000000000001", "urn:uuid:00000000-0000-0000-0000-00000000000c"},
+				{"urn:uuid:00000000-0000-0000-0000-000000000003", "urn:uuid:00000000-0000-0000-0000-00000000000b"}};
+		for (String[] id : ids) {
+			Sequence sequence = new Sequence();
+			sequence.setId(id[0]);
+			sequence.setTrackId(id[1]);
+			sequences.add(sequence);
+		}
+		ValidationResultList results = CompositionPlaylistValidator.validateSequenceUniqueness(sequences);
+		assertEquals(2, results.size());
+		assertTrue(results.get(0).getMessage().contains(ids[0][0]));
+		assertTrue(results.get(1).getMessage().contains(ids[1][1]));
+		assertEquals(0, CompositionPlaylistValidator.validateSequenceUniqueness(sequences.subList(0, 2)).size());
+	}
+	
+	@Test
+	public void testStreamingValidation() {
+		String[] folders = {"ValidCpl", "DuplicatedSequenceIdCpl", "InvalidTrackFileIdCpl"};
+		try {
+			for (String folder : folders) {
+				URL folderPath = getClass().getResource("/com/sferalabs/imf/test/resources/cpl/" + folder);
+				List<String> results = describe(validateCpls(folderPath, false));
+				List<String> streamedResults = describe(validateCpls(folderPath, true));
+				assertEquals(folder, results, streamedResults);
+			}
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+		
+		URL folderPath = getClass().getResource("/com/sferalabs/imf/test/resources/cpl/MalformedCpl");
+		try {
+			validateCpls(folderPath, true);
+			fail("Unable to detect malformed xml file");
+		} catch (SAXException e) {
+			assertTrue(true);
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testParserReuse() {
+		try {
+			SAXParser parser = ImfSaxParserPool.acquire();
+			SAXParser nestedParser = ImfSaxParserPool.acquire();
+			assertNotSame(parser, nestedParser);
+			ImfSaxParserPool.release(nestedParser);
+			ImfSaxParserPool.release(parser);
+			assertSame(parser, ImfSaxParserPool.acquire());
+			assertNull(parser.getXMLReader().getContentHandler());
+			ImfSaxParserPool.release(parser);
+			
+			//a parser released after a malformed document gives the same results
+			URL folderPath = getClass().getResource("/com/sferalabs/imf/test/resources/cpl/InvalidTrackFileIdCpl");
+			List<String> results = describe(validateCpls(folderPath, false));
+			try {
+				validateCpls(getClass().getResource("/com/sferalabs/imf/test/resources/cpl/MalformedCpl"), false);
+				fail("Unable to detect malformed xml file");
+			} catch (SAXException e) {
+				assertTrue(true);
+			}
+			assertEquals(results, describe(validateCpls(folderPath, false)));
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Rule and message of the results with an error, sorted as streaming reports them in document order
+	 */
+	private static List<String> describe(ValidationResultList results) {
+		List<String> descriptions = new ArrayList<String>();
+		for (ValidationResult result : results) {
+			if (result.hasError()) {
+				descriptions.add(result.getRule() + " " + result.getMessage());
+			}
+		}
+		Collections.sort(descriptions);
+		return descriptions;
+	}
+	
+	private ValidationResultList validateCpls(URL folderPath, boolean isStreaming)
+			throws SAXException, IOException, ParserConfigurationException,
+			ImfXmlException, URISyntaxException {
+		File folder = new File(folderPath.toURI());
+		AssetMapValidator assetValidator = new AssetMapValidator(new ImfPackage(folder.getAbsolutePath()));
+		assetValidator.parse();
+		AssetMap assetMap = assetValidator.getAssetMap();
+		String packingListPath = assetMap.getAssetResourcePath(assetMap.getPackingListAssets().get(0).getUuid());
+		PackingListValidator packingListValidator = new PackingListValidator(packingListPath);
+		packingListValidator.parse();
+		
+		ValidationResultList results = new ValidationResultList();
+		for (Asset cpl : assetMap.getCPLAssets()) {
+			CompositionPlaylistValidator cplValidator = new CompositionPlaylistValidator(
+					assetMap.getAssetResourcePath(cpl.getUuid()));
+			cplValidator.setAssetMap(assetMap);
+			cplValidator.setPackingList(packingListValidator.getPackingList());
+			if (isStreaming) {
+				results.add(cplValidator.validateXsd());
+				results.addAll(cplValidator.validateStreaming());
+			} else {
+				results.add(cplValidator.parse());
+				results.addAll(cplValidator.validate());
+			}
+		}
+		return results;
+	}
+	
 	private void performValidityTest(URL folderPath)
 			throws SAXException, IOException, ParserConfigurationException,
 			ImfXmlException, URISyntaxException {
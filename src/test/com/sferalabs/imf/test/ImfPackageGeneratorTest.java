@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.sferalabs.imf.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import com.sferalabs.imf.model.assetmap.Asset;
+import com.sferalabs.imf.model.assetmap.AssetMap;
+import com.sferalabs.imf.model.compositionplaylist.BaseResource;
+import com.sferalabs.imf.model.compositionplaylist.CompositionPlaylist;
+import com.sferalabs.imf.model.compositionplaylist.ElementSpan;
+import com.sferalabs.imf.model.compositionplaylist.EssenceDescriptor;
+import com.sferalabs.imf.model.compositionplaylist.Segment;
+import com.sferalabs.imf.model.compositionplaylist.Sequence;
+import com.sferalabs.imf.model.imfpackage.ImfPackage;
+import com.sferalabs.imf.saxhandler.CompositionPlaylistListener;
+import com.sferalabs.imf.saxhandler.ElementSpanReader;
+import com.sferalabs.imf.saxhandler.StaxCompositionPlaylistReader;
+import com.sferalabs.imf.validation.AssetMapValidator;
+import com.sferalabs.imf.validation.CompositionPlaylistValidator;
+import com.sferalabs.imf.validation.PackingListValidator;
+import com.sferalabs.imf.validation.ValidationResult;
+import com.sferalabs.imf.validation.ValidationResultList;
+import com.sferalabs.imf.validation.ValidationRule;
+import com.sferalabs.tool.imf.ImfPackageGenerator;
+
+public class ImfPackageGeneratorTest {
+	
+	@Test
+	public void testGeneratedPackagesAreValid() {
+		try {
+			Path folder = Files.createTempDirectory("imf-generated");
+			try {
+				ImfPackageGenerator generator = new ImfPackageGenerator();
+				generator.setCplCount(2);
+				generator.setSegmentCount(3);
+				generator.setSequenceCount(3);
+				generator.setResourceCount(2);
+				generator.setTrackFileCount(2);
+				generator.setEssenceSize(100000);
+				generator.setSupplementalPackageCount(1);
+				List<String> packagePaths = generator.generate(folder.toFile());
+				assertEquals(2, packagePaths.size());
+				
+				List<String> dependentPackagePaths = new ArrayList<String>();
+				ValidationResultList ovResults = validatePackage(packagePaths.get(0), dependentPackagePaths, 3 * 2 + 2 + 1);
+				dependentPackagePaths.add(packagePaths.get(0));
+				ValidationResultList supplementalResults = validatePackage(packagePaths.get(1), dependentPackagePaths, 3 * 2 + 2 + 1);
+				
+				//detected xml mime type depends on the platform
+				ovResults.addAll(supplementalResults);
+				for (ValidationResult result : ovResults) {
+					assertTrue(result.getMessage(), !result.hasError() || result.getRule() == ValidationRule.PKL_MIME_TYPE);
+				}
+			} finally {
+				TestFolders.deleteFolder(folder);
+			}
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testEssenceDescriptorSpans() {
+		try {
+			Path folder = Files.createTempDirectory("imf-generated");
+			try {
+				ImfPackageGenerator generator = new ImfPackageGenerator();
+				generator.setSequenceCount(3);
+				generator.setDescriptorPropertyCount(5);
+				String packagePath = generator.generate(folder.toFile()).get(0);
+				AssetMapValidator assetValidator = new AssetMapValidator(new ImfPackage(packagePath));
+				assetValidator.parse();
+				AssetMap assetMap = assetValidator.getAssetMap();
+				String cplPath = assetMap.getAssetResourcePath(assetMap.getCPLAssets().get(0).getUuid());
+				
+				CompositionPlaylistValidator cplValidator = new CompositionPlaylistValidator(cplPath);
+				ValidationResult result = cplValidator.parse();
+				assertTrue(result.getMessage(), !result.hasError());
+				List<EssenceDescriptor> descriptors = cplValidator.getCompositionPlaylist().getEssenceDescriptorList();
+				assertEquals(3, descriptors.size());
+				
+				final List<EssenceDescriptor> streamedDescriptors = new ArrayList<EssenceDescriptor>();
+				new StaxCompositionPlaylistReader(new CompositionPlaylistListener() {
+					@Override
+					public void compositionPlaylist(CompositionPlaylist compositionPlaylist) {
+						streamedDescriptors.addAll(compositionPlaylist.getEssenceDescriptorList());
+					}
+					
+					@Override
+					public void segment(Segment segment) {
+					}
+					
+					@Override
+					public void sequence(Sequence sequence) {
+					}
+					
+					@Override
+					public void resource(BaseResource resource) {
+					}
+					
+					@Override
+					public void endSegment(Segment segment) {
+					}
+				}).read(cplPath);
+				assertEquals(3, streamedDescriptors.size());
+				
+				for (int i = 0; i < descriptors.size(); i++) {
+					ElementSpan span = descriptors.get(i).getSpan();
+					ElementSpan streamedSpan = streamedDescriptors.get(i).getSpan();
+					assertEquals(span.getStartLine(), streamedSpan.getStartLine());
+					assertEquals(span.getStartColumn(), streamedSpan.getStartColumn());
+					assertEquals(span.getEndLine(), streamedSpan.getEndLine());
+					assertEquals(span.getEndColumn(), streamedSpan.getEndColumn());
+					assertEquals(span.getNamespaces(), streamedSpan.getNamespaces());
+					
+					Element descriptor = ElementSpanReader.read(span);
+					assertEquals("EssenceDescriptor", descriptor.getLocalName());
+					assertEquals("http://www.smpte-ra.org/schemas/2067-3/2013", descriptor.getNamespaceURI());
+					List<Element> children = childElements(descriptor);
+					assertEquals(2, children.size());
+					assertEquals(descriptors.get(i).getId(), children.get(0).getTextContent());
+					assertEquals("RGBADescriptor", children.get(1).getLocalName());
+					assertEquals(5, childElements(children.get(1)).size());
+				}
+			} finally {
+				TestFolders.deleteFolder(folder);
+			}
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+	}
+	
+	private static List<Element> childElements(Element element) {
+		List<Element> children = new ArrayList<Element>();
+		for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (child.getNodeType() == Node.ELEMENT_NODE) {
+				children.add((Element) child);
+			}
+		}
+		return children;
+	}
+	
+	private ValidationResultList validatePackage(String packagePath, List<String> dependentPackagePaths, int assetCount)
+			throws Exception {
+		ValidationResultList results = new ValidationResultList();
+		ImfPackage pack = new ImfPackage(packagePath);
+		pack.setDependantPackageList(dependentPackagePaths);
+		AssetMapValidator assetValidator = new AssetMapValidator(pack);
+		results.add(assetValidator.parse());
+		results.addAll(assetValidator.validate());
+		AssetMap assetMap = assetValidator.getAssetMap();
+		assertEquals(assetCount, assetMap.getAssetList().size());
+		
+		Asset packingListAsset = assetMap.getPackingListAssets().get(0);
+		PackingListValidator packingListValidator = new PackingListValidator(assetMap.getAssetResourcePath(packingListAsset.getUuid()));
+		results.add(packingListValidator.parse());
+		packingListValidator.setAssetMap(assetMap);
+		packingListValidator.setSkipHashChecking(false);
+		results.addAll(packingListValidator.validate());
+		
+		List<Asset> cplAssets = assetMap.getCPLAssets();
+		assertEquals(2, cplAssets.size());
+		for (Asset cpl : cplAssets) {
+			CompositionPlaylistValidator cplValidator = new CompositionPlaylistValidator(assetMap.getAssetResourcePath(cpl.getUuid()));
+			results.add(cplValidator.parse());
+			cplValidator.setAssetMap(assetMap);
+			cplValidator.setPackingList(packingListValidator.getPackingList());
+			results.addAll(cplValidator.validate());
+			assertEquals(3, cplValidator.getCompositionPlaylist().getSegmentList().size());
+		}
+		return results;
+	}
+}
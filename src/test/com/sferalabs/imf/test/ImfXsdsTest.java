@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.sferalabs.imf.test;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.validation.Schema;
+
+import org.junit.Test;
+
+import com.sferalabs.imf.xsd.ImfResourceResolver;
+import com.sferalabs.imf.xsd.ImfXsds;
+
+public class ImfXsdsTest {
+	
+	@Test
+	public void testSchemasCompiledOnce() throws Exception {
+		ImfXsds.getInstance().clearSchemas();
+		final Callable<Schema> getSchema = new Callable<Schema>() {
+			@Override
+			public Schema call() throws Exception {
+				return ImfXsds.getInstance().getSchema(ImfXsds.PACKAGING_LIST_XSD);
+			}
+		};
+		//concurrent first uses share one compiled schema
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Schema>> schemas = new ArrayList<Future<Schema>>();
+			for (int i = 0; i < 4; i++) {
+				schemas.add(executor.submit(getSchema));
+			}
+			Schema schema = schemas.get(0).get();
+			for (Future<Schema> other : schemas) {
+				assertSame(schema, other.get());
+			}
+			assertSame(schema, getSchema.call());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testSchemasRecompiledAfterResourceChange() throws Exception {
+		Schema schema = ImfXsds.getInstance().getSchema(ImfXsds.CPL_XSD);
+		assertSame(schema, ImfXsds.getInstance().getSchema(ImfXsds.CPL_XSD));
+		
+		//schemas may include the changed resource, they are compiled again on next use
+		ImfResourceResolver.getInstance().setResource(ImfResourceResolver.DCMLTYPES_XSD_SYSTEMID, ImfResourceResolver.DCMLTYPES_XSD);
+		Schema recompiledSchema = ImfXsds.getInstance().getSchema(ImfXsds.CPL_XSD);
+		assertNotSame(schema, recompiledSchema);
+		assertSame(recompiledSchema, ImfXsds.getInstance().getSchema(ImfXsds.CPL_XSD));
+	}
+}
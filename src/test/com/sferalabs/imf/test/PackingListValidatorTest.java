@@ -33,27 +33,40 @@
 
 package com.sferalabs.imf.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.junit.Test;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import com.sferalabs.imf.exception.ImfXmlException;
 import com.sferalabs.imf.model.assetmap.Asset;
 import com.sferalabs.imf.model.assetmap.AssetMap;
 import com.sferalabs.imf.model.imfpackage.ImfPackage;
+import com.sferalabs.imf.model.packinglist.PackingList;
+import com.sferalabs.imf.saxhandler.SaxPackingListHandler;
+import com.sferalabs.imf.util.ImfHashAlgorithm;
+import com.sferalabs.imf.util.ImfHashCache;
 import com.sferalabs.imf.util.ImfLogger;
 import com.sferalabs.imf.validation.AssetMapValidator;
 import com.sferalabs.imf.validation.PackingListValidator;
+import com.sferalabs.imf.validation.ValidationResultList;
 
 public class PackingListValidatorTest {
 	
@@ -101,9 +114,113 @@ public class PackingListValidatorTest {
 		}
 	}
 	
-	private void performValidityTest(URL folderPath)
+	@Test
+	public void testParallelHashValidation() {
+		URL folderPath = getClass().getResource
+				("/com/sferalabs/imf/test/resources/packinglist/ValidPackingList");
+		try {
+			ValidationResultList sequentialResults = performValidityTest(folderPath, 1);
+			ValidationResultList parallelResults = performValidityTest(folderPath, 4);
+			assertEquals(sequentialResults.size(), parallelResults.size());
+			for (int i = 0; i < sequentialResults.size(); i++) {
+				assertEquals(sequentialResults.get(i).getMessage(), parallelResults.get(i).getMessage());
+			}
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testMultiDigestHashValidation() {
+		URL folderPath = getClass().getResource
+				("/com/sferalabs/imf/test/resources/packinglist/ValidPackingList");
+		try {
+			ValidationResultList singleResults = performValidityTest(folderPath);
+			ValidationResultList multiResults = performValidityTest(folderPath, 1,
+					EnumSet.of(ImfHashAlgorithm.SHA1, ImfHashAlgorithm.SHA256, ImfHashAlgorithm.CRC32));
+			assertEquals(singleResults.size(), multiResults.size());
+			for (int i = 0; i < singleResults.size(); i++) {
+				assertEquals(singleResults.get(i).getMessage(), multiResults.get(i).getMessage());
+			}
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testHashCacheValidation() {
+		URL folderPath = getClass().getResource
+				("/com/sferalabs/imf/test/resources/packinglist/ValidPackingList");
+		try {
+			Path cacheFolder = Files.createTempDirectory("imf-hash-cache");
+			try {
+				ImfHashCache hashCache = new ImfHashCache(cacheFolder.toString());
+				ValidationResultList uncachedResults = performValidityTest(folderPath, 1,
+						EnumSet.noneOf(ImfHashAlgorithm.class), hashCache);
+				hashCache.save();
+				
+				ImfHashCache loadedHashCache = new ImfHashCache(cacheFolder.toString());
+				loadedHashCache.load();
+				assertEquals(2, loadedHashCache.size());
+				ValidationResultList cachedResults = performValidityTest(folderPath, 1,
+						EnumSet.noneOf(ImfHashAlgorithm.class), loadedHashCache);
+				assertEquals(uncachedResults.size(), cachedResults.size());
+				for (int i = 0; i < uncachedResults.size(); i++) {
+					assertEquals(uncachedResults.get(i).getMessage(), cachedResults.get(i).getMessage());
+				}
+			} finally {
+				for (File file : cacheFolder.toFile().listFiles()) {
+					file.delete();
+				}
+				Files.delete(cacheFolder);
+			}
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testSplitElementText() {
+		//entity references make the parser report element text in several callbacks
+		String xml = "<PackingList xmlns=\"http://www.smpte-ra.org/schemas/429-8/2007/PKL\">"
+				+ "<Id>urn:uuid:8a2a0e5d-5e2b-4f2a-9c1e-2f0d3c7b6a41</Id>"
+				+ "<AnnotationText>\n  Picture &amp; Sound  \n</AnnotationText>"
+				+ "<AssetList><Asset><Id>urn:uuid:0b9f5b56-6d4b-4c8e-8f5e-3a1c2d4e5f60</Id>"
+				+ "<Size>1&#48;24</Size></Asset></AssetList></PackingList>";
+		try {
+			SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+			parserFactory.setNamespaceAware(true);
+			SaxPackingListHandler handler = new SaxPackingListHandler();
+			parserFactory.newSAXParser().parse(new InputSource(new StringReader(xml)), handler);
+			PackingList packingList = handler.getPackingList();
+			assertEquals("Picture & Sound", packingList.getAnnotation());
+			assertEquals(1024, packingList.getAssetList().get(0).getSize());
+		} catch (Exception e) {
+			fail("Unexpected error: " + e.getMessage());
+		}
+	}
+	
+	private ValidationResultList performValidityTest(URL folderPath)
 			throws SAXException, IOException, ParserConfigurationException,
 			ImfXmlException, URISyntaxException {
+		return performValidityTest(folderPath, 1);
+	}
+	
+	private ValidationResultList performValidityTest(URL folderPath, int hashThreadCount)
+			throws SAXException, IOException, ParserConfigurationException,
+			ImfXmlException, URISyntaxException {
+		return performValidityTest(folderPath, hashThreadCount, EnumSet.noneOf(ImfHashAlgorithm.class));
+	}
+	
+	private ValidationResultList performValidityTest(URL folderPath, int hashThreadCount,
+			Set<ImfHashAlgorithm> extraHashAlgos) throws SAXException, IOException,
+			ParserConfigurationException, ImfXmlException, URISyntaxException {
+		return performValidityTest(folderPath, hashThreadCount, extraHashAlgos, null);
+	}
+	
+	private ValidationResultList performValidityTest(URL folderPath, int hashThreadCount,
+			Set<ImfHashAlgorithm> extraHashAlgos, ImfHashCache hashCache) throws SAXException, IOException,
+			ParserConfigurationException, ImfXmlException, URISyntaxException {
 		ImfLogger.getLogger().clearErrors();
 		File folder = new File(folderPath.toURI());
 		ImfPackage pack = new ImfPackage(folder.getAbsolutePath());
@@ -119,7 +236,10 @@ public class PackingListValidatorTest {
 		PackingListValidator packingListValidator = new PackingListValidator(packingListPath);
 		packingListValidator.parse();
 		packingListValidator.setAssetMap(assetMap);
-		packingListValidator.validate();
+		packingListValidator.setHashThreadCount(hashThreadCount);
+		packingListValidator.setExtraHashAlgorithms(extraHashAlgos);
+		packingListValidator.setHashCache(hashCache);
+		return packingListValidator.validate();
 	}
 
 }
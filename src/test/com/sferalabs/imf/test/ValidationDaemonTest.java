@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.sferalabs.imf.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.sferalabs.tool.imf.ImfPackageGenerator;
+import com.sferalabs.tool.imf.ValidationDaemon;
+
+public class ValidationDaemonTest {
+	
+	@Test
+	public void testJobLifecycle() throws Exception {
+		String packagePath = new File(getClass().getResource
+				("/com/sferalabs/imf/test/resources/assetmap/DuplicatedIdAssetMap").toURI()).getAbsolutePath();
+		ValidationDaemon daemon = new ValidationDaemon(0, 2);
+		daemon.start();
+		try {
+			String jobsUrl = "http://127.0.0.1:" + daemon.getPort() + "/jobs";
+			HttpURLConnection connection = request(jobsUrl, "POST", "package=" + URLEncoder.encode(packagePath, "UTF-8") + "&priority=5");
+			assertEquals(202, connection.getResponseCode());
+			String location = connection.getHeaderField("Location");
+			assertTrue(read(connection.getInputStream()).contains("\"priority\":5"));
+			
+			//report is streamed until the job is finished
+			String report = read(request(jobsUrl.replace("/jobs", location) + "/results", "GET", null).getInputStream());
+			assertTrue(report.contains("\"ruleId\":\"UUID_UNIQUE\""));
+			assertTrue(report.trim().endsWith("}") && report.contains("\"type\":\"summary\""));
+			
+			String status = read(request(jobsUrl.replace("/jobs", location), "GET", null).getInputStream());
+			assertTrue(status.contains("\"status\":\"DONE\""));
+			assertTrue(status.contains("\"valid\":false"));
+			assertTrue(read(request(jobsUrl, "GET", null).getInputStream()).contains(location.substring("/jobs/".length())));
+			
+			assertEquals(400, request(jobsUrl, "POST", "priority=1").getResponseCode());
+			assertEquals(404, request(jobsUrl + "/12345", "GET", null).getResponseCode());
+		} finally {
+			daemon.stop();
+		}
+	}
+	
+	@Test
+	public void testPrefetchedJobReport() throws Exception {
+		Path folder = Files.createTempDirectory("imf-generated");
+		try {
+			ImfPackageGenerator generator = new ImfPackageGenerator();
+			generator.setCplCount(3);
+			generator.setSegmentCount(5);
+			generator.setResourceCount(4);
+			String packagePath = generator.generate(folder.toFile()).get(0);
+			
+			//documents parsed ahead are reported in the same order
+			String report = validate(packagePath, false);
+			assertTrue(report.contains("\"type\":\"summary\""));
+			assertEquals(report, validate(packagePath, true));
+		} finally {
+			TestFolders.deleteFolder(folder);
+		}
+	}
+	
+	/**
+	 * Validate a package with a new daemon, CPLs are validated one at a time so the report order is stable
+	 * @return report of the job without timing fields
+	 */
+	private static String validate(String packagePath, boolean isXmlPrefetched) throws IOException {
+		ValidationDaemon daemon = new ValidationDaemon(0, 1);
+		daemon.setCplThreadCount(1);
+		daemon.setXmlPrefetch(isXmlPrefetched);
+		daemon.start();
+		try {
+			String jobsUrl = "http://127.0.0.1:" + daemon.getPort() + "/jobs";
+			HttpURLConnection connection = request(jobsUrl, "POST", "package=" + URLEncoder.encode(packagePath, "UTF-8"));
+			assertEquals(202, connection.getResponseCode());
+			String location = connection.getHeaderField("Location");
+			String report = read(request(jobsUrl.replace("/jobs", location) + "/results", "GET", null).getInputStream());
+			return report.replaceAll("\"timestamp\":\"[^\"]*\",\"elapsedMs\":\\d+,", "");
+		} finally {
+			daemon.stop();
+		}
+	}
+	
+	private static HttpURLConnection request(String url, String method, String form) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestMethod(method);
+		if (form != null) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+			try (OutputStream outputStream = connection.getOutputStream()) {
+				outputStream.write(form.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		return connection;
+	}
+	
+	private static String read(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try {
+			byte[] buffer = new byte[4096];
+			int count;
+			while ((count = inputStream.read(buffer)) != -1) {
+				output.write(buffer, 0, count);
+			}
+		} finally {
+			inputStream.close();
+		}
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
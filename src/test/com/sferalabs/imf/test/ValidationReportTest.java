@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.sferalabs.imf.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.sferalabs.imf.validation.ValidationCancellation;
+import com.sferalabs.imf.validation.ValidationReportWriter;
+import com.sferalabs.imf.validation.ValidationResult;
+import com.sferalabs.imf.validation.ValidationResultList;
+import com.sferalabs.imf.validation.ValidationRule;
+import com.sferalabs.imf.validation.ValidationSeverity;
+import com.sferalabs.imf.validation.ValidationStopCondition;
+
+public class ValidationReportTest {
+	
+	@Test
+	public void testResultsReportedOnce() throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ValidationReportWriter reportWriter = new ValidationReportWriter(outputStream);
+		
+		//results move from validator lists to the package list, each is written when first added
+		ValidationResultList validatorResults = new ValidationResultList(reportWriter);
+		validatorResults.setDefaultFilePath("/package/PKL.xml");
+		ValidationResult mismatch = new ValidationResult(true, "size \"0\" does not match", ValidationRule.PKL_SIZE);
+		mismatch.setAssetUuid("urn:uuid:4da4a906-a08e-4587-b94f-9e4ea29c4eb5");
+		validatorResults.add(mismatch);
+		validatorResults.add(new ValidationResult(true, "not unique", ValidationRule.UUID_UNIQUE));
+		validatorResults.add(new ValidationResult());
+		//written as soon as added, the empty success is skipped
+		assertEquals(2, outputStream.toString("UTF-8").split("\n").length);
+		
+		ValidationResultList packageResults = new ValidationResultList(reportWriter);
+		packageResults.addAll(validatorResults);
+		reportWriter.close();
+		
+		String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals(3, lines.length);
+		assertTrue(lines[0].contains("\"ruleId\":\"PKL_SIZE\""));
+		assertTrue(lines[0].contains("\"severity\":\"WARNING\""));
+		assertTrue(lines[0].contains("\"assetUuid\":\"urn:uuid:4da4a906-a08e-4587-b94f-9e4ea29c4eb5\""));
+		assertTrue(lines[0].contains("\"file\":\"/package/PKL.xml\""));
+		assertTrue(lines[0].contains("\"message\":\"size \\\"0\\\" does not match\""));
+		assertTrue(lines[1].contains("\"severity\":\"ERROR\""));
+		assertTrue(lines[2].contains("\"type\":\"summary\""));
+		assertTrue(lines[2].contains("\"warning\":1,\"error\":1"));
+	}
+	
+	@Test
+	public void testStopConditionCancelsWork() throws Exception {
+		assertEquals(ValidationStopCondition.FIRST_ERROR, ValidationStopCondition.parse("first-error"));
+		assertEquals(ValidationSeverity.CRITICAL, ValidationStopCondition.parse("first-critical").getSeverity());
+		assertNull(ValidationStopCondition.parse("0"));
+		assertNull(ValidationStopCondition.parse("all"));
+		
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ValidationReportWriter reportWriter = new ValidationReportWriter(outputStream);
+		ValidationCancellation cancellation = new ValidationCancellation(ValidationStopCondition.parse("2"), reportWriter);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		final CountDownLatch started = new CountDownLatch(1);
+		try {
+			//stands for a hash calculation blocked in a read
+			Future<?> work = executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					started.countDown();
+					try {
+						Thread.sleep(60000);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			cancellation.register(work);
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			
+			ValidationResultList results = new ValidationResultList(cancellation);
+			results.add(new ValidationResult(true, "not unique", ValidationRule.UUID_UNIQUE));
+			results.add(new ValidationResult(true, "size does not match", ValidationRule.PKL_SIZE));
+			assertFalse(cancellation.isCancelled());
+			assertFalse(work.isDone());
+			
+			results.add(new ValidationResult(true, "not listed", ValidationRule.CPL_ID_LISTED));
+			assertTrue(cancellation.isCancelled());
+			assertTrue(work.isCancelled());
+			
+			//work registered once cancelled is cancelled at once
+			Future<?> lateWork = executor.submit(new Runnable() {
+				@Override
+				public void run() {
+				}
+			});
+			cancellation.register(lateWork);
+			assertTrue(lateWork.isDone());
+			
+			//the sleeping worker was interrupted, so the executor terminates without being forced
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		//all results still reach the report
+		reportWriter.close();
+		String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals(4, lines.length);
+		assertTrue(lines[3].contains("\"warning\":1,\"error\":2"));
+	}
+}
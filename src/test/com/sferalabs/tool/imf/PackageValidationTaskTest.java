@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2015 Sfera Labs LLC. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ * this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * 3. All advertising materials mentioning features or use of this software must
+ * display the following acknowledgement:
+ * This product includes software developed by the SFERA LABS LLC.
+ *
+ * 4. Neither the name of SFERA LABS LLC nor the names of its contributors may be
+ * used to endorse or promote products derived from this software without specific
+ * prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY SFERA LABS LLC AND ITS CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL SFERA LABS LLC OR ITS CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.sferalabs.tool.imf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sferalabs.imf.test.TestFolders;
+import com.sferalabs.imf.validation.ValidationResult;
+import com.sferalabs.imf.validation.ValidationResultList;
+import com.sferalabs.imf.validation.ValidationRule;
+
+public class PackageValidationTaskTest {
+	
+	/**
+	 * Outcome of a package validation
+	 */
+	private static class Validation {
+		private final List<String> results = new ArrayList<String>();
+		private String output;
+		private List<String> reportLines;
+	}
+	
+	@Test
+	public void testXmlPrefetch() throws Exception {
+		Path folder = Files.createTempDirectory("imf-generated");
+		try {
+			ImfPackageGenerator generator = new ImfPackageGenerator();
+			generator.setCplCount(3);
+			generator.setSegmentCount(5);
+			generator.setResourceCount(4);
+			String packagePath = generator.generate(folder.toFile()).get(0);
+			//a CPL not following its xsd, the prefetched parse carries the error
+			File cplFile = findCpls(packagePath).get(1);
+			String cpl = new String(Files.readAllBytes(cplFile.toPath()), StandardCharsets.UTF_8);
+			Files.write(cplFile.toPath(), cpl.replaceFirst("</IssueDate>", "</IssueDate><Unexpected/>").getBytes(StandardCharsets.UTF_8));
+			
+			//one CPL at a time, the report is written in a stable order
+			Validation validation = validate(packagePath, 1, false);
+			assertTrue(validation.reportLines.toString().contains("\"ruleId\":\"XSD\",\"severity\":\"ERROR\""));
+			Validation prefetchedValidation = validate(packagePath, 1, true);
+			assertEquals(validation.results, prefetchedValidation.results);
+			assertEquals(validation.output, prefetchedValidation.output);
+			assertEquals(validation.reportLines, prefetchedValidation.reportLines);
+			
+			//concurrent CPLs report results as found, output keeps the AssetMap order
+			prefetchedValidation = validate(packagePath, 3, true);
+			assertEquals(validation.results, prefetchedValidation.results);
+			assertEquals(validation.output, prefetchedValidation.output);
+			Collections.sort(validation.reportLines);
+			Collections.sort(prefetchedValidation.reportLines);
+			assertEquals(validation.reportLines, prefetchedValidation.reportLines);
+		} finally {
+			TestFolders.deleteFolder(folder);
+		}
+	}
+	
+	@Test
+	public void testHandlerErrorsAreCritical() throws Exception {
+		Path folder = Files.createTempDirectory("imf-generated");
+		try {
+			ImfPackageGenerator generator = new ImfPackageGenerator();
+			generator.setCplCount(1);
+			String packagePath = generator.generate(folder.toFile()).get(0);
+			File packingListFile = null;
+			for (File file : new File(packagePath).listFiles()) {
+				if (file.getName().startsWith("PKL_")) {
+					packingListFile = file;
+				}
+			}
+			
+			//handlers reject documents with plain SAXExceptions, without location
+			File cplFile = findCpls(packagePath).get(0);
+			byte[] cpl = Files.readAllBytes(cplFile.toPath());
+			Files.copy(packingListFile.toPath(), cplFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			ValidationResult result = findXsdResult(new PackageValidationTask(packagePath).call());
+			assertTrue(result.isCriticalError());
+			assertEquals("Invalid xml file, CompositionPlaylist should be the first node", result.getMessage());
+			
+			Files.write(cplFile.toPath(), cpl);
+			String packingList = new String(Files.readAllBytes(packingListFile.toPath()), StandardCharsets.UTF_8);
+			Files.write(packingListFile.toPath(), packingList.replaceFirst("</IssueDate>", "</IssueDate><PackingList/>")
+					.getBytes(StandardCharsets.UTF_8));
+			result = findXsdResult(new PackageValidationTask(packagePath).call());
+			assertTrue(result.isCriticalError());
+			assertEquals(packingListFile.getPath(), result.getFilePath());
+			assertEquals("Invalid xml file, only one PackingList should be presented in the document", result.getMessage());
+		} finally {
+			TestFolders.deleteFolder(folder);
+		}
+	}
+	
+	private static ValidationResult findXsdResult(ValidationResultList results) {
+		ValidationResult xsdResult = null;
+		for (ValidationResult result : results) {
+			if (result.getRule() == ValidationRule.XSD && result.isCriticalError()) {
+				assertFalse(xsdResult != null);
+				xsdResult = result;
+			}
+		}
+		assertTrue(xsdResult != null);
+		return xsdResult;
+	}
+	
+	private static Validation validate(String packagePath, int cplThreadCount, boolean isXmlPrefetched) throws IOException {
+		ByteArrayOutputStream reportOutput = new ByteArrayOutputStream();
+		PackageValidationTask task = new PackageValidationTask(packagePath);
+		task.setCplThreadCount(cplThreadCount);
+		task.setXmlPrefetch(isXmlPrefetched);
+		task.setReportOutput(reportOutput);
+		task.setCaptureOutput(true);
+		ValidationResultList results = task.call();
+		
+		//results are only counted, the report has them
+		Validation validation = new Validation();
+		assertTrue(results.isEmpty());
+		validation.results.add(results.containsError() + " " + results.containsCriticalError() + " " + results.getSeverityCounts());
+		validation.output = task.getOutput();
+		String report = new String(reportOutput.toByteArray(), StandardCharsets.UTF_8);
+		validation.reportLines = new ArrayList<String>(Arrays.asList(
+				report.replaceAll("\"timestamp\":\"[^\"]*\",\"elapsedMs\":\\d+,", "").split("\n")));
+		return validation;
+	}
+	
+	private static List<File> findCpls(String packagePath) {
+		List<File> cpls = new ArrayList<File>();
+		for (File file : new File(packagePath).listFiles()) {
+			if (file.getName().startsWith("CPL_")) {
+				cpls.add(file);
+			}
+		}
+		Collections.sort(cpls);
+		return cpls;
+	}
+}